@@ -36,6 +36,10 @@ dependencies {
         isTransitive = false
     }
     // Paper end
+    // Paper start - additional chunk compression formats
+    implementation("org.lz4:lz4-java:1.8.0")
+    implementation("com.github.luben:zstd-jni:1.5.2-3")
+    // Paper end
     runtimeOnly("org.xerial:sqlite-jdbc:3.36.0.3")
     runtimeOnly("mysql:mysql-connector-java:8.0.29")
     runtimeOnly("com.lmax:disruptor:3.4.4") // Paper
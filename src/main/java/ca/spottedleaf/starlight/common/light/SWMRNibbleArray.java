@@ -15,6 +15,11 @@ public final class SWMRNibbleArray {
      * Uninitialised nibble - They are all 0, but the backing array isn't initialised.
      *
      * Initialised nibble - Has light data.
+     *
+     * Initialised nibbles with the same light value everywhere, such as fully lit sky sections or dark sections
+     * underground, share an immutable array per light value instead of each holding their own copy. Shared arrays
+     * are never written to: writes only go to the updating storage once it is marked dirty, which always copies the
+     * current data into a private array first.
      */
 
     protected static final int INIT_STATE_NULL   = 0; // null
@@ -36,16 +41,64 @@ public final class SWMRNibbleArray {
     }
 
     private static void freeBytes(final byte[] bytes) {
+        if (isShared(bytes)) {
+            return;
+        }
         WORKING_BYTES_POOL.get().addFirst(bytes);
     }
 
+    // index is the light value
+    private static final byte[][] UNIFORM_BYTES = new byte[16][];
+    static {
+        for (int i = 0; i < UNIFORM_BYTES.length; ++i) {
+            final byte[] bytes = new byte[ARRAY_SIZE];
+            Arrays.fill(bytes, (byte)(i | (i << 4)));
+            UNIFORM_BYTES[i] = bytes;
+        }
+    }
+
+    static boolean isShared(final byte[] bytes) {
+        return bytes != null && bytes.length == ARRAY_SIZE && UNIFORM_BYTES[bytes[0] & 0xF] == bytes;
+    }
+
+    /**
+     * Returns the shared array with the same data as the given array, or {@code null} if the light value of the
+     * given data is not the same everywhere.
+     */
+    static byte[] getShared(final byte[] bytes) {
+        final byte first = bytes[0];
+        final int value = first & 0xF;
+        if ((first >>> 4 & 0xF) != value) {
+            return null;
+        }
+        final byte[] shared = UNIFORM_BYTES[value];
+        if (shared == bytes) {
+            return shared;
+        }
+        for (int i = 1; i < ARRAY_SIZE; ++i) {
+            if (bytes[i] != first) {
+                return null;
+            }
+        }
+        return shared;
+    }
+
+    private static byte[] shareIfUniform(final byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        final byte[] shared = getShared(bytes);
+        return shared == null ? bytes : shared;
+    }
+
     public static SWMRNibbleArray fromVanilla(final DataLayer nibble) {
         if (nibble == null) {
             return new SWMRNibbleArray(null, true);
         } else if (nibble.isEmpty()) {
             return new SWMRNibbleArray();
         } else {
-            return new SWMRNibbleArray(nibble.getData().clone()); // make sure we don't write to the parameter later
+            final byte[] shared = getShared(nibble.getData());
+            return new SWMRNibbleArray(shared != null ? shared : nibble.getData().clone()); // make sure we don't write to the parameter later
         }
     }
 
@@ -69,7 +122,7 @@ public final class SWMRNibbleArray {
             throw new IllegalArgumentException("Data of wrong length: " + bytes.length);
         }
         this.stateVisible = this.stateUpdating = bytes == null ? (isNullNibble ? INIT_STATE_NULL : INIT_STATE_UNINIT) : INIT_STATE_INIT;
-        this.storageUpdating = this.storageVisible = bytes;
+        this.storageUpdating = this.storageVisible = shareIfUniform(bytes);
     }
 
     public SWMRNibbleArray(final byte[] bytes, final int state) {
@@ -80,7 +133,7 @@ public final class SWMRNibbleArray {
             throw new IllegalArgumentException("Data cannot be null and have state be initialised");
         }
         this.stateUpdating = this.stateVisible = state;
-        this.storageUpdating = this.storageVisible = bytes;
+        this.storageUpdating = this.storageVisible = shareIfUniform(bytes);
     }
 
     @Override
@@ -104,6 +157,9 @@ public final class SWMRNibbleArray {
                 stringBuilder.append("unknown");
                 break;
         }
+        if (isShared(this.storageVisible)) {
+            stringBuilder.append(" (shared)");
+        }
         stringBuilder.append("\nData:\n");
 
         final byte[] data = this.storageVisible;
@@ -138,11 +194,12 @@ public final class SWMRNibbleArray {
             if (state == INIT_STATE_UNINIT) {
                 return new SaveState(null, state);
             }
-            final boolean zero = isAllZero(data);
+            final boolean zero = data == UNIFORM_BYTES[0] || isAllZero(data);
             if (zero) {
                 return state == INIT_STATE_INIT ? new SaveState(null, INIT_STATE_UNINIT) : null;
             } else {
-                return new SaveState(data.clone(), state);
+                // shared data is never written to, so it does not need to be copied
+                return new SaveState(isShared(data) ? data : data.clone(), state);
             }
         }
     }
@@ -330,11 +387,16 @@ public final class SWMRNibbleArray {
             return false;
         }
 
+        byte[] shared;
         synchronized (this) {
             if (this.stateUpdating == INIT_STATE_NULL || this.stateUpdating == INIT_STATE_UNINIT) {
                 this.storageVisible = null;
+            } else if (this.updatingDirty && (shared = getShared(this.storageUpdating)) != null) {
+                // the old visible array may still be read, so it is left to the GC rather than pooled
+                freeBytes(this.storageUpdating);
+                this.storageUpdating = this.storageVisible = shared;
             } else {
-                if (this.storageVisible == null) {
+                if (this.storageVisible == null || isShared(this.storageVisible)) {
                     this.storageVisible = this.storageUpdating.clone();
                 } else {
                     if (this.storageUpdating != this.storageVisible) {
@@ -364,7 +426,8 @@ public final class SWMRNibbleArray {
                 case INIT_STATE_UNINIT:
                     return new DataLayer();
                 case INIT_STATE_INIT:
-                    return new DataLayer(this.storageVisible.clone());
+                    // DataLayers are mutable, only the empty one can be returned without copying
+                    return this.storageVisible == UNIFORM_BYTES[0] ? new DataLayer() : new DataLayer(this.storageVisible.clone());
                 default:
                     throw new IllegalStateException();
             }
@@ -2,7 +2,11 @@ package ca.spottedleaf.starlight.common.light;
 
 import ca.spottedleaf.starlight.common.util.CoordinateUtils;
 import ca.spottedleaf.starlight.common.util.WorldUtil;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.util.LightWorkerPool;
 import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
 import it.unimi.dsi.fastutil.shorts.ShortCollection;
 import it.unimi.dsi.fastutil.shorts.ShortOpenHashSet;
 import net.minecraft.core.BlockPos;
@@ -21,7 +25,9 @@ import net.minecraft.world.level.lighting.LayerLightEventListener;
 import net.minecraft.world.level.lighting.LevelLightEngine;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
@@ -523,6 +529,14 @@ public final class StarLightInterface {
             return;
         }
 
+        if (!this.isClientSide) {
+            this.relightBulkChanges();
+            if (LightWorkerPool.shouldUse(this.lightQueue.size())) {
+                this.propagateChangesConcurrently();
+                return;
+            }
+        }
+
         final SkyStarLightEngine skyEngine = this.getSkyLightEngine();
         final BlockStarLightEngine blockEngine = this.getBlockLightEngine();
 
@@ -535,29 +549,196 @@ public final class StarLightInterface {
                     }
                 }
 
-                final long coordinate = task.chunkCoordinate;
-                final int chunkX = CoordinateUtils.getChunkX(coordinate);
-                final int chunkZ = CoordinateUtils.getChunkZ(coordinate);
+                this.propagateTask(skyEngine, blockEngine, task);
 
-                final Set<BlockPos> positions = task.changedPositions;
-                final Boolean[] sectionChanges = task.changedSectionSet;
+                task.onComplete.complete(null);
+            }
+        } finally {
+            this.releaseSkyLightEngine(skyEngine);
+            this.releaseBlockLightEngine(blockEngine);
+        }
+    }
 
-                if (skyEngine != null && (!positions.isEmpty() || sectionChanges != null)) {
-                    skyEngine.blocksChangedInChunk(this.lightAccess, chunkX, chunkZ, positions, sectionChanges);
+    protected final void propagateTask(final SkyStarLightEngine skyEngine, final BlockStarLightEngine blockEngine,
+                                       final LightQueue.ChunkTasks task) {
+        final long coordinate = task.chunkCoordinate;
+        final int chunkX = CoordinateUtils.getChunkX(coordinate);
+        final int chunkZ = CoordinateUtils.getChunkZ(coordinate);
+
+        final Set<BlockPos> positions = task.changedPositions;
+        final Boolean[] sectionChanges = task.changedSectionSet;
+
+        if (task.bulkRelightSections != null) {
+            // changes of sections queued for a relight were not recorded, check every block of these sections
+            for (int sectionIndex = task.bulkRelightSections.nextSetBit(0); sectionIndex >= 0; sectionIndex = task.bulkRelightSections.nextSetBit(sectionIndex + 1)) {
+                final int minY = (sectionIndex + this.minSection) << 4;
+                for (int y = minY; y < minY + 16; ++y) {
+                    for (int z = chunkZ << 4, maxZ = z + 16; z < maxZ; ++z) {
+                        for (int x = chunkX << 4, maxX = x + 16; x < maxX; ++x) {
+                            positions.add(new BlockPos(x, y, z));
+                        }
+                    }
                 }
-                if (blockEngine != null && (!positions.isEmpty() || sectionChanges != null)) {
-                    blockEngine.blocksChangedInChunk(this.lightAccess, chunkX, chunkZ, positions, sectionChanges);
+            }
+            task.bulkRelightSections = null;
+        }
+
+        if (skyEngine != null && (!positions.isEmpty() || sectionChanges != null)) {
+            skyEngine.blocksChangedInChunk(this.lightAccess, chunkX, chunkZ, positions, sectionChanges);
+        }
+        if (blockEngine != null && (!positions.isEmpty() || sectionChanges != null)) {
+            blockEngine.blocksChangedInChunk(this.lightAccess, chunkX, chunkZ, positions, sectionChanges);
+        }
+
+        if (skyEngine != null && task.queuedEdgeChecksSky != null) {
+            skyEngine.checkChunkEdges(this.lightAccess, chunkX, chunkZ, task.queuedEdgeChecksSky);
+        }
+        if (blockEngine != null && task.queuedEdgeChecksBlock != null) {
+            blockEngine.checkChunkEdges(this.lightAccess, chunkX, chunkZ, task.queuedEdgeChecksBlock);
+        }
+    }
+
+    /**
+     * Returns the number of changed blocks in a single section after which the chunk of the section is relit
+     * instead of propagating the changed blocks one by one, or {@code -1} if chunks are never relit.
+     */
+    protected static int getBulkRelightThreshold() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config == null ? -1 : config.lightEngine.bulkRelightThreshold;
+    }
+
+    protected static boolean canRelight(final ChunkAccess chunk) {
+        return chunk != null && chunk.isLightCorrect() && chunk.getStatus().isOrAfter(ChunkStatus.LIGHT);
+    }
+
+    /**
+     * Relights the chunks of queued tasks with too many changed blocks in a section, instead of propagating the
+     * changes block by block. Light leaks at most 15 blocks, so relighting the neighbours of the chunks as well
+     * removes any light the old blocks spread into them.
+     */
+    protected final void relightBulkChanges() {
+        final List<LightQueue.ChunkTasks> tasks = this.lightQueue.removeBulkRelightTasks();
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        final Set<ChunkPos> chunks = new LinkedHashSet<>();
+        final List<LightQueue.ChunkTasks> relitTasks = new ArrayList<>(tasks.size());
+        final List<LightQueue.ChunkTasks> incrementalTasks = new ArrayList<>();
+
+        for (final LightQueue.ChunkTasks task : tasks) {
+            if (task.lightTasks != null) {
+                for (final Runnable run : task.lightTasks) {
+                    run.run();
                 }
+            }
 
-                if (skyEngine != null && task.queuedEdgeChecksSky != null) {
-                    skyEngine.checkChunkEdges(this.lightAccess, chunkX, chunkZ, task.queuedEdgeChecksSky);
+            final int chunkX = CoordinateUtils.getChunkX(task.chunkCoordinate);
+            final int chunkZ = CoordinateUtils.getChunkZ(task.chunkCoordinate);
+            final ChunkAccess center = (ChunkAccess)this.lightAccess.getChunkForLighting(chunkX, chunkZ);
+            // only full chunks hold a chunk work ticket, which keeps the neighbours loaded during the relight
+            if (!canRelight(center) || center.getStatus() != ChunkStatus.FULL) {
+                incrementalTasks.add(task);
+                continue;
+            }
+
+            relitTasks.add(task);
+            chunks.add(new ChunkPos(chunkX, chunkZ));
+        }
+
+        for (final LightQueue.ChunkTasks task : relitTasks) {
+            final int chunkX = CoordinateUtils.getChunkX(task.chunkCoordinate);
+            final int chunkZ = CoordinateUtils.getChunkZ(task.chunkCoordinate);
+            for (int dz = -1; dz <= 1; ++dz) {
+                for (int dx = -1; dx <= 1; ++dx) {
+                    if (canRelight((ChunkAccess)this.lightAccess.getChunkForLighting(chunkX + dx, chunkZ + dz))) {
+                        chunks.add(new ChunkPos(chunkX + dx, chunkZ + dz));
+                    }
                 }
-                if (blockEngine != null && task.queuedEdgeChecksBlock != null) {
-                    blockEngine.checkChunkEdges(this.lightAccess, chunkX, chunkZ, task.queuedEdgeChecksBlock);
+            }
+        }
+
+        if (!chunks.isEmpty()) {
+            this.relightChunks(chunks, null, null);
+        }
+
+        if (!incrementalTasks.isEmpty()) {
+            final SkyStarLightEngine skyEngine = this.getSkyLightEngine();
+            final BlockStarLightEngine blockEngine = this.getBlockLightEngine();
+
+            try {
+                for (final LightQueue.ChunkTasks task : incrementalTasks) {
+                    this.propagateTask(skyEngine, blockEngine, task);
                 }
+            } finally {
+                this.releaseSkyLightEngine(skyEngine);
+                this.releaseBlockLightEngine(blockEngine);
+            }
+        }
+
+        for (final LightQueue.ChunkTasks task : tasks) {
+            task.onComplete.complete(null);
+        }
+    }
+
+    /*
+     * The engines only read and write chunks within 2 chunks of the chunk they propagate changes for. Queued chunks
+     * are grouped into square regions of 4 chunks, and the regions are split into 4 sets by the parity of their
+     * coordinates. Regions of the same set are separated by at least 4 chunks, so no chunk is touched by two
+     * regions of a set: the regions of a set are propagated at the same time, one engine per region, and the sets
+     * one after another.
+     * Tasks of the same region are propagated in queue order by one engine. The light values a propagation arrives
+     * at only depend on the blocks and the light of the neighbouring chunks, not on the order of the changes, so
+     * the result is the same as propagating all tasks in queue order.
+     */
+    protected static final int CONCURRENT_REGION_SHIFT = 2;
 
+    protected final void propagateChangesConcurrently() {
+        List<LightQueue.ChunkTasks> tasks;
+        while (!(tasks = this.lightQueue.removeAllTasks()).isEmpty()) {
+            // initial chunk lighting completes the futures of chunk generation, keep it on this thread
+            for (final LightQueue.ChunkTasks task : tasks) {
+                if (task.lightTasks != null) {
+                    for (final Runnable run : task.lightTasks) {
+                        run.run();
+                    }
+                }
+            }
+
+            final List<Long2ObjectLinkedOpenHashMap<List<LightQueue.ChunkTasks>>> sets = new ArrayList<>(4);
+            for (int i = 0; i < 4; ++i) {
+                sets.add(new Long2ObjectLinkedOpenHashMap<>());
+            }
+
+            for (final LightQueue.ChunkTasks task : tasks) {
+                final int regionX = CoordinateUtils.getChunkX(task.chunkCoordinate) >> CONCURRENT_REGION_SHIFT;
+                final int regionZ = CoordinateUtils.getChunkZ(task.chunkCoordinate) >> CONCURRENT_REGION_SHIFT;
+                sets.get((regionX & 1) | ((regionZ & 1) << 1))
+                    .computeIfAbsent(CoordinateUtils.getChunkKey(regionX, regionZ), (final long key) -> new ArrayList<>())
+                    .add(task);
+            }
+
+            for (final Long2ObjectLinkedOpenHashMap<List<LightQueue.ChunkTasks>> set : sets) {
+                if (!set.isEmpty()) {
+                    LightWorkerPool.forEach(new ArrayList<>(set.values()), this::propagateRegion);
+                }
+            }
+
+            // complete on this thread, as the sequential propagation does
+            for (final LightQueue.ChunkTasks task : tasks) {
                 task.onComplete.complete(null);
             }
+        }
+    }
+
+    protected final void propagateRegion(final List<LightQueue.ChunkTasks> tasks) {
+        final SkyStarLightEngine skyEngine = this.getSkyLightEngine();
+        final BlockStarLightEngine blockEngine = this.getBlockLightEngine();
+
+        try {
+            for (final LightQueue.ChunkTasks task : tasks) {
+                this.propagateTask(skyEngine, blockEngine, task);
+            }
         } finally {
             this.releaseSkyLightEngine(skyEngine);
             this.releaseBlockLightEngine(blockEngine);
@@ -567,6 +748,8 @@ public final class StarLightInterface {
     protected static final class LightQueue {
 
         protected final Long2ObjectLinkedOpenHashMap<ChunkTasks> chunkTasks = new Long2ObjectLinkedOpenHashMap<>();
+        // keys of the queued tasks with bulkRelight set, in queue order
+        protected final LongLinkedOpenHashSet bulkRelightChunks = new LongLinkedOpenHashSet();
         protected final StarLightInterface manager;
 
         public LightQueue(final StarLightInterface manager) {
@@ -577,9 +760,33 @@ public final class StarLightInterface {
             return this.chunkTasks.isEmpty();
         }
 
+        public synchronized int size() {
+            return this.chunkTasks.size();
+        }
+
         public synchronized CompletableFuture<Void> queueBlockChange(final BlockPos pos) {
-            final ChunkTasks tasks = this.chunkTasks.computeIfAbsent(CoordinateUtils.getChunkKey(pos), ChunkTasks::new);
-            tasks.changedPositions.add(pos.immutable());
+            final long key = CoordinateUtils.getChunkKey(pos);
+            final ChunkTasks tasks = this.chunkTasks.computeIfAbsent(key, ChunkTasks::new);
+            final int sectionIndex = (pos.getY() >> 4) - this.manager.minSection;
+            if (tasks.bulkRelight) {
+                // the chunk is relit, only remember the section in case it has to be propagated block by block
+                tasks.bulkRelightSections.set(sectionIndex);
+                return tasks.onComplete;
+            }
+            if (tasks.changedPositions.add(pos.immutable())) {
+                final int threshold = getBulkRelightThreshold();
+                if (threshold > 0) {
+                    if (tasks.changedBlocksBySection == null) {
+                        tasks.changedBlocksBySection = new short[this.manager.maxSection - this.manager.minSection + 1];
+                    }
+                    if (++tasks.changedBlocksBySection[sectionIndex] >= threshold) {
+                        tasks.bulkRelight = true;
+                        tasks.bulkRelightSections = new BitSet();
+                        tasks.changedBlocksBySection = null;
+                        this.bulkRelightChunks.add(key);
+                    }
+                }
+            }
             return tasks.onComplete;
         }
 
@@ -632,6 +839,7 @@ public final class StarLightInterface {
             final ChunkTasks tasks;
             synchronized (this) {
                 tasks = this.chunkTasks.remove(CoordinateUtils.getChunkKey(pos));
+                this.bulkRelightChunks.remove(CoordinateUtils.getChunkKey(pos));
             }
             if (tasks != null) {
                 tasks.onComplete.complete(null);
@@ -642,7 +850,33 @@ public final class StarLightInterface {
             if (this.chunkTasks.isEmpty()) {
                 return null;
             }
-            return this.chunkTasks.removeFirst();
+            final ChunkTasks ret = this.chunkTasks.removeFirst();
+            if (ret.bulkRelight) {
+                this.bulkRelightChunks.remove(ret.chunkCoordinate);
+            }
+            return ret;
+        }
+
+        public synchronized List<ChunkTasks> removeBulkRelightTasks() {
+            if (this.bulkRelightChunks.isEmpty()) {
+                return List.of();
+            }
+            final List<ChunkTasks> ret = new ArrayList<>(this.bulkRelightChunks.size());
+            for (final LongIterator iterator = this.bulkRelightChunks.iterator(); iterator.hasNext();) {
+                ret.add(this.chunkTasks.remove(iterator.nextLong()));
+            }
+            this.bulkRelightChunks.clear();
+            return ret;
+        }
+
+        public synchronized List<ChunkTasks> removeAllTasks() {
+            if (this.chunkTasks.isEmpty()) {
+                return List.of();
+            }
+            final List<ChunkTasks> ret = new ArrayList<>(this.chunkTasks.values());
+            this.chunkTasks.clear();
+            this.bulkRelightChunks.clear();
+            return ret;
         }
 
         protected static final class ChunkTasks {
@@ -652,6 +886,11 @@ public final class StarLightInterface {
             public ShortOpenHashSet queuedEdgeChecksSky;
             public ShortOpenHashSet queuedEdgeChecksBlock;
             public List<Runnable> lightTasks;
+            // changed blocks by section, until a section has enough changes to relight the chunk instead
+            public short[] changedBlocksBySection;
+            public boolean bulkRelight;
+            // sections changed after bulkRelight was set, their changed blocks are not recorded
+            public BitSet bulkRelightSections;
 
             public final CompletableFuture<Void> onComplete = new CompletableFuture<>();
 
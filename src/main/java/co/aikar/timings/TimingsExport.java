@@ -165,8 +165,9 @@ public class TimingsExport extends Thread {
                 // Paper start - replace chunk loader system
                 pair("ticking-distance", world.getChunkSource().chunkMap.playerChunkManager.getTargetTickViewDistance()),
                 pair("no-ticking-distance", world.getChunkSource().chunkMap.playerChunkManager.getTargetNoTickViewDistance()),
-                pair("sending-distance", world.getChunkSource().chunkMap.playerChunkManager.getTargetSendDistance())
+                pair("sending-distance", world.getChunkSource().chunkMap.playerChunkManager.getTargetSendDistance()),
                 // Paper end - replace chunk loader system
+                pair("entity-tick-tiers", toArray(world.lastEntityTickTierCounts[0], world.lastEntityTickTierCounts[1], world.lastEntityTickTierCounts[2], world.lastEntityTickTierCounts[3])) // Paper - entity tick tiers
             ));
         }));
 
@@ -63,6 +63,7 @@ public class WorldTimingsHandler {
     public final Timing poiSaveDataSerialization;
     public final Timing chunkSave;
     public final Timing chunkSaveDataSerialization;
+    public final Timing chunkSaveSnapshot; // Paper - off-main autosave serialization
     public final Timing chunkSaveIOWait;
     public final Timing chunkUnloadPrepareSave;
     public final Timing chunkUnloadPOISerialization;
@@ -127,6 +128,7 @@ public class WorldTimingsHandler {
         poiSaveDataSerialization = Timings.ofSafe(name + "Chunk save - POI Data serialization");
         chunkSave = Timings.ofSafe(name + "Chunk save - Chunk");
         chunkSaveDataSerialization = Timings.ofSafe(name + "Chunk save - Chunk Data serialization");
+        chunkSaveSnapshot = Timings.ofSafe(name + "Chunk save - Chunk Data snapshot"); // Paper - off-main autosave serialization
         chunkSaveIOWait = Timings.ofSafe(name + "Chunk save - Chunk IO Wait");
         chunkUnloadPrepareSave = Timings.ofSafe(name + "Chunk unload - Async Save Prepare");
         chunkUnloadPOISerialization = Timings.ofSafe(name + "Chunk unload - POI Data Serialization");
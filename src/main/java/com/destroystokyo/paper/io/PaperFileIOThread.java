@@ -1,6 +1,8 @@
 package com.destroystokyo.paper.io;
 
 import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.HashCommon;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.level.ChunkPos;
@@ -10,6 +12,8 @@ import org.slf4j.Logger;
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -22,6 +26,12 @@ import java.util.function.Function;
  * </p>
  *
  * <p>
+ *     When more than one IO thread is configured, this thread acts as the first shard and additional shard threads are
+ *     started alongside it. Chunk data tasks are routed to a shard by their region file, so all tasks touching a single
+ *     region file are always executed by the same thread and keep their relative ordering.
+ * </p>
+ *
+ * <p>
  *     All functions provided are MT-Safe, however certain ordering constraints are (but not enforced):
  *     <li>
  *         Chunk saves may not occur for unloaded chunks.
@@ -42,22 +52,126 @@ public final class PaperFileIOThread extends QueueExecutorThread {
 
     public static final class Holder {
 
-        public static final PaperFileIOThread INSTANCE = new PaperFileIOThread();
+        public static final PaperFileIOThread INSTANCE = new PaperFileIOThread(getConfiguredThreads());
 
         static {
-            INSTANCE.start();
+            INSTANCE.startShards();
+        }
+
+        private static int getConfiguredThreads() {
+            final GlobalConfiguration config = GlobalConfiguration.get();
+            return config == null ? 1 : Math.max(1, config.asyncChunks.ioThreads);
         }
     }
 
     private final AtomicLong writeCounter = new AtomicLong();
 
-    private PaperFileIOThread() {
+    // shards[0] is always this thread
+    private final QueueExecutorThread[] shards;
+    private final ShardStatistics[] statistics;
+
+    private PaperFileIOThread(final int threads) {
         super(new PrioritizedTaskQueue<>(), (int)(1.0e6)); // 1.0ms spinwait time
-        this.setName("Paper RegionFile IO Thread");
-        this.setPriority(Thread.NORM_PRIORITY - 1); // we keep priority close to normal because threads can wait on us
-        this.setUncaughtExceptionHandler((final Thread unused, final Throwable thr) -> {
-            LOGGER.error("Uncaught exception thrown from IO thread, report this!", thr);
-        });
+        this.shards = new QueueExecutorThread[threads];
+        this.statistics = new ShardStatistics[threads];
+        this.shards[0] = this;
+        for (int i = 1; i < threads; ++i) {
+            this.shards[i] = new QueueExecutorThread<>(new PrioritizedTaskQueue<>(), (int)(1.0e6));
+        }
+        for (int i = 0; i < threads; ++i) {
+            final QueueExecutorThread shard = this.shards[i];
+            shard.setName(i == 0 ? "Paper RegionFile IO Thread" : "Paper RegionFile IO Thread #" + i);
+            shard.setPriority(Thread.NORM_PRIORITY - 1); // we keep priority close to normal because threads can wait on us
+            shard.setUncaughtExceptionHandler((final Thread unused, final Throwable thr) -> {
+                LOGGER.error("Uncaught exception thrown from IO thread, report this!", thr);
+            });
+            this.statistics[i] = new ShardStatistics();
+        }
+    }
+
+    private void startShards() {
+        for (final QueueExecutorThread shard : this.shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Returns whether the specified thread is one of the IO threads.
+     */
+    public boolean isIOThread(final Thread thread) {
+        for (final QueueExecutorThread shard : this.shards) {
+            if (shard == thread) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getShardCount() {
+        return this.shards.length;
+    }
+
+    /**
+     * Returns the statistics for the specified IO thread shard. The returned object is live and MT-Safe.
+     */
+    public ShardStatistics getShardStatistics(final int shard) {
+        return this.statistics[shard];
+    }
+
+    private static int getShardFor(final ServerLevel world, final int chunkX, final int chunkZ, final int shards) {
+        if (shards == 1) {
+            return 0;
+        }
+        // all chunks in a region file must map to the same shard, so the region file's lock is only contended by one IO thread
+        final long regionKey = IOUtil.getCoordinateKey(chunkX >> 5, chunkZ >> 5);
+        return Math.floorMod((int)HashCommon.mix(regionKey ^ System.identityHashCode(world)), shards);
+    }
+
+    @Override
+    protected void queueTask(final PrioritizedTaskQueue.PrioritizedTask task) {
+        final IOTask ioTask = (IOTask)task;
+        final int shard = ioTask.getShard(this.shards.length);
+
+        ioTask.statistics = this.statistics[shard];
+        if (ioTask.counted.compareAndSet(false, true)) {
+            // a rescheduled task still counted from its previous scheduling keeps its queue time
+            ioTask.queueTime = System.nanoTime();
+            ioTask.statistics.queued.getAndIncrement();
+        }
+
+        if (shard == 0) {
+            super.queueTask(task);
+        } else {
+            this.shards[shard].queueTask(task);
+        }
+    }
+
+    /**
+     * Waits until the queues of all IO threads are empty.
+     *
+     * @throws IllegalStateException If the current thread is an IO thread.
+     */
+    @Override
+    public void flush() {
+        if (this.isIOThread(Thread.currentThread())) {
+            // avoid deadlock
+            throw new IllegalStateException("Cannot flush the IO threads while on an IO thread");
+        }
+        for (final QueueExecutorThread shard : this.shards) {
+            if (shard == this) {
+                super.flush();
+            } else {
+                shard.flush();
+            }
+        }
+    }
+
+    @Override
+    public boolean close(final boolean wait, final boolean killQueue) {
+        for (int i = 1; i < this.shards.length; ++i) {
+            this.shards[i].close(wait, killQueue);
+        }
+        return super.close(wait, killQueue);
     }
 
     /* run() is implemented by superclass */
@@ -394,7 +508,100 @@ public final class PaperFileIOThread extends QueueExecutorThread {
         this.queueTask(new GeneralTask(priority, runnable));
     }
 
-    static final class GeneralTask extends PrioritizedTaskQueue.PrioritizedTask implements Runnable {
+    public static final class ShardStatistics {
+
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicLong executed = new AtomicLong();
+        final AtomicLong totalLatency = new AtomicLong();
+        final AtomicLong maxLatency = new AtomicLong();
+
+        /**
+         * Returns the number of tasks currently queued or executing on the shard.
+         */
+        public int getQueued() {
+            return this.queued.get();
+        }
+
+        public long getExecuted() {
+            return this.executed.get();
+        }
+
+        /**
+         * Returns the mean time in nanoseconds between a task being queued and completing.
+         */
+        public long getAverageLatency() {
+            final long executed = this.executed.get();
+            return executed == 0L ? 0L : this.totalLatency.get() / executed;
+        }
+
+        /**
+         * Returns the maximum time in nanoseconds between a task being queued and completing, since the last reset.
+         */
+        public long getMaxLatency() {
+            return this.maxLatency.get();
+        }
+
+        public void reset() {
+            this.executed.set(0L);
+            this.totalLatency.set(0L);
+            this.maxLatency.set(0L);
+        }
+
+        void taskCompleted(final long latency) {
+            this.executed.getAndIncrement();
+            this.totalLatency.getAndAdd(latency);
+            this.maxLatency.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    static abstract class IOTask extends PrioritizedTaskQueue.PrioritizedTask implements Runnable {
+
+        private volatile ShardStatistics statistics;
+        private volatile long queueTime;
+        // whether this task is counted as queued by its shard, cleared when it completes or is cancelled
+        private final AtomicBoolean counted = new AtomicBoolean();
+
+        protected IOTask(final int priority) {
+            super(priority);
+        }
+
+        abstract int getShard(final int shards);
+
+        abstract void execute();
+
+        @Override
+        public final void run() {
+            try {
+                this.execute();
+            } finally {
+                final ShardStatistics statistics = this.statistics;
+                if (statistics != null) {
+                    this.uncount(statistics);
+                    statistics.taskCompleted(System.nanoTime() - this.queueTime);
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!super.cancel()) {
+                return false;
+            }
+            final ShardStatistics statistics = this.statistics;
+            if (statistics != null) {
+                this.uncount(statistics);
+            }
+            return true;
+        }
+
+        private void uncount(final ShardStatistics statistics) {
+            if (this.counted.compareAndSet(true, false)) {
+                statistics.queued.getAndDecrement();
+            }
+        }
+    }
+
+    static final class GeneralTask extends IOTask {
 
         private final Runnable run;
 
@@ -404,7 +611,12 @@ public final class PaperFileIOThread extends QueueExecutorThread {
         }
 
         @Override
-        public void run() {
+        int getShard(final int shards) {
+            return 0;
+        }
+
+        @Override
+        void execute() {
             try {
                 this.run.run();
             } catch (final Throwable throwable) {
@@ -450,7 +662,7 @@ public final class PaperFileIOThread extends QueueExecutorThread {
         }
     }
 
-    public static final class ChunkDataTask extends PrioritizedTaskQueue.PrioritizedTask implements Runnable {
+    public static final class ChunkDataTask extends IOTask {
 
         public ChunkDataController.InProgressWrite inProgressWrite;
         public ChunkDataController.InProgressRead inProgressRead;
@@ -468,6 +680,11 @@ public final class PaperFileIOThread extends QueueExecutorThread {
             this.taskController = taskController;
         }
 
+        @Override
+        int getShard(final int shards) {
+            return PaperFileIOThread.getShardFor(this.world, this.x, this.z, shards);
+        }
+
         @Override
         public String toString() {
             return "Task for world: '" + this.world.getWorld().getName() + "' at " + this.x + "," + this.z +
@@ -500,7 +717,7 @@ public final class PaperFileIOThread extends QueueExecutorThread {
         }
 
         @Override
-        public void run() {
+        void execute() {
             ChunkDataController.InProgressRead read = this.inProgressRead;
             if (read != null) {
                 CompoundTag compound = PaperFileIOThread.FAILURE_VALUE;
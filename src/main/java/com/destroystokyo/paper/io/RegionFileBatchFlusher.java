@@ -0,0 +1,45 @@
+package com.destroystokyo.paper.io;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flushes region files with batched (staged) chunk writes once their maximum write delay has elapsed.
+ * <p>
+ *     Batches are also flushed by the IO threads as soon as they reach their size limit, this thread only
+ *     bounds how long a partial batch may stay in memory.
+ * </p>
+ */
+public final class RegionFileBatchFlusher {
+
+    private static final ScheduledExecutorService EXECUTOR = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+        .setNameFormat("Paper RegionFile Batch Flush Thread")
+        .setDaemon(true)
+        .setPriority(Thread.NORM_PRIORITY - 1)
+        .setUncaughtExceptionHandler((final Thread thread, final Throwable thr) -> {
+            PaperFileIOThread.LOGGER.error("Uncaught exception thrown from region file batch flush thread, report this!", thr);
+        })
+        .build());
+
+    private RegionFileBatchFlusher() {
+        throw new RuntimeException();
+    }
+
+    public static void scheduleFlush(final RegionFile regionFile, final long delayMillis) {
+        EXECUTOR.schedule(() -> {
+            try {
+                regionFile.flushStagedWrites();
+            } catch (final Throwable thr) {
+                PaperFileIOThread.LOGGER.error("Failed to flush batched chunk writes for region file " + regionFile.regionFile, thr);
+                if (regionFile.hasStagedWrites()) {
+                    // the failed chunks are still staged, retry them later
+                    scheduleFlush(regionFile, delayMillis);
+                }
+            }
+        }, Math.max(1L, delayMillis), TimeUnit.MILLISECONDS);
+    }
+}
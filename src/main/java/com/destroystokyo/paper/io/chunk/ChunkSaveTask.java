@@ -38,7 +38,7 @@ public final class ChunkSaveTask extends ChunkTask {
             compound = ChunkSerializer.saveChunk(this.world, this.chunk, this.asyncSaveData);
         } catch (final Throwable ex) {
             // has a plugin modified something it should not have and made us CME?
-            PaperFileIOThread.LOGGER.error("Failed to serialize unloading chunk data for task: " + this.toString() + ", falling back to a synchronous execution", ex);
+            PaperFileIOThread.LOGGER.error("Failed to serialize chunk data for task: " + this.toString() + ", falling back to a synchronous execution", ex);
 
             // Note: We add to the server thread queue here since this is what the server will drain tasks from
             // when waiting for chunks
@@ -50,7 +50,7 @@ public final class ChunkSaveTask extends ChunkTask {
                         data = ChunkSerializer.saveChunk(this.world, this.chunk, this.asyncSaveData);
                         PaperFileIOThread.LOGGER.info("Successfully serialized chunk data for task: " + this.toString() + " synchronously");
                     } catch (final Throwable ex1) {
-                        PaperFileIOThread.LOGGER.error("Failed to synchronously serialize unloading chunk data for task: " + this.toString() + "! Chunk data will be lost", ex1);
+                        PaperFileIOThread.LOGGER.error("Failed to synchronously serialize chunk data for task: " + this.toString() + "! Chunk data will be lost", ex1);
                     }
 
                     ChunkSaveTask.this.complete(data);
@@ -93,19 +93,30 @@ public final class ChunkSaveTask extends ChunkTask {
     }
 
     private void complete(final CompoundTag compound) {
+        // Paper start - off-main autosave serialization - snapshot saves complete once their data was handed to the IO thread
+        final boolean snapshot = this.asyncSaveData.snapshot() != null;
+        if (!snapshot) {
         try {
             this.onComplete.complete(compound);
         } catch (final Throwable thr) {
             PaperFileIOThread.LOGGER.error("Failed to complete chunk data for task: " + this.toString(), thr);
         }
+        }
+        // Paper end - off-main autosave serialization
         if (compound != PaperFileIOThread.FAILURE_VALUE) {
             PaperFileIOThread.Holder.INSTANCE.scheduleSave(this.world, this.chunkX, this.chunkZ, null, compound, this.attemptedPriority.get());
         }
-        this.taskManager.chunkSaveTasks.compute(Long.valueOf(IOUtil.getCoordinateKey(this.chunkX, this.chunkZ)), (final Long keyInMap, final ChunkSaveTask valueInMap) -> {
+        // Paper - off-main autosave serialization - snapshot saves are tracked separately, the chunk is still loaded
+        (this.asyncSaveData.snapshot() != null ? this.taskManager.chunkSnapshotSaveTasks : this.taskManager.chunkSaveTasks).compute(Long.valueOf(IOUtil.getCoordinateKey(this.chunkX, this.chunkZ)), (final Long keyInMap, final ChunkSaveTask valueInMap) -> {
             if (valueInMap != ChunkSaveTask.this) {
                 throw new IllegalStateException("Expected this task to be scheduled, but another was! Other: " + valueInMap + ", this: " + ChunkSaveTask.this);
             }
             return null;
         });
+        // Paper start - off-main autosave serialization
+        if (snapshot) {
+            this.onComplete.complete(compound);
+        }
+        // Paper end - off-main autosave serialization
     }
 }
@@ -25,6 +25,9 @@ import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 public final class ChunkTaskManager {
@@ -37,6 +40,7 @@ public final class ChunkTaskManager {
 
     final ConcurrentHashMap<Long, ChunkLoadTask> chunkLoadTasks = new ConcurrentHashMap<>(64, 0.5f);
     final ConcurrentHashMap<Long, ChunkSaveTask> chunkSaveTasks = new ConcurrentHashMap<>(64, 0.5f);
+    final ConcurrentHashMap<Long, ChunkSaveTask> chunkSnapshotSaveTasks = new ConcurrentHashMap<>(64, 0.5f); // Paper - off-main autosave serialization
 
     private final PrioritizedTaskQueue<ChunkTask> chunkTasks = new PrioritizedTaskQueue<>(); // used if async chunks are disabled in config
 
@@ -413,6 +417,76 @@ public final class ChunkTaskManager {
         });
     }
 
+    // Paper start - off-main autosave serialization
+    /**
+     * Schedules the serialization of a snapshot of a loaded chunk. Unlike {@link #scheduleChunkSave(int, int, int, ChunkSerializer.AsyncSaveData, ChunkAccess)},
+     * the chunk stays loaded and may be modified while the task runs, so the save data must be a snapshot. See
+     * {@link ChunkSerializer#getAsyncSaveSnapshot(ServerLevel, net.minecraft.world.level.chunk.LevelChunk)}
+     * @param chunkX Chunk's x coordinate
+     * @param chunkZ Chunk's z coordinate
+     * @param priority Priority for this task
+     * @param asyncSaveData Snapshot save data
+     * @param chunk Chunk to save
+     * @return The {@link ChunkSaveTask} associated with the save task.
+     */
+    public ChunkSaveTask scheduleChunkSnapshotSave(final int chunkX, final int chunkZ, final int priority,
+                                                   final ChunkSerializer.AsyncSaveData asyncSaveData,
+                                                   final ChunkAccess chunk) {
+        AsyncCatcher.catchOp("chunk snapshot save schedule");
+
+        // an older snapshot must reach the IO thread before this one does
+        this.awaitChunkSnapshotSave(chunkX, chunkZ);
+
+        final ChunkSaveTask ret = new ChunkSaveTask(this.world, chunkX, chunkZ, priority, this, asyncSaveData, chunk);
+        this.chunkSnapshotSaveTasks.put(Long.valueOf(IOUtil.getCoordinateKey(chunkX, chunkZ)), ret);
+        this.internalSchedule(ret);
+
+        return ret;
+    }
+
+    /**
+     * Blocks until any in progress snapshot save for the specified chunk has handed its data to the IO thread, so that any
+     * save scheduled after this call is ordered after it. A snapshot save which has not started yet is executed on the
+     * calling thread instead of waiting for a worker.
+     * @param chunkX Chunk's x coordinate
+     * @param chunkZ Chunk's z coordinate
+     */
+    public void awaitChunkSnapshotSave(final int chunkX, final int chunkZ) {
+        AsyncCatcher.catchOp("chunk snapshot save wait");
+
+        final Long key = Long.valueOf(IOUtil.getCoordinateKey(chunkX, chunkZ));
+        final ChunkSaveTask task = this.chunkSnapshotSaveTasks.get(key);
+        if (task == null) {
+            return;
+        }
+
+        if (task.cancel()) {
+            // we own the task now
+            task.run();
+        }
+
+        // snapshot saves complete once they handed their data to the IO thread. If serialization failed on the worker,
+        // the fallback is queued to the chunk wait queue, so keep polling it while waiting
+        boolean interrupted = false;
+        while (!task.onComplete.isDone()) {
+            if (pollChunkWaitQueue()) {
+                continue;
+            }
+            try {
+                task.onComplete.get(1L, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException ignore) {
+            } catch (final InterruptedException ex) {
+                interrupted = true;
+            } catch (final ExecutionException ex) {
+                break; // never completed exceptionally
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    // Paper end - off-main autosave serialization
+
     /**
      * Returns a completable future which will be completed with the <b>un-copied</b> chunk data for an in progress async save.
      * Returns {@code null} if no save is in progress.
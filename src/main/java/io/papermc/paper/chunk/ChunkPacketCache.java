@@ -0,0 +1,109 @@
+package io.papermc.paper.chunk;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.network.SharedPacketEncoding;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.ChunkPos;
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * Keeps recently built chunk packets of a world for a few ticks, so that every player receiving a chunk in that
+ * time is sent the same packet instance, which is encoded and compressed once for all of them. Packets are
+ * cached per anti-xray mode, as players bypassing anti-xray receive the unmodified chunk.
+ * <p>
+ * Any change to the blocks, block entities or light of a chunk must {@link #invalidate(int, int) invalidate}
+ * its packets. Only accessed from the main thread.
+ * </p>
+ */
+public final class ChunkPacketCache {
+
+    private final Long2ObjectOpenHashMap<Entry> entries = new Long2ObjectOpenHashMap<>();
+    private final ArrayDeque<Entry> expiryQueue = new ArrayDeque<>();
+
+    private static int getCacheTicks() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config == null ? 0 : config.chunkLoading.sharedChunkPacketTicks;
+    }
+
+    public ClientboundLevelChunkWithLightPacket getOrCreate(final int chunkX, final int chunkZ, final boolean modifyBlocks,
+                                                            final Supplier<ClientboundLevelChunkWithLightPacket> creator) {
+        final int cacheTicks = getCacheTicks();
+        if (cacheTicks <= 0) {
+            return creator.get();
+        }
+
+        final long key = ChunkPos.asLong(chunkX, chunkZ);
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, MinecraftServer.currentTick + cacheTicks);
+            this.entries.put(key, entry);
+            this.expiryQueue.add(entry);
+        }
+
+        final int index = modifyBlocks ? 1 : 0;
+        ClientboundLevelChunkWithLightPacket packet = entry.packets[index];
+        if (packet == null) {
+            packet = creator.get();
+            packet.shareEncoding();
+            entry.packets[index] = packet;
+        }
+        return packet;
+    }
+
+    public void invalidate(final int chunkX, final int chunkZ) {
+        if (this.entries.isEmpty()) {
+            return;
+        }
+        final Entry entry = this.entries.remove(ChunkPos.asLong(chunkX, chunkZ));
+        if (entry != null) {
+            entry.release();
+        }
+    }
+
+    public void tick() {
+        final int currentTick = MinecraftServer.currentTick;
+        Entry entry;
+        while ((entry = this.expiryQueue.peek()) != null && entry.expireTick <= currentTick) {
+            this.expiryQueue.poll();
+            // the entry may already have been invalidated and replaced
+            this.entries.remove(entry.key, entry);
+            entry.release();
+        }
+    }
+
+    public void clear() {
+        for (final Entry entry : this.expiryQueue) {
+            entry.release();
+        }
+        this.expiryQueue.clear();
+        this.entries.clear();
+    }
+
+    private static final class Entry {
+
+        private final long key;
+        private final int expireTick;
+        private final ClientboundLevelChunkWithLightPacket[] packets = new ClientboundLevelChunkWithLightPacket[2];
+
+        private Entry(final long key, final int expireTick) {
+            this.key = key;
+            this.expireTick = expireTick;
+        }
+
+        private void release() {
+            for (int i = 0; i < this.packets.length; ++i) {
+                final ClientboundLevelChunkWithLightPacket packet = this.packets[i];
+                if (packet != null) {
+                    final SharedPacketEncoding encoding = packet.getSharedEncoding();
+                    if (encoding != null) {
+                        encoding.release();
+                    }
+                    this.packets[i] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.papermc.paper.chunk;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Partitions the ticking entities of a world into islands, using the regions of the data region manager of the world.
+ * Regions are only merged when their sections are within one section of each other, so different islands are always
+ * separated by at least one region section of chunks without loaded chunks.
+ * <p>
+ * The partition shows how far the entity tick of a world could be split up: the entity tick can not take less time
+ * than the tick of its largest island.
+ * </p>
+ * <p>
+ * This is a diagnostic only, entities are still ticked on the main thread. Ticking islands on worker threads is
+ * deferred until entity ticks stop depending on main thread only state: chunk loads requested during an entity tick
+ * are run by the main thread executor, entity addition and removal modify the world wide entity lookup, entity ticks
+ * fire synchronous Bukkit events which reject other threads, and entities share the world random.
+ * </p>
+ */
+public final class EntityTickIslands {
+
+    private EntityTickIslands() {
+        throw new RuntimeException();
+    }
+
+    public static Partition compute(final ServerLevel world) {
+        final SingleThreadChunkRegionManager regionManager = world.getChunkSource().chunkMap.dataRegionManager;
+        final Reference2IntOpenHashMap<SingleThreadChunkRegionManager.Region> entitiesByRegion = new Reference2IntOpenHashMap<>();
+        final int[] counts = new int[2]; // total, outside of any region
+
+        world.entityTickList.forEach((final Entity entity) -> {
+            ++counts[0];
+            final SingleThreadChunkRegionManager.Region region = regionManager.getRegion(entity.chunkPosition().x, entity.chunkPosition().z);
+            if (region == null) {
+                ++counts[1];
+                return;
+            }
+            entitiesByRegion.addTo(region, 1);
+        });
+
+        final List<Island> islands = new ArrayList<>(entitiesByRegion.size());
+        for (final Reference2IntMap.Entry<SingleThreadChunkRegionManager.Region> entry : entitiesByRegion.reference2IntEntrySet()) {
+            islands.add(new Island(entry.getKey().sections.size(), entry.getIntValue()));
+        }
+        islands.sort(Comparator.comparingInt(Island::entities).reversed());
+
+        return new Partition(islands, counts[0], counts[1]);
+    }
+
+    /**
+     * @param sections Number of region sections in the island
+     * @param entities Number of ticking entities in the island
+     */
+    public record Island(int sections, int entities) {}
+
+    /**
+     * @param islands Islands with ticking entities, largest first
+     * @param entities Number of ticking entities
+     * @param outside Number of ticking entities not in any region, which would be ticked separately
+     */
+    public record Partition(List<Island> islands, int entities, int outside) {
+
+        /**
+         * Returns the share of the ticking entities that are not in the largest island, which is the share of the
+         * entity tick that could run alongside the largest island.
+         */
+        public double getSplittableShare() {
+            if (this.entities == 0) {
+                return 0.0;
+            }
+            final int largest = this.islands.isEmpty() ? 0 : this.islands.get(0).entities();
+            return (double)(this.entities - this.outside - largest) / (double)this.entities;
+        }
+    }
+}
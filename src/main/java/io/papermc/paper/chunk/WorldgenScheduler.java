@@ -0,0 +1,315 @@
+package io.papermc.paper.chunk;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import org.bukkit.craftbukkit.generator.CustomChunkGenerator;
+
+/**
+ * Runs chunk generation steps on the worldgen worker threads instead of the single worldgen mailbox of a world.
+ * <p>
+ * Steps from biomes to liquid carvers only write to the chunk they generate, and the chunk status dependencies keep
+ * the neighbours they read from unchanged while they run, so they run concurrently for any chunks. Features write to
+ * the 3x3 chunks around the generated chunk, and the spawn and heightmaps steps of a chunk only need their
+ * neighbours at liquid carvers, so the features steps of these neighbours may still write to the chunk while they
+ * run. Features steps therefore lock their 3x3 area and the spawn and heightmaps steps lock their own chunk, and a
+ * step waits for the steps holding any chunk of its area to complete.
+ * </p>
+ * <p>
+ * Structure starts and references use the shared structure caches of the world and stay on the mailbox, as does the
+ * full chunk step. Worlds with plugin generators, biome providers or populators generate on the mailbox, as plugins
+ * may not expect to be called concurrently.
+ * </p>
+ * <p>
+ * Like the mailbox, the workers run the steps in the order of the priority of their chunk, so chunks near players do
+ * not wait behind pregeneration. Closing the scheduler of a world waits for its scheduled steps to complete.
+ * </p>
+ */
+public final class WorldgenScheduler {
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final AtomicLong STEP_ID = new AtomicLong();
+    private static volatile ThreadPoolExecutor pool;
+
+    private static final LongAdder GENERATED = new LongAdder();
+    private static final LongAdder CONCURRENT_STEPS = new LongAdder();
+    private static final LongAdder WAITED_STEPS = new LongAdder();
+    private static volatile long startTime = System.nanoTime();
+
+    private final ServerLevel world;
+
+    // chunks locked by running steps, guarded by this
+    private final LongOpenHashSet lockedChunks = new LongOpenHashSet();
+    // steps waiting for their area, guarded by this
+    private final LinkedList<WaitingStep> waitingSteps = new LinkedList<>();
+    // steps scheduled and not completed yet, guarded by this
+    private int pendingSteps;
+    // guarded by this
+    private boolean closed;
+
+    public WorldgenScheduler(final ServerLevel world) {
+        this.world = world;
+    }
+
+    private static int getThreads() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config == null ? 0 : config.chunkGeneration.workerThreads;
+    }
+
+    private static ThreadPoolExecutor getPool() {
+        ThreadPoolExecutor ret = pool;
+        if (ret != null) {
+            return ret;
+        }
+        synchronized (WorldgenScheduler.class) {
+            if ((ret = pool) != null) {
+                return ret;
+            }
+            final int threads = Math.max(1, getThreads());
+            pool = ret = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), (final Runnable run) -> {
+                final Thread thread = new Thread(run, "Paper Worldgen Worker #" + THREAD_ID.getAndIncrement());
+                thread.setDaemon(true);
+                thread.setUncaughtExceptionHandler((final Thread t, final Throwable throwable) -> {
+                    MinecraftServer.LOGGER.error("Uncaught exception in thread " + t.getName(), throwable);
+                });
+                return thread;
+            });
+            return ret;
+        }
+    }
+
+    private boolean canRunConcurrently() {
+        return getThreads() > 0 && !(this.world.getChunkSource().chunkMap.generator instanceof CustomChunkGenerator) && this.world.getWorld().getBiomeProvider() == null;
+    }
+
+    private static boolean writesOnlyToItself(final ChunkStatus status) {
+        return status == ChunkStatus.BIOMES || status == ChunkStatus.NOISE || status == ChunkStatus.SURFACE
+            || status == ChunkStatus.CARVERS || status == ChunkStatus.LIQUID_CARVERS;
+    }
+
+    /**
+     * Returns the radius of the area of chunks the given step must lock, or {@code -1} if it can not run on the
+     * worker threads.
+     */
+    private static int getLockRadius(final ChunkStatus status) {
+        if (status == ChunkStatus.FEATURES) {
+            return 1;
+        }
+        if (status == ChunkStatus.SPAWN || status == ChunkStatus.HEIGHTMAPS) {
+            return 0;
+        }
+        return -1;
+    }
+
+    /**
+     * Schedules a task of the given generation step of the given chunk on the worker threads.
+     *
+     * @param priority the priority of the chunk, lower values run first
+     * @return {@code false} if the task must be run on the worldgen mailbox of the world instead
+     */
+    public boolean schedule(final ChunkStatus status, final ChunkPos pos, final int priority, final Runnable run) {
+        if (!this.canRunConcurrently()) {
+            return false;
+        }
+        if (writesOnlyToItself(status)) {
+            if (!this.addPendingStep()) {
+                return false;
+            }
+            CONCURRENT_STEPS.increment();
+            getPool().execute(new QueuedStep(priority, STEP_ID.getAndIncrement(), () -> {
+                try {
+                    run.run();
+                } finally {
+                    this.completePendingStep();
+                }
+            }));
+            return true;
+        }
+        final int radius = getLockRadius(status);
+        // populators run in the features step on the mailbox, which does not lock its area
+        if (radius >= 0 && this.world.getWorld().getPopulators().isEmpty()) {
+            if (!this.addPendingStep()) {
+                return false;
+            }
+            CONCURRENT_STEPS.increment();
+            this.scheduleLocked(new WaitingStep(pos.x, pos.z, radius, priority, run));
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized boolean addPendingStep() {
+        if (this.closed) {
+            return false;
+        }
+        ++this.pendingSteps;
+        return true;
+    }
+
+    private synchronized void completePendingStep() {
+        if (--this.pendingSteps == 0 && this.closed) {
+            this.notifyAll();
+        }
+    }
+
+    /**
+     * Stops scheduling steps of the world on the worker threads, and waits for the steps already scheduled to complete.
+     * Steps scheduled afterwards are left to the worldgen mailbox.
+     */
+    public synchronized void close() {
+        this.closed = true;
+        boolean interrupted = false;
+        while (this.pendingSteps != 0) {
+            try {
+                this.wait();
+            } catch (final InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleLocked(final WaitingStep step) {
+        synchronized (this) {
+            if (!this.tryLockArea(step)) {
+                WAITED_STEPS.increment();
+                this.waitingSteps.add(step);
+                return;
+            }
+        }
+        this.executeLocked(step);
+    }
+
+    private void executeLocked(final WaitingStep step) {
+        getPool().execute(new QueuedStep(step.priority, STEP_ID.getAndIncrement(), () -> this.runLocked(step)));
+    }
+
+    private void runLocked(final WaitingStep step) {
+        try {
+            step.run.run();
+        } finally {
+            final List<WaitingStep> ready = new ArrayList<>();
+            synchronized (this) {
+                this.unlockArea(step);
+                for (final Iterator<WaitingStep> iterator = this.waitingSteps.iterator(); iterator.hasNext();) {
+                    final WaitingStep waiting = iterator.next();
+                    if (this.tryLockArea(waiting)) {
+                        iterator.remove();
+                        ready.add(waiting);
+                    }
+                }
+            }
+            for (final WaitingStep waiting : ready) {
+                this.executeLocked(waiting);
+            }
+            this.completePendingStep();
+        }
+    }
+
+    // must hold the lock on this
+    private boolean tryLockArea(final WaitingStep step) {
+        final int radius = step.radius;
+        for (int dz = -radius; dz <= radius; ++dz) {
+            for (int dx = -radius; dx <= radius; ++dx) {
+                if (this.lockedChunks.contains(ChunkPos.asLong(step.chunkX + dx, step.chunkZ + dz))) {
+                    return false;
+                }
+            }
+        }
+        for (int dz = -radius; dz <= radius; ++dz) {
+            for (int dx = -radius; dx <= radius; ++dx) {
+                this.lockedChunks.add(ChunkPos.asLong(step.chunkX + dx, step.chunkZ + dz));
+            }
+        }
+        return true;
+    }
+
+    // must hold the lock on this
+    private void unlockArea(final WaitingStep step) {
+        final int radius = step.radius;
+        for (int dz = -radius; dz <= radius; ++dz) {
+            for (int dx = -radius; dx <= radius; ++dx) {
+                this.lockedChunks.remove(ChunkPos.asLong(step.chunkX + dx, step.chunkZ + dz));
+            }
+        }
+    }
+
+    public synchronized int getWaitingSteps() {
+        return this.waitingSteps.size();
+    }
+
+    public static void recordGenerated() {
+        GENERATED.increment();
+    }
+
+    public static long getGenerated() {
+        return GENERATED.sum();
+    }
+
+    public static long getConcurrentSteps() {
+        return CONCURRENT_STEPS.sum();
+    }
+
+    public static long getWaitedSteps() {
+        return WAITED_STEPS.sum();
+    }
+
+    /**
+     * Returns the number of worker threads, or {@code 0} if the workers were not started.
+     */
+    public static int getWorkerThreads() {
+        final ThreadPoolExecutor ret = pool;
+        return ret == null ? 0 : ret.getMaximumPoolSize();
+    }
+
+    public static int getQueuedSteps() {
+        final ThreadPoolExecutor ret = pool;
+        return ret == null ? 0 : ret.getQueue().size();
+    }
+
+    /**
+     * Returns the number of seconds the statistics were collected for.
+     */
+    public static double getSeconds() {
+        return Math.max(1.0e-3, (System.nanoTime() - startTime) * 1.0e-9);
+    }
+
+    public static void resetStatistics() {
+        GENERATED.reset();
+        CONCURRENT_STEPS.reset();
+        WAITED_STEPS.reset();
+        startTime = System.nanoTime();
+    }
+
+    private record WaitingStep(int chunkX, int chunkZ, int radius, int priority, Runnable run) {}
+
+    // steps of the same priority run in the order they were scheduled
+    private record QueuedStep(int priority, long id, Runnable step) implements Runnable, Comparable<QueuedStep> {
+
+        @Override
+        public void run() {
+            this.step.run();
+        }
+
+        @Override
+        public int compareTo(final QueuedStep other) {
+            final int ret = Integer.compare(this.priority, other.priority);
+            return ret != 0 ? ret : Long.compare(this.id, other.id);
+        }
+    }
+}
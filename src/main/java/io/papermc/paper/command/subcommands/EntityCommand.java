@@ -1,6 +1,7 @@
 package io.papermc.paper.command.subcommands;
 
 import com.google.common.collect.Maps;
+import io.papermc.paper.chunk.EntityTickIslands;
 import io.papermc.paper.command.CommandUtil;
 import io.papermc.paper.command.PaperSubcommand;
 import java.util.Collections;
@@ -33,6 +34,10 @@ import static net.kyori.adventure.text.format.NamedTextColor.RED;
 public final class EntityCommand implements PaperSubcommand {
     @Override
     public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length >= 1 && args[0].toLowerCase(Locale.ENGLISH).equals("islands")) {
+            this.listIslands(sender, args);
+            return true;
+        }
         this.listEntities(sender, args);
         return true;
     }
@@ -40,7 +45,9 @@ public final class EntityCommand implements PaperSubcommand {
     @Override
     public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
         if (args.length == 1) {
-            return CommandUtil.getListMatchingLast(sender, args, "help", "list");
+            return CommandUtil.getListMatchingLast(sender, args, "help", "list", "islands");
+        } else if (args.length == 2 && args[0].toLowerCase(Locale.ENGLISH).equals("islands")) {
+            return CommandUtil.getListMatchingLast(sender, args, Bukkit.getWorlds().stream().map(World::getName).toArray(String[]::new));
         } else if (args.length == 2) {
             return CommandUtil.getListMatchingLast(sender, args, Registry.ENTITY_TYPE.keySet().stream().map(ResourceLocation::toString).sorted().toArray(String[]::new));
         }
@@ -53,7 +60,7 @@ public final class EntityCommand implements PaperSubcommand {
     private void listEntities(final CommandSender sender, final String[] args) {
         // help
         if (args.length < 1 || !args[0].toLowerCase(Locale.ENGLISH).equals("list")) {
-            sender.sendMessage(text("Use /paper entity [list] help for more information on a specific command", RED));
+            sender.sendMessage(text("Use /paper entity [list|islands] help for more information on a specific command", RED));
             return;
         }
 
@@ -142,4 +149,34 @@ public final class EntityCommand implements PaperSubcommand {
             }
         }
     }
+
+    private void listIslands(final CommandSender sender, final String[] args) {
+        final String worldName;
+        if (args.length > 1) {
+            if (args[1].toLowerCase(Locale.ENGLISH).equals("help")) {
+                sender.sendMessage(text("Use /paper entity islands [worldName] to see how the ticking entities of a world are split into separate islands of loaded chunks. Entities are still ticked on the main thread, this only reports how much of the entity tick could run concurrently.", RED));
+                return;
+            }
+            worldName = args[1];
+        } else if (sender instanceof Player) {
+            worldName = ((Player) sender).getWorld().getName();
+        } else {
+            sender.sendMessage(text("Please specify the name of a world", RED));
+            sender.sendMessage(text("Usage: /paper entity islands [worldName]", RED));
+            return;
+        }
+        @Nullable World bukkitWorld = Bukkit.getWorld(worldName);
+        if (bukkitWorld == null) {
+            sender.sendMessage(text("Could not load world for " + worldName + ". Please select a valid world.", RED));
+            sender.sendMessage(text("Usage: /paper entity islands [worldName]", RED));
+            return;
+        }
+
+        final EntityTickIslands.Partition partition = EntityTickIslands.compute(((CraftWorld) bukkitWorld).getHandle());
+        sender.sendMessage("Ticking entities: " + partition.entities() + " in " + partition.islands().size() + " islands, "
+            + partition.outside() + " outside of any island");
+        sender.sendMessage("Ticking entities outside of the largest island: " + String.format(Locale.ENGLISH, "%.1f%%", partition.getSplittableShare() * 100.0));
+        partition.islands().stream().limit(10).forEach(island ->
+            sender.sendMessage("  " + island.entities() + " entities in " + island.sections() + " region sections"));
+    }
 }
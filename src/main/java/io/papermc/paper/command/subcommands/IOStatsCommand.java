@@ -0,0 +1,46 @@
+package io.papermc.paper.command.subcommands;
+
+import com.destroystokyo.paper.io.PaperFileIOThread;
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import java.util.List;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.DARK_AQUA;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+
+@DefaultQualifier(NonNull.class)
+public final class IOStatsCommand implements PaperSubcommand {
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        final PaperFileIOThread ioThread = PaperFileIOThread.Holder.INSTANCE;
+
+        if (args.length > 0 && args[0].equals("reset")) {
+            for (int i = 0; i < ioThread.getShardCount(); ++i) {
+                ioThread.getShardStatistics(i).reset();
+            }
+            sender.sendMessage(text("IO statistics reset.", GRAY));
+            return true;
+        }
+
+        sender.sendMessage(text("Region file IO threads: " + ioThread.getShardCount(), DARK_AQUA));
+        for (int i = 0; i < ioThread.getShardCount(); ++i) {
+            final PaperFileIOThread.ShardStatistics statistics = ioThread.getShardStatistics(i);
+            sender.sendMessage(text().color(GRAY)
+                .append(text("#" + i + ": ", GREEN))
+                .append(text("queued " + statistics.getQueued()))
+                .append(text(", executed " + statistics.getExecuted()))
+                .append(text(String.format(", latency avg %.2fms max %.2fms", statistics.getAverageLatency() / 1.0e6, statistics.getMaxLatency() / 1.0e6))));
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        return CommandUtil.getListMatchingLast(sender, args, "reset");
+    }
+}
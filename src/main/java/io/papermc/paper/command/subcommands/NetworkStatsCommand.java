@@ -0,0 +1,64 @@
+package io.papermc.paper.command.subcommands;
+
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import io.papermc.paper.entity.EntityTrackingLod;
+import io.papermc.paper.network.SharedPacketEncoding;
+import java.util.List;
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.DARK_AQUA;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+
+@DefaultQualifier(NonNull.class)
+public final class NetworkStatsCommand implements PaperSubcommand {
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length > 0 && args[0].equals("reset")) {
+            SharedPacketEncoding.resetStatistics();
+            EntityTrackingLod.resetStatistics();
+            sender.sendMessage(text("Network statistics reset.", GRAY));
+            return true;
+        }
+
+        sender.sendMessage(text("Shared packet encoding:", DARK_AQUA));
+        sender.sendMessage(formatLine("encode", SharedPacketEncoding.ENCODE_HITS.sum(), SharedPacketEncoding.ENCODE_MISSES.sum(), SharedPacketEncoding.ENCODE_BYTES_SAVED.sum()));
+        sender.sendMessage(formatLine("compress", SharedPacketEncoding.COMPRESS_HITS.sum(), SharedPacketEncoding.COMPRESS_MISSES.sum(), SharedPacketEncoding.COMPRESS_BYTES_SAVED.sum()));
+
+        sender.sendMessage(text("Entity tracking LOD:", DARK_AQUA));
+        for (int band = 0; band < EntityTrackingLod.MAX_BANDS; ++band) {
+            final long suppressed = EntityTrackingLod.getSuppressed(band);
+            if (suppressed != 0L) {
+                sender.sendMessage(text().color(GRAY)
+                    .append(text("band " + band + ": ", GREEN))
+                    .append(text(suppressed + " updates suppressed"))
+                    .build());
+            }
+        }
+        sender.sendMessage(text().color(GRAY)
+            .append(text("resynced: ", GREEN))
+            .append(text(EntityTrackingLod.getResynced() + " viewers"))
+            .build());
+        return true;
+    }
+
+    private static Component formatLine(final String name, final long hits, final long misses, final long bytesSaved) {
+        final long total = hits + misses;
+        final double hitRate = total == 0L ? 0.0 : (double)hits / (double)total * 100.0;
+        return text().color(GRAY)
+            .append(text(name + ": ", GREEN))
+            .append(text(String.format("hit rate %.1f%% (%d/%d)", hitRate, hits, total)))
+            .append(text(String.format(", saved %.2fMiB", bytesSaved / (1024.0 * 1024.0))))
+            .build();
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        return CommandUtil.getListMatchingLast(sender, args, "reset");
+    }
+}
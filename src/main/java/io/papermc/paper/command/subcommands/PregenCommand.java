@@ -0,0 +1,134 @@
+package io.papermc.paper.command.subcommands;
+
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import io.papermc.paper.world.WorldPregenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.craftbukkit.CraftWorld;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.DARK_AQUA;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+import static net.kyori.adventure.text.format.NamedTextColor.RED;
+
+@DefaultQualifier(NonNull.class)
+public final class PregenCommand implements PaperSubcommand {
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length == 0 || args[0].equals("status")) {
+            this.doStatus(sender);
+            return true;
+        }
+        switch (args[0]) {
+            case "start" -> this.doStart(sender, args);
+            case "stop" -> this.doStop(sender, args);
+            default -> sender.sendMessage(text("Use /paper pregen [start <world> <radius> [<chunk x> <chunk z>] | stop <world> | status]", RED));
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length == 1) {
+            return CommandUtil.getListMatchingLast(sender, args, "start", "stop", "status");
+        }
+        if (args.length == 2 && (args[0].equals("start") || args[0].equals("stop"))) {
+            final List<String> worldNames = new ArrayList<>();
+            for (final org.bukkit.World world : Bukkit.getWorlds()) {
+                worldNames.add(world.getName());
+            }
+            return CommandUtil.getListMatchingLast(sender, args, worldNames);
+        }
+        return Collections.emptyList();
+    }
+
+    private static @Nullable ServerLevel getWorld(final CommandSender sender, final String name) {
+        final org.bukkit.@Nullable World world = Bukkit.getWorld(name);
+        if (world == null) {
+            sender.sendMessage(text("World '" + name + "' is invalid", RED));
+            return null;
+        }
+        return ((CraftWorld)world).getHandle();
+    }
+
+    private void doStart(final CommandSender sender, final String[] args) {
+        if (args.length != 3 && args.length != 5) {
+            sender.sendMessage(text("Use /paper pregen start <world> <radius> [<chunk x> <chunk z>]", RED));
+            return;
+        }
+        final @Nullable ServerLevel world = getWorld(sender, args[1]);
+        if (world == null) {
+            return;
+        }
+        final int radius;
+        final int centerX;
+        final int centerZ;
+        try {
+            radius = Integer.parseInt(args[2]);
+            if (args.length == 5) {
+                centerX = Integer.parseInt(args[3]);
+                centerZ = Integer.parseInt(args[4]);
+            } else {
+                final BlockPos spawn = world.getSharedSpawnPos();
+                centerX = spawn.getX() >> 4;
+                centerZ = spawn.getZ() >> 4;
+            }
+        } catch (final NumberFormatException ex) {
+            sender.sendMessage(text("Invalid number: " + ex.getMessage(), RED));
+            return;
+        }
+        if (radius < 0) {
+            sender.sendMessage(text("Radius must not be negative", RED));
+            return;
+        }
+        if (WorldPregenerator.start(world, centerX, centerZ, radius) == null) {
+            sender.sendMessage(text("World '" + args[1] + "' is already pregenerating", RED));
+            return;
+        }
+        sender.sendMessage(text("Pregenerating " + radius + " chunks around chunk (" + centerX + ", " + centerZ + ") in world '" + args[1] + "'", GRAY));
+    }
+
+    private void doStop(final CommandSender sender, final String[] args) {
+        if (args.length != 2) {
+            sender.sendMessage(text("Use /paper pregen stop <world>", RED));
+            return;
+        }
+        final @Nullable ServerLevel world = getWorld(sender, args[1]);
+        if (world == null) {
+            return;
+        }
+        if (!WorldPregenerator.stop(world)) {
+            sender.sendMessage(text("World '" + args[1] + "' is not pregenerating", RED));
+            return;
+        }
+        sender.sendMessage(text("Paused pregenerating world '" + args[1] + "', it resumes when started again with the same area", GRAY));
+    }
+
+    private void doStatus(final CommandSender sender) {
+        if (WorldPregenerator.getRunning().isEmpty()) {
+            sender.sendMessage(text("No world is pregenerating.", GRAY));
+            return;
+        }
+        sender.sendMessage(text(String.format(Locale.ENGLISH, "World pregeneration, IO queue %d, memory high-water %d MiB:",
+            WorldPregenerator.getIOQueueDepth(), WorldPregenerator.getMemoryHighWater() >> 20), DARK_AQUA));
+        for (final WorldPregenerator pregenerator : WorldPregenerator.getRunning()) {
+            sender.sendMessage(text().color(GRAY)
+                .append(text(pregenerator.getWorld().getWorld().getName() + ": ", GREEN))
+                .append(text(String.format(Locale.ENGLISH, "%.2f%% (%d/%d chunks), %.1f chunks/s, %d in flight, %d failed",
+                    100.0 * pregenerator.getCompleted() / pregenerator.getTotal(), pregenerator.getCompleted(), pregenerator.getTotal(),
+                    pregenerator.getRate(), pregenerator.getInFlight(), pregenerator.getFailed())))
+                .build());
+        }
+    }
+}
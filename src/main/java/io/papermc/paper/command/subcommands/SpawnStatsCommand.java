@@ -0,0 +1,51 @@
+package io.papermc.paper.command.subcommands;
+
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import io.papermc.paper.world.NaturalSpawnStatistics;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.world.entity.MobCategory;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.DARK_AQUA;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+
+@DefaultQualifier(NonNull.class)
+public final class SpawnStatsCommand implements PaperSubcommand {
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length > 0 && args[0].equals("reset")) {
+            NaturalSpawnStatistics.resetStatistics();
+            sender.sendMessage(text("Spawn statistics reset.", GRAY));
+            return true;
+        }
+
+        final double ticks = NaturalSpawnStatistics.getTicks();
+        sender.sendMessage(text("Natural spawning over " + (int)ticks + " ticks, per tick:", DARK_AQUA));
+        for (final MobCategory category : MobCategory.values()) {
+            final long attempts = NaturalSpawnStatistics.getAttempts(category);
+            if (attempts == 0L) {
+                continue;
+            }
+            final long spawned = NaturalSpawnStatistics.getSpawned(category);
+            sender.sendMessage(text().color(GRAY)
+                .append(text(category.getName() + ": ", GREEN))
+                .append(text(String.format(Locale.ENGLISH, "%.2f attempts, %.2f rejected at start, %.2f positions checked (%.2f rejected by blocks), %.3f spawned (%.2f%% of attempts)",
+                    attempts / ticks, NaturalSpawnStatistics.getRejectedStart(category) / ticks,
+                    NaturalSpawnStatistics.getPositionsChecked(category) / ticks, NaturalSpawnStatistics.getPositionsRejectedEarly(category) / ticks,
+                    spawned / ticks, (double)spawned / (double)attempts * 100.0)))
+                .build());
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        return CommandUtil.getListMatchingLast(sender, args, "reset");
+    }
+}
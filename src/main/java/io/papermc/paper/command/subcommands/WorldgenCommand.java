@@ -0,0 +1,58 @@
+package io.papermc.paper.command.subcommands;
+
+import io.papermc.paper.chunk.WorldgenScheduler;
+import io.papermc.paper.command.CommandUtil;
+import io.papermc.paper.command.PaperSubcommand;
+import java.util.List;
+import java.util.Locale;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import org.bukkit.command.CommandSender;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.framework.qual.DefaultQualifier;
+
+import static net.kyori.adventure.text.Component.text;
+import static net.kyori.adventure.text.format.NamedTextColor.DARK_AQUA;
+import static net.kyori.adventure.text.format.NamedTextColor.GRAY;
+import static net.kyori.adventure.text.format.NamedTextColor.GREEN;
+
+@DefaultQualifier(NonNull.class)
+public final class WorldgenCommand implements PaperSubcommand {
+    @Override
+    public boolean execute(final CommandSender sender, final String subCommand, final String[] args) {
+        if (args.length > 0 && args[0].equals("reset")) {
+            WorldgenScheduler.resetStatistics();
+            sender.sendMessage(text("Chunk generation statistics reset.", GRAY));
+            return true;
+        }
+
+        final double seconds = WorldgenScheduler.getSeconds();
+        final long generated = WorldgenScheduler.getGenerated();
+        sender.sendMessage(text("Chunk generation over " + (int)seconds + " seconds:", DARK_AQUA));
+        sender.sendMessage(text().color(GRAY)
+            .append(text("Generated: ", GREEN))
+            .append(text(String.format(Locale.ENGLISH, "%d chunks, %.2f chunks/s", generated, generated / seconds)))
+            .build());
+        sender.sendMessage(text().color(GRAY)
+            .append(text("Workers: ", GREEN))
+            .append(text(String.format(Locale.ENGLISH, "%d threads, %d steps run concurrently, %d steps queued, %d steps waited for their area",
+                WorldgenScheduler.getWorkerThreads(), WorldgenScheduler.getConcurrentSteps(), WorldgenScheduler.getQueuedSteps(),
+                WorldgenScheduler.getWaitedSteps())))
+            .build());
+        for (final ServerLevel world : MinecraftServer.getServer().getAllLevels()) {
+            final int waiting = world.getChunkSource().chunkMap.worldgenScheduler.getWaitingSteps();
+            if (waiting > 0) {
+                sender.sendMessage(text().color(GRAY)
+                    .append(text(world.getWorld().getName() + ": ", GREEN))
+                    .append(text(waiting + " steps waiting for their area"))
+                    .build());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(final CommandSender sender, final String subCommand, final String[] args) {
+        return CommandUtil.getListMatchingLast(sender, args, "reset");
+    }
+}
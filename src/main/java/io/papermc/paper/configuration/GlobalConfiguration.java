@@ -130,6 +130,8 @@ public class GlobalConfiguration extends ConfigurationPart {
         public double playerMaxConcurrentLoads = 20.0;
         public double globalMaxConcurrentLoads = 500.0;
         public double playerMaxChunkLoadRate = -1.0;
+        @Comment("Ticks a chunk packet is kept after being built, so that every player receiving the chunk in that time shares one encoded and compressed packet. 0 disables sharing.")
+        public int sharedChunkPacketTicks = 0;
     }
 
     public UnsupportedSettings unsupportedSettings;
@@ -171,7 +173,18 @@ public class GlobalConfiguration extends ConfigurationPart {
 
     public class AsyncChunks extends ConfigurationPart.Post {
         public int threads = -1;
+        @Comment("The number of threads performing region file IO. Region files are spread across the threads, requires a restart.")
+        public int ioThreads = 1;
         public transient boolean asyncChunks = false;
+        public WriteBatching writeBatching;
+
+        public class WriteBatching extends ConfigurationPart {
+            @Comment("Stages chunk writes per region file and writes each batch with a single header update and sync. Staged chunks are lost on a crash.")
+            public boolean enabled = false;
+            public int maxChunks = 32;
+            @Comment("The maximum time in milliseconds a chunk write may be staged before it is written to disk.")
+            public int maxDelay = 1000;
+        }
 
         @Override
         public void postProcess() {
@@ -179,6 +192,49 @@ public class GlobalConfiguration extends ConfigurationPart {
         }
     }
 
+    public ChunkCompression chunkCompression;
+
+    public class ChunkCompression extends ConfigurationPart.Post {
+        @Comment("Compression level used by worlds with the zstd chunk compression format.")
+        public int zstdLevel = 3;
+        @Comment("Path to a trained zstd dictionary used by worlds with the zstd chunk compression format. Changing it makes chunks written with the previous dictionary unreadable.")
+        public String zstdDictionary = "";
+
+        @Override
+        public void postProcess() {
+            io.papermc.paper.world.ZstdChunkCompression.processConfiguration(this);
+        }
+    }
+
+    public TickWorkers tickWorkers;
+
+    public class TickWorkers extends ConfigurationPart {
+        @Comment("Threads used for tick work split off the main thread. -1 uses half of the available processors. Requires a restart.")
+        public int threads = -1;
+        @Comment("Compute entity tracker changes on the tick workers in worlds tracking at least this many entities. -1 disables.")
+        public int parallelTrackerMinEntities = -1;
+    }
+
+    public ChunkGeneration chunkGeneration;
+
+    public class ChunkGeneration extends ConfigurationPart {
+        @Comment("Threads running chunk generation steps of chunks far enough apart from each other at the same time. 0 generates the chunks of each world one step at a time. Requires a restart.")
+        public int workerThreads = 0;
+        @Comment("The maximum number of chunks a world pregeneration requests at the same time.")
+        public int pregenerationMaxChunks = 256;
+    }
+
+    public LightEngine lightEngine;
+
+    public class LightEngine extends ConfigurationPart {
+        @Comment("Threads propagating queued light changes of chunks far enough apart from each other at the same time. 0 propagates all light changes on the light thread of the world. Requires a restart.")
+        public int workerThreads = 0;
+        @Comment("The minimum number of chunks with queued light changes before they are spread across the light worker threads.")
+        public int minChunks = 16;
+        @Comment("Relight a chunk and its neighbours instead of propagating its changed blocks one by one once a single section of it has this many changed blocks queued. -1 disables.")
+        public int bulkRelightThreshold = 2048;
+    }
+
     public ItemValidation itemValidation;
 
     public class ItemValidation extends ConfigurationPart {
@@ -278,6 +334,14 @@ public class GlobalConfiguration extends ConfigurationPart {
         public boolean loadPermissionsYmlBeforePlugins = true;
         @Constraints.Min(4)
         public int regionFileCacheSize = 256;
+        @Comment("Read chunks from memory mapped region files instead of copying them through a locked file channel read.")
+        public boolean memoryMapRegionFileReads = false;
+        @Comment("Decode the block and biome palettes of chunks while reading them from region files, instead of building NBT tags for them first.")
+        public boolean streamingChunkReads = false;
+        @Comment("Encode and compress packets broadcast to several players once, instead of once per player.")
+        public boolean shareBroadcastPacketEncoding = false;
+        @Comment("Send packets uncompressed for a while after a packet of the same type did not compress, instead of deflating every instance.")
+        public boolean skipIncompressiblePackets = false;
         @Comment("See https://luckformula.emc.gs")
         public boolean useAlternativeLuckFormula = false;
         public boolean lagCompensateBlockBreaking = true;
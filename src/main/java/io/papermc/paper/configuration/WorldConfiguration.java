@@ -118,6 +118,17 @@ public class WorldConfiguration extends ConfigurationPart {
             public boolean tick = true;
         }
 
+        public TrackingLod trackingLod;
+
+        public class TrackingLod extends ConfigurationPart {
+            public boolean enabled = false;
+            public List<Band> bands = List.of(new Band(48, 2), new Band(96, 4));
+
+            @ConfigSerializable
+            public record Band(@Required int distance, @Required int interval) {
+            }
+        }
+
         public Spawning spawning;
 
         public class Spawning extends ConfigurationPart {
@@ -393,6 +404,7 @@ public class WorldConfiguration extends ConfigurationPart {
         @RequiresSpigotInitialization(MaxEntityCollisionsInitializer.class)
         public int maxEntityCollisions = 8;
         public boolean allowPlayerCrammingDamage = false;
+        public boolean packEntityBounds = false;
     }
 
     public Chunks chunks;
@@ -403,6 +415,8 @@ public class WorldConfiguration extends ConfigurationPart {
         public int fixedChunkInhabitedTime = -1;
         public boolean preventMovingIntoUnloadedChunks = false;
         public Duration delayChunkUnloadsBy = Duration.of("10s");
+        public CompressionFormat compressionFormat = CompressionFormat.ZLIB;
+        public boolean asyncSaveSerialization = false;
         public Reference2IntMap<EntityType<?>> entityPerChunkSaveLimit = Util.make(new Reference2IntOpenHashMap<>(Registry.ENTITY_TYPE.size()), map -> {
             map.defaultReturnValue(-1);
             map.put(EntityType.EXPERIENCE_ORB, -1);
@@ -412,6 +426,10 @@ public class WorldConfiguration extends ConfigurationPart {
             map.put(EntityType.FIREBALL, -1);
             map.put(EntityType.SMALL_FIREBALL, -1);
         });
+
+        public enum CompressionFormat {
+            GZIP, ZLIB, NONE, LZ4, ZSTD
+        }
     }
 
     public FishingTimeRange fishingTimeRange;
@@ -0,0 +1,92 @@
+package io.papermc.paper.entity;
+
+import io.papermc.paper.configuration.WorldConfiguration;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundMoveEntityPacket;
+import net.minecraft.network.protocol.game.ClientboundRotateHeadPacket;
+import net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Distance bands for entity position and rotation updates. Viewers further away from an entity than the distance
+ * of a band only receive those updates every {@code interval} ticks. Viewers which missed updates are sent the
+ * absolute position of the entity on their next update, as movement packets are relative to the last position
+ * sent by the server.
+ * <p>
+ * Only accessed from the main thread.
+ * </p>
+ */
+public final class EntityTrackingLod {
+
+    public static final int MAX_BANDS = 8;
+
+    private static final long[] SUPPRESSED = new long[MAX_BANDS];
+    private static long resynced;
+
+    private EntityTrackingLod() {
+        throw new RuntimeException();
+    }
+
+    public static boolean isEnabled(final WorldConfiguration.Entities.TrackingLod config) {
+        return config.enabled && !config.bands.isEmpty();
+    }
+
+    public static boolean isLodPacket(final Packet<?> packet) {
+        return packet instanceof ClientboundMoveEntityPacket || packet instanceof ClientboundTeleportEntityPacket
+            || packet instanceof ClientboundRotateHeadPacket;
+    }
+
+    /**
+     * Returns the index of the band with the largest distance within the given squared distance, or {@code -1}
+     * if the viewer receives every update.
+     */
+    public static int getBand(final WorldConfiguration.Entities.TrackingLod config, final double distanceSquared) {
+        final List<WorldConfiguration.Entities.TrackingLod.Band> bands = config.bands;
+        int ret = -1;
+        int retDistance = -1;
+        for (int i = 0, len = Math.min(bands.size(), MAX_BANDS); i < len; ++i) {
+            final WorldConfiguration.Entities.TrackingLod.Band band = bands.get(i);
+            final int distance = band.distance();
+            if (distance > retDistance && band.interval() > 1 && (double)distance * (double)distance <= distanceSquared) {
+                ret = i;
+                retDistance = distance;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Returns whether viewers in the given band receive updates of the given entity this tick. Entities are spread
+     * over the interval by their id so that not all updates of a band are sent on the same tick.
+     */
+    public static boolean isDue(final WorldConfiguration.Entities.TrackingLod config, final int band, final int entityId) {
+        if (band < 0) {
+            return true;
+        }
+        final int interval = config.bands.get(band).interval();
+        return Math.floorMod(MinecraftServer.currentTick + entityId, interval) == 0;
+    }
+
+    public static void recordSuppressed(final int band) {
+        ++SUPPRESSED[band];
+    }
+
+    public static void recordResync() {
+        ++resynced;
+    }
+
+    public static long getSuppressed(final int band) {
+        return SUPPRESSED[band];
+    }
+
+    public static long getResynced() {
+        return resynced;
+    }
+
+    public static void resetStatistics() {
+        Arrays.fill(SUPPRESSED, 0L);
+        resynced = 0L;
+    }
+}
@@ -0,0 +1,54 @@
+package io.papermc.paper.network;
+
+import java.util.Set;
+import net.minecraft.network.PacketListener;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.network.protocol.game.ServerboundMoveVehiclePacket;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+
+/**
+ * Serverbound play packets whose checks that only depend on the packet itself run on the network thread, so that
+ * malformed packets received by a connection never reach the tick thread queue. The tick thread handlers keep their
+ * own checks for packets handled without passing through a connection, e.g. ones injected by plugins.
+ * <p>
+ * Chat decoration and command suggestions are not listed here: chat messages are already decorated off the tick thread
+ * through the async chat path, and suggestions run on the async tab completion executor. Only the brigadier fallback
+ * of suggestions stays on the tick thread, since parsing reads the command tree and the state of the player.
+ */
+public final class ServerboundPacketClassification {
+
+    private static final Set<Class<?>> PRE_VALIDATED = Set.of(
+        ServerboundMovePlayerPacket.Pos.class,
+        ServerboundMovePlayerPacket.PosRot.class,
+        ServerboundMovePlayerPacket.Rot.class,
+        ServerboundMovePlayerPacket.StatusOnly.class,
+        ServerboundMoveVehiclePacket.class
+    );
+
+    private ServerboundPacketClassification() {
+        throw new RuntimeException();
+    }
+
+    public static boolean isPreValidated(final Packet<?> packet) {
+        return PRE_VALIDATED.contains(packet.getClass());
+    }
+
+    /**
+     * Runs the network thread checks of the given packet.
+     *
+     * @return {@code false} if the packet was rejected and must not be handled
+     */
+    public static boolean preValidate(final Packet<?> packet, final PacketListener listener) {
+        if (!(listener instanceof ServerGamePacketListenerImpl gameListener)) {
+            return true;
+        }
+        if (packet instanceof ServerboundMovePlayerPacket move) {
+            return gameListener.preValidateMovePlayer(move);
+        }
+        if (packet instanceof ServerboundMoveVehiclePacket move) {
+            return gameListener.preValidateMoveVehicle(move);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,236 @@
+package io.papermc.paper.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.DefaultChannelPromise;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.server.MCUtil;
+
+/**
+ * Encoded form of a packet which is sent unchanged to many connections. The first connection writing the packet
+ * encodes (and compresses) it into pooled direct buffers, every following connection writes a duplicate of them.
+ * <p>
+ * The buffers are owned by this object and must be freed with {@link #release()} once the packet is no longer
+ * handed out. Writes in flight keep their own reference. Connections writing the packet after it was released,
+ * or with a different protocol, locale or compression threshold than the shared copy, encode it themselves.
+ * </p>
+ * <p>
+ * Packets broadcast to several players share an encoding for the duration of the broadcast, see
+ * {@link #beginBroadcast(Packet, int)}. Those encodings are released one tick later.
+ * </p>
+ */
+public final class SharedPacketEncoding {
+
+    @FunctionalInterface
+    public interface Encoder {
+        void encode(ByteBuf out) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Compressor {
+        ByteBuf compress(ByteBuf encoded) throws Exception;
+    }
+
+    /**
+     * Written by the packet encoder in place of the packet when the pipeline compresses, so that the compression
+     * encoder can substitute the shared compressed buffer.
+     */
+    public record Pending(SharedPacketEncoding encoding, ByteBuf encoded) {}
+
+    /**
+     * Write promise carrying the shared encoding of a broadcast packet to the packet encoder.
+     */
+    public static final class Promise extends DefaultChannelPromise {
+
+        private final SharedPacketEncoding encoding;
+        private final Packet<?> packet;
+
+        public Promise(final Channel channel, final SharedPacketEncoding encoding, final Packet<?> packet) {
+            super(channel);
+            this.encoding = encoding;
+            this.packet = packet;
+        }
+
+        /**
+         * Returns the shared encoding if the given message is still the packet it was created for.
+         */
+        public SharedPacketEncoding getEncoding(final Object msg) {
+            return msg == this.packet ? this.encoding : null;
+        }
+    }
+
+    public static final LongAdder ENCODE_HITS = new LongAdder();
+    public static final LongAdder ENCODE_MISSES = new LongAdder();
+    public static final LongAdder ENCODE_BYTES_SAVED = new LongAdder();
+    public static final LongAdder COMPRESS_HITS = new LongAdder();
+    public static final LongAdder COMPRESS_MISSES = new LongAdder();
+    public static final LongAdder COMPRESS_BYTES_SAVED = new LongAdder();
+
+    public static void resetStatistics() {
+        ENCODE_HITS.reset();
+        ENCODE_MISSES.reset();
+        ENCODE_BYTES_SAVED.reset();
+        COMPRESS_HITS.reset();
+        COMPRESS_MISSES.reset();
+        COMPRESS_BYTES_SAVED.reset();
+    }
+
+    private final int sizeHint;
+    private final boolean localeSensitive;
+
+    private ConnectionProtocol protocol;
+    private Locale locale;
+    private ByteBuf encoded;
+    private ByteBuf compressed;
+    private int compressedThreshold;
+    private boolean released;
+
+    /**
+     * @param sizeHint Expected size of the encoded packet, used to size the buffer up front
+     * @param localeSensitive Whether the packet may contain components, which are rendered for the locale of the
+     *                        connection
+     */
+    public SharedPacketEncoding(final int sizeHint, final boolean localeSensitive) {
+        this.sizeHint = sizeHint;
+        this.localeSensitive = localeSensitive;
+    }
+
+    /**
+     * Returns a duplicate of the encoded packet (packet id and body), encoding it with the given encoder if this is
+     * the first request. Returns {@code null} if this encoding was released, or was encoded for another protocol
+     * or locale.
+     */
+    public synchronized ByteBuf getEncoded(final ConnectionProtocol protocol, final Locale locale, final Encoder encoder) {
+        if (this.released) {
+            ENCODE_MISSES.increment();
+            return null;
+        }
+        if (this.encoded == null) {
+            ENCODE_MISSES.increment();
+            final ByteBuf buffer = ByteBufAllocator.DEFAULT.directBuffer(this.sizeHint);
+            try {
+                encoder.encode(buffer);
+            } catch (final Throwable thr) {
+                // let the connection encode it and report the error
+                buffer.release();
+                return null;
+            }
+            this.encoded = buffer;
+            this.protocol = protocol;
+            this.locale = locale;
+        } else if (this.protocol != protocol || (this.localeSensitive && !Objects.equals(this.locale, locale))) {
+            ENCODE_MISSES.increment();
+            return null;
+        } else {
+            ENCODE_HITS.increment();
+            ENCODE_BYTES_SAVED.add(this.encoded.readableBytes());
+        }
+        return this.encoded.retainedDuplicate();
+    }
+
+    /**
+     * Returns a duplicate of the compressed packet for the given compression threshold, compressing the encoded packet
+     * with the given compressor if this is the first request. Returns {@code null} if this encoding was released, or
+     * was compressed for another threshold.
+     */
+    public synchronized ByteBuf getCompressed(final int threshold, final Compressor compressor) {
+        if (this.released || this.encoded == null) {
+            COMPRESS_MISSES.increment();
+            return null;
+        }
+        if (this.compressed == null) {
+            COMPRESS_MISSES.increment();
+            try {
+                this.compressed = compressor.compress(this.encoded.duplicate());
+            } catch (final Throwable thr) {
+                return null;
+            }
+            this.compressedThreshold = threshold;
+        } else if (this.compressedThreshold != threshold) {
+            COMPRESS_MISSES.increment();
+            return null;
+        } else {
+            COMPRESS_HITS.increment();
+            COMPRESS_BYTES_SAVED.add(this.encoded.readableBytes());
+        }
+        return this.compressed.retainedDuplicate();
+    }
+
+    public synchronized void release() {
+        if (this.released) {
+            return;
+        }
+        this.released = true;
+        if (this.encoded != null) {
+            this.encoded.release();
+            this.encoded = null;
+        }
+        if (this.compressed != null) {
+            this.compressed.release();
+            this.compressed = null;
+        }
+    }
+
+    // broadcasts, only accessed from the main thread
+
+    private static Packet<?> broadcastPacket;
+    private static SharedPacketEncoding broadcastEncoding;
+    private static List<SharedPacketEncoding> broadcastsThisTick = new ArrayList<>();
+    private static List<SharedPacketEncoding> broadcastsLastTick = new ArrayList<>();
+
+    /**
+     * Starts sharing the encoding of the given packet between the recipients it is sent to until
+     * {@link #endBroadcast()} is called.
+     *
+     * @return {@code true} if the encoding is shared, in which case {@link #endBroadcast()} must be called. Always
+     *     {@code false} off the main thread, where broadcasts are not shared
+     */
+    public static boolean beginBroadcast(final Packet<?> packet, final int recipients) {
+        if (!MCUtil.isMainThread() || recipients < 2 || broadcastPacket != null || packet.getSharedEncoding() != null) {
+            return false;
+        }
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        if (config == null || !config.misc.shareBroadcastPacketEncoding) {
+            return false;
+        }
+        final SharedPacketEncoding encoding = new SharedPacketEncoding(256, true);
+        broadcastsThisTick.add(encoding);
+        broadcastPacket = packet;
+        broadcastEncoding = encoding;
+        return true;
+    }
+
+    public static void endBroadcast() {
+        broadcastPacket = null;
+        broadcastEncoding = null;
+    }
+
+    /**
+     * Returns the shared encoding of the given packet if it is currently being broadcast.
+     */
+    public static SharedPacketEncoding getBroadcastEncoding(final Packet<?> packet) {
+        return packet == broadcastPacket && MCUtil.isMainThread() ? broadcastEncoding : null;
+    }
+
+    /**
+     * Releases the encodings of packets broadcast during the previous tick. Packets queued for longer than that
+     * are encoded by their connection.
+     */
+    public static void tickBroadcasts() {
+        final List<SharedPacketEncoding> expired = broadcastsLastTick;
+        for (int i = 0, len = expired.size(); i < len; ++i) {
+            expired.get(i).release();
+        }
+        expired.clear();
+        broadcastsLastTick = broadcastsThisTick;
+        broadcastsThisTick = expired;
+    }
+}
@@ -0,0 +1,244 @@
+package io.papermc.paper.util;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.phys.AABB;
+import java.util.Arrays;
+
+/**
+ * Collision boxes gathered around a moving entity, stored as primitives, together with the box being moved. Used by
+ * the movement path instead of lists of {@link AABB} and the intermediate boxes and vectors of
+ * {@link CollisionUtil#performCollisions}, so that moving an entity does not allocate.
+ * <p>
+ * One buffer is cached per thread. Buffers must be released once the collisions were resolved.
+ * </p>
+ */
+public final class CollisionBuffer {
+
+    private static final int BOX_STRIDE = 6;
+    private static final ThreadLocal<CollisionBuffer> CACHED = ThreadLocal.withInitial(CollisionBuffer::new);
+
+    private boolean inUse;
+
+    // minX, minY, minZ, maxX, maxY, maxZ of every box
+    private double[] boxes = new double[64 * BOX_STRIDE];
+    private int size;
+
+    public final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+
+    // the box collisions are performed for
+    public double minX;
+    public double minY;
+    public double minZ;
+    public double maxX;
+    public double maxY;
+    public double maxZ;
+
+    // result of performCollisions
+    public double moveX;
+    public double moveY;
+    public double moveZ;
+
+    public static CollisionBuffer acquire() {
+        final CollisionBuffer cached = CACHED.get();
+        if (cached.inUse) {
+            // re-entrant use, should not happen outside of plugins moving entities from collision callbacks
+            final CollisionBuffer ret = new CollisionBuffer();
+            ret.inUse = true;
+            return ret;
+        }
+        cached.inUse = true;
+        return cached;
+    }
+
+    public void release() {
+        this.size = 0;
+        this.inUse = false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void add(final double minX, final double minY, final double minZ, final double maxX, final double maxY, final double maxZ) {
+        final int offset = this.size++ * BOX_STRIDE;
+        if (offset >= this.boxes.length) {
+            this.boxes = Arrays.copyOf(this.boxes, this.boxes.length * 2);
+        }
+        final double[] boxes = this.boxes;
+        boxes[offset] = minX;
+        boxes[offset + 1] = minY;
+        boxes[offset + 2] = minZ;
+        boxes[offset + 3] = maxX;
+        boxes[offset + 4] = maxY;
+        boxes[offset + 5] = maxZ;
+    }
+
+    public void add(final AABB box) {
+        this.add(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    public void setBox(final AABB box) {
+        this.setBox(box.minX, box.minY, box.minZ, box.maxX, box.maxY, box.maxZ);
+    }
+
+    public void setBox(final double minX, final double minY, final double minZ, final double maxX, final double maxY, final double maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Expands the box the same way as {@link AABB#expandTowards(double, double, double)}.
+     */
+    public void expandBoxTowards(final double x, final double y, final double z) {
+        if (x < 0.0) {
+            this.minX += x;
+        } else if (x > 0.0) {
+            this.maxX += x;
+        }
+        if (y < 0.0) {
+            this.minY += y;
+        } else if (y > 0.0) {
+            this.maxY += y;
+        }
+        if (z < 0.0) {
+            this.minZ += z;
+        } else if (z > 0.0) {
+            this.maxZ += z;
+        }
+    }
+
+    public void moveBox(final double x, final double y, final double z) {
+        this.minX += x;
+        this.minY += y;
+        this.minZ += z;
+        this.maxX += x;
+        this.maxY += y;
+        this.maxZ += z;
+    }
+
+    // see CollisionUtil#collideX
+    private double collideX(double move) {
+        final double epsilon = CollisionUtil.COLLISION_EPSILON;
+        final double[] boxes = this.boxes;
+        for (int i = 0, len = this.size * BOX_STRIDE; i < len && move != 0.0; i += BOX_STRIDE) {
+            if ((this.minY - boxes[i + 4]) < -epsilon && (this.maxY - boxes[i + 1]) > epsilon &&
+                (this.minZ - boxes[i + 5]) < -epsilon && (this.maxZ - boxes[i + 2]) > epsilon) {
+                if (move >= 0.0) {
+                    final double maxMove = boxes[i] - this.maxX; // < 0.0 if no strict collision
+                    if (maxMove >= -epsilon) {
+                        move = Math.min(maxMove, move);
+                    }
+                } else {
+                    final double maxMove = boxes[i + 3] - this.minX; // > 0.0 if no strict collision
+                    if (maxMove <= epsilon) {
+                        move = Math.max(maxMove, move);
+                    }
+                }
+            }
+        }
+        return move;
+    }
+
+    // see CollisionUtil#collideY
+    private double collideY(double move) {
+        final double epsilon = CollisionUtil.COLLISION_EPSILON;
+        final double[] boxes = this.boxes;
+        for (int i = 0, len = this.size * BOX_STRIDE; i < len && move != 0.0; i += BOX_STRIDE) {
+            if ((this.minX - boxes[i + 3]) < -epsilon && (this.maxX - boxes[i]) > epsilon &&
+                (this.minZ - boxes[i + 5]) < -epsilon && (this.maxZ - boxes[i + 2]) > epsilon) {
+                if (move >= 0.0) {
+                    final double maxMove = boxes[i + 1] - this.maxY; // < 0.0 if no strict collision
+                    if (maxMove >= -epsilon) {
+                        move = Math.min(maxMove, move);
+                    }
+                } else {
+                    final double maxMove = boxes[i + 4] - this.minY; // > 0.0 if no strict collision
+                    if (maxMove <= epsilon) {
+                        move = Math.max(maxMove, move);
+                    }
+                }
+            }
+        }
+        return move;
+    }
+
+    // see CollisionUtil#collideZ
+    private double collideZ(double move) {
+        final double epsilon = CollisionUtil.COLLISION_EPSILON;
+        final double[] boxes = this.boxes;
+        for (int i = 0, len = this.size * BOX_STRIDE; i < len && move != 0.0; i += BOX_STRIDE) {
+            if ((this.minX - boxes[i + 3]) < -epsilon && (this.maxX - boxes[i]) > epsilon &&
+                (this.minY - boxes[i + 4]) < -epsilon && (this.maxY - boxes[i + 1]) > epsilon) {
+                if (move >= 0.0) {
+                    final double maxMove = boxes[i + 2] - this.maxZ; // < 0.0 if no strict collision
+                    if (maxMove >= -epsilon) {
+                        move = Math.min(maxMove, move);
+                    }
+                } else {
+                    final double maxMove = boxes[i + 5] - this.minZ; // > 0.0 if no strict collision
+                    if (maxMove <= epsilon) {
+                        move = Math.max(maxMove, move);
+                    }
+                }
+            }
+        }
+        return move;
+    }
+
+    /**
+     * Limits the given movement of the box by the collision boxes, the same way as
+     * {@link CollisionUtil#performCollisions}. The result is stored in {@link #moveX}, {@link #moveY} and
+     * {@link #moveZ}, the box is left unchanged.
+     */
+    public void performCollisions(double x, double y, double z) {
+        final double minX = this.minX;
+        final double minY = this.minY;
+        final double minZ = this.minZ;
+        final double maxX = this.maxX;
+        final double maxY = this.maxY;
+        final double maxZ = this.maxZ;
+
+        if (y != 0.0) {
+            y = this.collideY(y);
+            if (y != 0.0) {
+                this.minY += y;
+                this.maxY += y;
+            }
+        }
+
+        final boolean xSmaller = Math.abs(x) < Math.abs(z);
+
+        if (xSmaller && z != 0.0) {
+            z = this.collideZ(z);
+            if (z != 0.0) {
+                this.minZ += z;
+                this.maxZ += z;
+            }
+        }
+
+        if (x != 0.0) {
+            x = this.collideX(x);
+            if (!xSmaller && x != 0.0) {
+                this.minX += x;
+                this.maxX += x;
+            }
+        }
+
+        if (!xSmaller && z != 0.0) {
+            z = this.collideZ(z);
+        }
+
+        this.setBox(minX, minY, minZ, maxX, maxY, maxZ);
+        this.moveX = x;
+        this.moveY = y;
+        this.moveZ = z;
+    }
+}
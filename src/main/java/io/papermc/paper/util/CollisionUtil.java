@@ -59,6 +59,13 @@ public final class CollisionUtil {
             x + (16.0 + 3*COLLISION_EPSILON), Double.POSITIVE_INFINITY, z + (16.0 + 3*COLLISION_EPSILON), false);
     }
 
+    public static void addBoxForChunk(final int chunkX, final int chunkZ, final CollisionBuffer into) {
+        double x = (double)(chunkX << 4);
+        double z = (double)(chunkZ << 4);
+        into.add(x - 3*COLLISION_EPSILON, Double.NEGATIVE_INFINITY, z - 3*COLLISION_EPSILON,
+            x + (16.0 + 3*COLLISION_EPSILON), Double.POSITIVE_INFINITY, z + (16.0 + 3*COLLISION_EPSILON));
+    }
+
     /*
       A couple of rules for VoxelShape collisions:
       Two shapes only intersect if they are actually more than EPSILON units into each other. This also applies to movement
@@ -329,6 +336,91 @@ public final class CollisionUtil {
         }
     }
 
+    /**
+     * Adds the boxes of the given shape offset by the given amount that intersect the given bounds, without
+     * allocating the moved shape.
+     */
+    public static boolean addBoxesToIfIntersects(final VoxelShape shape, final double offX, final double offY, final double offZ,
+                                                 final double boxMinX, final double boxMinY, final double boxMinZ,
+                                                 final double boxMaxX, final double boxMaxY, final double boxMaxZ,
+                                                 final CollisionBuffer into) {
+        if (shape instanceof AABBVoxelShape) {
+            final AABB aabb = ((AABBVoxelShape)shape).aabb;
+            final double minX, minY, minZ, maxX, maxY, maxZ;
+            if (voxelShapeIntersect(boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ,
+                minX = aabb.minX + offX, minY = aabb.minY + offY, minZ = aabb.minZ + offZ,
+                maxX = aabb.maxX + offX, maxY = aabb.maxY + offY, maxZ = aabb.maxZ + offZ)
+                && !isEmpty(minX, minY, minZ, maxX, maxY, maxZ)) {
+                into.add(minX, minY, minZ, maxX, maxY, maxZ);
+                return true;
+            }
+            return false;
+        }
+
+        final List<AABB> boxes;
+        final double shapeOffX, shapeOffY, shapeOffZ;
+        if (shape instanceof ArrayVoxelShape) {
+            final ArrayVoxelShape shapeCasted = (ArrayVoxelShape)shape;
+            boxes = shapeCasted.getBoundingBoxesRepresentation();
+            shapeOffX = offX + shapeCasted.getOffsetX();
+            shapeOffY = offY + shapeCasted.getOffsetY();
+            shapeOffZ = offZ + shapeCasted.getOffsetZ();
+        } else {
+            boxes = shape.toAabbs();
+            shapeOffX = offX;
+            shapeOffY = offY;
+            shapeOffZ = offZ;
+        }
+
+        boolean ret = false;
+
+        for (int i = 0, len = boxes.size(); i < len; ++i) {
+            final AABB boundingBox = boxes.get(i);
+            final double minX, minY, minZ, maxX, maxY, maxZ;
+            if (voxelShapeIntersect(boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ,
+                minX = boundingBox.minX + shapeOffX, minY = boundingBox.minY + shapeOffY, minZ = boundingBox.minZ + shapeOffZ,
+                maxX = boundingBox.maxX + shapeOffX, maxY = boundingBox.maxY + shapeOffY, maxZ = boundingBox.maxZ + shapeOffZ)
+                && !isEmpty(minX, minY, minZ, maxX, maxY, maxZ)) {
+                into.add(minX, minY, minZ, maxX, maxY, maxZ);
+                ret = true;
+            }
+        }
+
+        return ret;
+    }
+
+    public static void addBoxesTo(final VoxelShape shape, final CollisionBuffer into) {
+        if (shape instanceof AABBVoxelShape) {
+            final AABB aabb = ((AABBVoxelShape)shape).aabb;
+            if (!isEmpty(aabb)) {
+                into.add(aabb);
+            }
+            return;
+        }
+
+        final List<AABB> boxes;
+        final double offX, offY, offZ;
+        if (shape instanceof ArrayVoxelShape) {
+            final ArrayVoxelShape shapeCasted = (ArrayVoxelShape)shape;
+            boxes = shapeCasted.getBoundingBoxesRepresentation();
+            offX = shapeCasted.getOffsetX();
+            offY = shapeCasted.getOffsetY();
+            offZ = shapeCasted.getOffsetZ();
+        } else {
+            boxes = shape.toAabbs();
+            offX = offY = offZ = 0.0;
+        }
+
+        for (int i = 0, len = boxes.size(); i < len; ++i) {
+            final AABB box = boxes.get(i);
+            final double minX, minY, minZ, maxX, maxY, maxZ;
+            if (!isEmpty(minX = box.minX + offX, minY = box.minY + offY, minZ = box.minZ + offZ,
+                maxX = box.maxX + offX, maxY = box.maxY + offY, maxZ = box.maxZ + offZ)) {
+                into.add(minX, minY, minZ, maxX, maxY, maxZ);
+            }
+        }
+    }
+
     public static void addBoxesTo(final VoxelShape shape, final List<AABB> list) {
         if (shape instanceof AABBVoxelShape) {
             final AABBVoxelShape shapeCasted = (AABBVoxelShape)shape;
@@ -406,34 +498,62 @@ public final class CollisionUtil {
     public static boolean getCollisionsForBlocksOrWorldBorder(final CollisionGetter getter, final Entity entity, final AABB aabb,
                                                                   final List<AABB> into, final boolean loadChunks, final boolean collidesWithUnloaded,
                                                                   final boolean checkBorder, final boolean checkOnly, final BiPredicate<BlockState, BlockPos> predicate) {
+        return getCollisionsForBlocksOrWorldBorder(getter, entity, aabb, aabb.minX, aabb.minY, aabb.minZ, aabb.maxX, aabb.maxY, aabb.maxZ,
+            into, null, loadChunks, collidesWithUnloaded, checkBorder, checkOnly, predicate);
+    }
+
+    /**
+     * Collects the block and world border collisions for the given bounds into the given buffer. Unlike the list
+     * variant, this does not allocate boxes for the collisions found.
+     */
+    public static boolean getCollisionsForBlocksOrWorldBorder(final CollisionGetter getter, final Entity entity,
+                                                              final double boxMinX, final double boxMinY, final double boxMinZ,
+                                                              final double boxMaxX, final double boxMaxY, final double boxMaxZ,
+                                                              final CollisionBuffer into, final boolean loadChunks,
+                                                              final boolean collidesWithUnloaded, final boolean checkBorder) {
+        return getCollisionsForBlocksOrWorldBorder(getter, entity, null, boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ,
+            null, into, loadChunks, collidesWithUnloaded, checkBorder, false, null);
+    }
+
+    // exactly one of intoList and intoBuffer is non-null, aabb is only null when collecting into the buffer
+    private static boolean getCollisionsForBlocksOrWorldBorder(final CollisionGetter getter, final Entity entity, final AABB aabb,
+                                                               final double boxMinX, final double boxMinY, final double boxMinZ,
+                                                               final double boxMaxX, final double boxMaxY, final double boxMaxZ,
+                                                               final List<AABB> intoList, final CollisionBuffer intoBuffer,
+                                                               final boolean loadChunks, final boolean collidesWithUnloaded,
+                                                               final boolean checkBorder, final boolean checkOnly, final BiPredicate<BlockState, BlockPos> predicate) {
         boolean ret = false;
 
         if (checkBorder) {
-            if (CollisionUtil.isAlmostCollidingOnBorder(getter.getWorldBorder(), aabb)) {
+            if (CollisionUtil.isAlmostCollidingOnBorder(getter.getWorldBorder(), boxMinX, boxMaxX, boxMinZ, boxMaxZ)) {
                 if (checkOnly) {
                     return true;
                 } else {
-                    CollisionUtil.addBoxesTo(getter.getWorldBorder().getCollisionShape(), into);
+                    if (intoBuffer != null) {
+                        CollisionUtil.addBoxesTo(getter.getWorldBorder().getCollisionShape(), intoBuffer);
+                    } else {
+                        CollisionUtil.addBoxesTo(getter.getWorldBorder().getCollisionShape(), intoList);
+                    }
                     ret = true;
                 }
             }
         }
 
-        final int minBlockX = Mth.floor(aabb.minX - COLLISION_EPSILON) - 1;
-        final int maxBlockX = Mth.floor(aabb.maxX + COLLISION_EPSILON) + 1;
+        final int minBlockX = Mth.floor(boxMinX - COLLISION_EPSILON) - 1;
+        final int maxBlockX = Mth.floor(boxMaxX + COLLISION_EPSILON) + 1;
 
-        final int minBlockY = Mth.floor(aabb.minY - COLLISION_EPSILON) - 1;
-        final int maxBlockY = Mth.floor(aabb.maxY + COLLISION_EPSILON) + 1;
+        final int minBlockY = Mth.floor(boxMinY - COLLISION_EPSILON) - 1;
+        final int maxBlockY = Mth.floor(boxMaxY + COLLISION_EPSILON) + 1;
 
-        final int minBlockZ = Mth.floor(aabb.minZ - COLLISION_EPSILON) - 1;
-        final int maxBlockZ = Mth.floor(aabb.maxZ + COLLISION_EPSILON) + 1;
+        final int minBlockZ = Mth.floor(boxMinZ - COLLISION_EPSILON) - 1;
+        final int maxBlockZ = Mth.floor(boxMaxZ + COLLISION_EPSILON) + 1;
 
         final int minSection = WorldUtil.getMinSection(getter);
         final int maxSection = WorldUtil.getMaxSection(getter);
         final int minBlock = minSection << 4;
         final int maxBlock = (maxSection << 4) | 15;
 
-        final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+        final BlockPos.MutableBlockPos mutablePos = intoBuffer != null ? intoBuffer.mutablePos : new BlockPos.MutableBlockPos();
         CollisionContext collisionShape = null;
 
         // special cases:
@@ -488,7 +608,11 @@ public final class CollisionUtil {
                         if (checkOnly) {
                             return true;
                         } else {
-                            into.add(getBoxForChunk(currChunkX, currChunkZ));
+                            if (intoBuffer != null) {
+                                addBoxForChunk(currChunkX, currChunkZ, intoBuffer);
+                            } else {
+                                intoList.add(getBoxForChunk(currChunkX, currChunkZ));
+                            }
                             ret = true;
                         }
                     }
@@ -578,22 +702,27 @@ public final class CollisionUtil {
                                         double blockX = (double)(currX | chunkXGlobalPos);
                                         double blockY = (double)(currY | chunkYGlobalPos);
                                         double blockZ = (double)(currZ | chunkZGlobalPos);
-                                        final AABB blockBox = new AABB(
-                                            blockX, blockY, blockZ,
-                                            blockX + 1.0, blockY + 1.0, blockZ + 1.0,
-                                            true
-                                        );
+                                        final boolean intersects = voxelShapeIntersect(boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ,
+                                            blockX, blockY, blockZ, blockX + 1.0, blockY + 1.0, blockZ + 1.0);
                                         if (predicate != null) {
-                                            if (!voxelShapeIntersect(aabb, blockBox)) {
+                                            if (!intersects) {
                                                 continue;
                                             }
                                             // fall through to get the block for the predicate
                                         } else {
-                                            if (voxelShapeIntersect(aabb, blockBox)) {
+                                            if (intersects) {
                                                 if (checkOnly) {
                                                     return true;
                                                 } else {
-                                                    into.add(blockBox);
+                                                    if (intoBuffer != null) {
+                                                        intoBuffer.add(blockX, blockY, blockZ, blockX + 1.0, blockY + 1.0, blockZ + 1.0);
+                                                    } else {
+                                                        intoList.add(new AABB(
+                                                            blockX, blockY, blockZ,
+                                                            blockX + 1.0, blockY + 1.0, blockZ + 1.0,
+                                                            true
+                                                        ));
+                                                    }
                                                     ret = true;
                                                 }
                                             }
@@ -623,18 +752,24 @@ public final class CollisionUtil {
                                     }
                                     VoxelShape voxelshape2 = blockData.getCollisionShape(getter, mutablePos, collisionShape);
                                     if (voxelshape2 != Shapes.empty()) {
-                                        VoxelShape voxelshape3 = voxelshape2.move((double)blockX, (double)blockY, (double)blockZ);
-
                                         if (predicate != null && !predicate.test(blockData, mutablePos)) {
                                             continue;
                                         }
 
+                                        if (intoBuffer != null) {
+                                            ret |= addBoxesToIfIntersects(voxelshape2, (double)blockX, (double)blockY, (double)blockZ,
+                                                boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ, intoBuffer);
+                                            continue;
+                                        }
+
+                                        VoxelShape voxelshape3 = voxelshape2.move((double)blockX, (double)blockY, (double)blockZ);
+
                                         if (checkOnly) {
                                             if (voxelshape3.intersects(aabb)) {
                                                 return true;
                                             }
                                         } else {
-                                            ret |= addBoxesToIfIntersects(voxelshape3, aabb, into);
+                                            ret |= addBoxesToIfIntersects(voxelshape3, aabb, intoList);
                                         }
                                     }
                                 }
@@ -846,6 +981,51 @@ public final class CollisionUtil {
         return ret;
     }
 
+    /**
+     * Collects the bounding boxes of the entities the given entity collides with into the given buffer. The entity
+     * query is skipped without allocating when no chunk in range holds a hard colliding entity.
+     */
+    public static boolean getEntityHardCollisions(final CollisionGetter getter, final Entity entity,
+                                                  final double boxMinX, final double boxMinY, final double boxMinZ,
+                                                  final double boxMaxX, final double boxMaxY, final double boxMaxZ,
+                                                  final CollisionBuffer into) {
+        if (isEmpty(boxMinX, boxMinY, boxMinZ, boxMaxX, boxMaxY, boxMaxZ) || !(getter instanceof EntityGetter entityGetter)) {
+            return false;
+        }
+
+        final boolean hardCollides = entity != null && entity.hardCollides();
+        if (!hardCollides && getter instanceof ServerLevel level && !level.mayHaveHardCollidingEntities(boxMinX, boxMinZ, boxMaxX, boxMaxZ)) {
+            return false;
+        }
+
+        boolean ret = false;
+
+        // see the list variant for why this is deflated
+        final AABB aabb = new AABB(boxMinX + COLLISION_EPSILON, boxMinY + COLLISION_EPSILON, boxMinZ + COLLISION_EPSILON,
+            boxMaxX - COLLISION_EPSILON, boxMaxY - COLLISION_EPSILON, boxMaxZ - COLLISION_EPSILON, false);
+        final List<Entity> entities = CachedLists.getTempGetEntitiesList();
+        try {
+            if (hardCollides) {
+                entityGetter.getEntities(entity, aabb, null, entities);
+            } else {
+                entityGetter.getHardCollidingEntities(entity, aabb, null, entities);
+            }
+
+            for (int i = 0, len = entities.size(); i < len; ++i) {
+                final Entity otherEntity = entities.get(i);
+
+                if ((entity == null && otherEntity.canBeCollidedWith()) || (entity != null && entity.canCollideWith(otherEntity))) {
+                    into.add(otherEntity.getBoundingBox());
+                    ret = true;
+                }
+            }
+        } finally {
+            CachedLists.returnTempGetEntitiesList(entities);
+        }
+
+        return ret;
+    }
+
     public static boolean getCollisions(final CollisionGetter view, final Entity entity, final AABB aabb,
                                         final List<AABB> into, final boolean loadChunks, final boolean collidesWithUnloadedChunks,
                                         final boolean checkBorder, final boolean checkOnly, final BiPredicate<BlockState, BlockPos> blockPredicate,
@@ -0,0 +1,103 @@
+package io.papermc.paper.util;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import net.minecraft.server.MinecraftServer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Worker threads the light engine spreads light propagation across. Only used by the light engines of worlds, which
+ * wait for the work they submit to complete.
+ */
+public final class LightWorkerPool {
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static volatile ForkJoinPool pool;
+
+    private LightWorkerPool() {
+        throw new RuntimeException();
+    }
+
+    private static int getThreads() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config == null ? 0 : config.lightEngine.workerThreads;
+    }
+
+    /**
+     * Returns whether light propagation should be spread across the workers when at least {@code chunks} chunks
+     * have queued light changes.
+     */
+    public static boolean shouldUse(final int chunks) {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config != null && config.lightEngine.workerThreads > 0 && chunks >= Math.max(2, config.lightEngine.minChunks);
+    }
+
+    private static ForkJoinPool getPool() {
+        ForkJoinPool ret = pool;
+        if (ret != null) {
+            return ret;
+        }
+        synchronized (LightWorkerPool.class) {
+            if ((ret = pool) != null) {
+                return ret;
+            }
+            pool = ret = new ForkJoinPool(Math.max(1, getThreads()), (final ForkJoinPool forkJoinPool) -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("Paper Light Worker #" + THREAD_ID.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }, (final Thread thread, final Throwable throwable) -> {
+                MinecraftServer.LOGGER.error("Uncaught exception in thread " + thread.getName(), throwable);
+            }, false);
+            return ret;
+        }
+    }
+
+    /**
+     * Runs the action for every element of the given list on the worker threads, one task per element, and waits
+     * for all of them to complete. Exceptions thrown by the action are rethrown on the calling thread.
+     */
+    public static <T> void forEach(final List<T> values, final Consumer<T> action) {
+        if (values.size() <= 1) {
+            for (final T value : values) {
+                action.accept(value);
+            }
+            return;
+        }
+        getPool().invoke(new ForEachTask<>(values, 0, values.size(), action));
+    }
+
+    private static final class ForEachTask<T> extends RecursiveAction {
+
+        private final List<T> values;
+        private final int from;
+        private final int to;
+        private final Consumer<T> action;
+
+        private ForEachTask(final List<T> values, final int from, final int to, final Consumer<T> action) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= 1) {
+                if (this.from < this.to) {
+                    this.action.accept(this.values.get(this.from));
+                }
+                return;
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(
+                new ForEachTask<>(this.values, this.from, middle, this.action),
+                new ForEachTask<>(this.values, middle, this.to, this.action)
+            );
+        }
+    }
+}
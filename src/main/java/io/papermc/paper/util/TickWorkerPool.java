@@ -0,0 +1,98 @@
+package io.papermc.paper.util;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import net.minecraft.server.MinecraftServer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Worker threads for tick work which is split off the tick thread and joined again before the tick continues.
+ * Work submitted here must only touch state owned by the element it is given, or state nothing else writes to
+ * while the work runs.
+ */
+public final class TickWorkerPool {
+
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static volatile ForkJoinPool pool;
+
+    private TickWorkerPool() {
+        throw new RuntimeException();
+    }
+
+    private static ForkJoinPool getPool() {
+        ForkJoinPool ret = pool;
+        if (ret != null) {
+            return ret;
+        }
+        synchronized (TickWorkerPool.class) {
+            if ((ret = pool) != null) {
+                return ret;
+            }
+            final GlobalConfiguration config = GlobalConfiguration.get();
+            int threads = config == null ? -1 : config.tickWorkers.threads;
+            if (threads <= 0) {
+                threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            }
+            pool = ret = new ForkJoinPool(threads, (final ForkJoinPool forkJoinPool) -> {
+                final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("Paper Tick Worker #" + THREAD_ID.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }, (final Thread thread, final Throwable throwable) -> {
+                MinecraftServer.LOGGER.error("Uncaught exception in thread " + thread.getName(), throwable);
+            }, false);
+            return ret;
+        }
+    }
+
+    /**
+     * Runs the action for the first {@code size} elements of the given array on the worker threads, and waits for
+     * all of them to complete. Exceptions thrown by the action are rethrown on the calling thread.
+     *
+     * @param batchSize Number of elements run by a single task
+     */
+    public static <T> void forEach(final T[] values, final int size, final int batchSize, final Consumer<T> action) {
+        if (size <= batchSize) {
+            for (int i = 0; i < size; ++i) {
+                action.accept(values[i]);
+            }
+            return;
+        }
+        getPool().invoke(new ForEachTask<>(values, 0, size, Math.max(1, batchSize), action));
+    }
+
+    private static final class ForEachTask<T> extends RecursiveAction {
+
+        private final T[] values;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final Consumer<T> action;
+
+        private ForEachTask(final T[] values, final int from, final int to, final int batchSize, final Consumer<T> action) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.batchSize) {
+                for (int i = this.from; i < this.to; ++i) {
+                    this.action.accept(this.values[i]);
+                }
+                return;
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(
+                new ForEachTask<>(this.values, this.from, middle, this.batchSize, this.action),
+                new ForEachTask<>(this.values, middle, this.to, this.batchSize, this.action)
+            );
+        }
+    }
+}
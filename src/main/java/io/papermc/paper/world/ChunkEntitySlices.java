@@ -41,8 +41,11 @@ public final class ChunkEntitySlices {
         this.chunkZ = chunkZ;
         this.world = world;
 
-        this.allEntities = new EntityCollectionBySection(this);
-        this.hardCollidingEntities = new EntityCollectionBySection(this);
+        // Paper start - packed entity bounds
+        final boolean packBounds = world.paperConfig().collisions.packEntityBounds;
+        this.allEntities = new EntityCollectionBySection(this, packBounds ? BasicEntityList.ALL_ENTITIES_SLOT : -1);
+        this.hardCollidingEntities = new EntityCollectionBySection(this, packBounds ? BasicEntityList.HARD_COLLIDING_SLOT : -1);
+        // Paper end - packed entity bounds
         this.entitiesByClass = new Reference2ObjectOpenHashMap<>();
 
         this.status = status;
@@ -134,17 +137,26 @@ public final class ChunkEntitySlices {
         this.hardCollidingEntities.getEntities(except, box, into, predicate);
     }
 
+    public boolean hasHardCollidingEntities() {
+        return this.hardCollidingEntities.count != 0;
+    }
+
     public void getEntities(final Entity except, final AABB box, final List<Entity> into, final Predicate<? super Entity> predicate) {
         this.allEntities.getEntitiesWithEnderDragonParts(except, box, into, predicate);
     }
 
+    public void getEntities(final Entity except, final AABB box, final List<Entity> into, final Predicate<? super Entity> predicate,
+                            final int limit) {
+        this.allEntities.getEntitiesWithEnderDragonParts(except, box, into, predicate, limit);
+    }
+
     public <T extends Entity> void getEntities(final EntityType<?> type, final AABB box, final List<? super T> into,
                                                final Predicate<? super T> predicate) {
         this.allEntities.getEntities(type, box, (List)into, (Predicate)predicate);
     }
 
     protected EntityCollectionBySection initClass(final Class<? extends Entity> clazz) {
-        final EntityCollectionBySection ret = new EntityCollectionBySection(this);
+        final EntityCollectionBySection ret = new EntityCollectionBySection(this, -1); // Paper - packed entity bounds
 
         for (int sectionIndex = 0; sectionIndex < this.allEntities.entitiesBySection.length; ++sectionIndex) {
             final BasicEntityList<Entity> sectionEntities = this.allEntities.entitiesBySection[sectionIndex];
@@ -187,21 +199,44 @@ public final class ChunkEntitySlices {
         }*/
     }
 
-    protected static final class BasicEntityList<E extends Entity> {
+    public static final class BasicEntityList<E extends Entity> {
 
         protected static final Entity[] EMPTY = new Entity[0];
         protected static final int DEFAULT_CAPACITY = 4;
 
+        // Paper start - packed entity bounds
+        public static final int ALL_ENTITIES_SLOT = 0;
+        public static final int HARD_COLLIDING_SLOT = 1;
+        public static final int SLOT_COUNT = 2;
+        protected static final int BOUNDS_STRIDE = 6;
+        protected static final double[] EMPTY_BOUNDS = new double[0];
+        // Paper end - packed entity bounds
+
         protected E[] storage;
         protected int size;
+        // Paper start - packed entity bounds
+        // minX, minY, minZ, maxX, maxY, maxZ of each entity, so that box tests do not need to load the entities
+        protected double[] bounds = EMPTY_BOUNDS;
+        protected final int boundsSlot; // slot of this list in Entity#packedBoundsLists, -1 if bounds are not packed
+        // Paper end - packed entity bounds
 
         public BasicEntityList() {
             this(0);
         }
 
         public BasicEntityList(final int cap) {
+            this(cap, -1); // Paper - packed entity bounds
+        }
+
+        // Paper start - packed entity bounds
+        public BasicEntityList(final int cap, final int boundsSlot) {
             this.storage = (E[])(cap <= 0 ? EMPTY : new Entity[cap]);
+            this.boundsSlot = boundsSlot;
+            if (boundsSlot >= 0 && cap > 0) {
+                this.bounds = new double[cap * BOUNDS_STRIDE];
+            }
         }
+        // Paper end - packed entity bounds
 
         public boolean isEmpty() {
             return this.size == 0;
@@ -213,8 +248,18 @@ public final class ChunkEntitySlices {
 
         private void resize() {
             if (this.storage == EMPTY) {
+                // Paper start - packed entity bounds
+                if (this.boundsSlot >= 0) {
+                    this.bounds = new double[DEFAULT_CAPACITY * BOUNDS_STRIDE];
+                }
+                // Paper end - packed entity bounds
                 this.storage = (E[])new Entity[DEFAULT_CAPACITY];
             } else {
+                // Paper start - packed entity bounds
+                if (this.boundsSlot >= 0) {
+                    this.bounds = Arrays.copyOf(this.bounds, this.storage.length * 2 * BOUNDS_STRIDE);
+                }
+                // Paper end - packed entity bounds
                 this.storage = Arrays.copyOf(this.storage, this.storage.length * 2);
             }
         }
@@ -227,9 +272,25 @@ public final class ChunkEntitySlices {
             } else {
                 this.storage[idx] = entity;
             }
+            // Paper start - packed entity bounds
+            if (this.boundsSlot >= 0) {
+                if (entity.packedBoundsLists == null) {
+                    entity.packedBoundsLists = new BasicEntityList[SLOT_COUNT];
+                    entity.packedBoundsIndices = new int[SLOT_COUNT];
+                }
+                entity.packedBoundsLists[this.boundsSlot] = this;
+                entity.packedBoundsIndices[this.boundsSlot] = idx;
+                this.updateBounds(idx, entity);
+            }
+            // Paper end - packed entity bounds
         }
 
         public int indexOf(final E entity) {
+            // Paper start - packed entity bounds
+            if (this.boundsSlot >= 0 && entity.packedBoundsLists != null && entity.packedBoundsLists[this.boundsSlot] == this) {
+                return entity.packedBoundsIndices[this.boundsSlot];
+            }
+            // Paper end - packed entity bounds
             final E[] storage = this.storage;
 
             for (int i = 0, len = Math.min(this.storage.length, this.size); i < len; ++i) {
@@ -251,9 +312,22 @@ public final class ChunkEntitySlices {
             final E[] storage = this.storage;
             if (idx != size) {
                 System.arraycopy(storage, idx + 1, storage, idx, size - idx);
+                // Paper start - packed entity bounds
+                if (this.boundsSlot >= 0) {
+                    System.arraycopy(this.bounds, (idx + 1) * BOUNDS_STRIDE, this.bounds, idx * BOUNDS_STRIDE, (size - idx) * BOUNDS_STRIDE);
+                    for (int i = idx; i < size; ++i) {
+                        storage[i].packedBoundsIndices[this.boundsSlot] = i;
+                    }
+                }
+                // Paper end - packed entity bounds
             }
 
             storage[size] = null;
+            // Paper start - packed entity bounds
+            if (this.boundsSlot >= 0) {
+                entity.packedBoundsLists[this.boundsSlot] = null;
+            }
+            // Paper end - packed entity bounds
 
             return true;
         }
@@ -261,6 +335,45 @@ public final class ChunkEntitySlices {
         public boolean has(final E entity) {
             return this.indexOf(entity) != -1;
         }
+
+        // Paper start - packed entity bounds
+        /**
+         * Copies the bounding box of the entity at the given index into the packed bounds, called whenever the
+         * bounding box of the entity changes.
+         */
+        public void updateBounds(final int index, final Entity entity) {
+            final double[] bounds = this.bounds;
+            final int offset = index * BOUNDS_STRIDE;
+            if (entity instanceof EnderDragon) {
+                // the parts are tested through the dragon, so the dragon must always pass the bounds test
+                bounds[offset] = bounds[offset + 1] = bounds[offset + 2] = Double.NEGATIVE_INFINITY;
+                bounds[offset + 3] = bounds[offset + 4] = bounds[offset + 5] = Double.POSITIVE_INFINITY;
+                return;
+            }
+            final AABB box = entity.getBoundingBox();
+            bounds[offset] = box.minX;
+            bounds[offset + 1] = box.minY;
+            bounds[offset + 2] = box.minZ;
+            bounds[offset + 3] = box.maxX;
+            bounds[offset + 4] = box.maxY;
+            bounds[offset + 5] = box.maxZ;
+        }
+
+        /**
+         * Returns {@code false} if the entity at the given index does not intersect the given box. Always returns
+         * {@code true} if bounds are not packed.
+         */
+        protected boolean mayIntersect(final int index, final AABB box) {
+            if (this.boundsSlot < 0) {
+                return true;
+            }
+            final double[] bounds = this.bounds;
+            final int offset = index * BOUNDS_STRIDE;
+            return bounds[offset] < box.maxX && bounds[offset + 3] > box.minX
+                && bounds[offset + 1] < box.maxY && bounds[offset + 4] > box.minY
+                && bounds[offset + 2] < box.maxZ && bounds[offset + 5] > box.minZ;
+        }
+        // Paper end - packed entity bounds
     }
 
     protected static final class EntityCollectionBySection {
@@ -269,9 +382,11 @@ public final class ChunkEntitySlices {
         protected final long[] nonEmptyBitset;
         protected final BasicEntityList<Entity>[] entitiesBySection;
         protected int count;
+        protected final int boundsSlot; // Paper - packed entity bounds
 
-        public EntityCollectionBySection(final ChunkEntitySlices manager) {
+        public EntityCollectionBySection(final ChunkEntitySlices manager, final int boundsSlot) { // Paper - packed entity bounds
             this.manager = manager;
+            this.boundsSlot = boundsSlot; // Paper - packed entity bounds
 
             final int sectionCount = manager.maxSection - manager.minSection + 1;
 
@@ -287,7 +402,7 @@ public final class ChunkEntitySlices {
             }
 
             if (list == null) {
-                this.entitiesBySection[sectionIndex] = list = new BasicEntityList<>();
+                this.entitiesBySection[sectionIndex] = list = new BasicEntityList<>(0, this.boundsSlot); // Paper - packed entity bounds
                 this.nonEmptyBitset[sectionIndex >>> 6] |= (1L << (sectionIndex & (Long.SIZE - 1)));
             }
 
@@ -335,6 +450,9 @@ public final class ChunkEntitySlices {
                 final Entity[] storage = list.storage;
 
                 for (int i = 0, len = Math.min(storage.length, list.size()); i < len; ++i) {
+                    if (!list.mayIntersect(i, box)) { // Paper - packed entity bounds
+                        continue;
+                    }
                     final Entity entity = storage[i];
 
                     if (entity == null || entity == except || !entity.getBoundingBox().intersects(box)) {
@@ -352,7 +470,13 @@ public final class ChunkEntitySlices {
 
         public void getEntitiesWithEnderDragonParts(final Entity except, final AABB box, final List<Entity> into,
                                                     final Predicate<? super Entity> predicate) {
-            if (this.count == 0) {
+            this.getEntitiesWithEnderDragonParts(except, box, into, predicate, Integer.MAX_VALUE);
+        }
+
+        // stops once the list holds at least limit entities, so the result is a prefix of the unlimited result
+        public void getEntitiesWithEnderDragonParts(final Entity except, final AABB box, final List<Entity> into,
+                                                    final Predicate<? super Entity> predicate, final int limit) {
+            if (this.count == 0 || into.size() >= limit) {
                 return;
             }
 
@@ -376,6 +500,9 @@ public final class ChunkEntitySlices {
                 final Entity[] storage = list.storage;
 
                 for (int i = 0, len = Math.min(storage.length, list.size()); i < len; ++i) {
+                    if (!list.mayIntersect(i, box)) { // Paper - packed entity bounds
+                        continue;
+                    }
                     final Entity entity = storage[i];
 
                     if (entity == null || entity == except || !entity.getBoundingBox().intersects(box)) {
@@ -399,6 +526,10 @@ public final class ChunkEntitySlices {
                             into.add(part);
                         }
                     }
+
+                    if (into.size() >= limit) {
+                        return;
+                    }
                 }
             }
         }
@@ -429,6 +560,9 @@ public final class ChunkEntitySlices {
                 final Entity[] storage = list.storage;
 
                 for (int i = 0, len = Math.min(storage.length, list.size()); i < len; ++i) {
+                    if (!list.mayIntersect(i, box)) { // Paper - packed entity bounds
+                        continue;
+                    }
                     final Entity entity = storage[i];
 
                     if (entity == null || entity == except || !entity.getBoundingBox().intersects(box)) {
@@ -482,6 +616,9 @@ public final class ChunkEntitySlices {
                 final Entity[] storage = list.storage;
 
                 for (int i = 0, len = Math.min(storage.length, list.size()); i < len; ++i) {
+                    if (!list.mayIntersect(i, box)) { // Paper - packed entity bounds
+                        continue;
+                    }
                     final Entity entity = storage[i];
 
                     if (entity == null || (type != null && entity.getType() != type) || !entity.getBoundingBox().intersects(box)) {
@@ -2,6 +2,7 @@ package io.papermc.paper.world;
 
 import io.papermc.paper.util.CoordinateUtils;
 import io.papermc.paper.util.WorldUtil;
+import io.papermc.paper.util.maplist.IteratorSafeOrderedReferenceSet;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.server.level.ChunkHolder;
@@ -9,6 +10,7 @@ import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.Mth;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.MobCategory;
 import net.minecraft.world.phys.AABB;
 import java.util.List;
 import java.util.concurrent.locks.StampedLock;
@@ -33,6 +35,9 @@ public final class EntitySliceManager {
         this.statusMap.defaultReturnValue(ChunkHolder.FullChunkStatus.INACCESSIBLE);
     }
 
+    // entities with a mob category other than misc, the only entities natural spawning counts
+    private final IteratorSafeOrderedReferenceSet<Entity> spawnCountedEntities = new IteratorSafeOrderedReferenceSet<>();
+
     public EntitySliceManager(final ServerLevel world) {
         this.world = world;
         this.minSection = WorldUtil.getMinSection(world);
@@ -62,9 +67,14 @@ public final class EntitySliceManager {
         entity.sectionX = sectionX;
         entity.sectionY = sectionY;
         entity.sectionZ = sectionZ;
+
+        if (entity.getType().getCategory() != MobCategory.MISC) {
+            this.spawnCountedEntities.add(entity);
+        }
     }
 
     public synchronized void removeEntity(final Entity entity) {
+        this.spawnCountedEntities.remove(entity);
         final ChunkEntitySlices slices = this.getChunk(entity.sectionX, entity.sectionZ);
         slices.removeEntity(entity, entity.sectionY);
         if (slices.isEmpty()) {
@@ -72,6 +82,14 @@ public final class EntitySliceManager {
         }
     }
 
+    /**
+     * Returns the entities of this world which natural spawning may count towards the mob caps. The returned iterable
+     * must only be iterated on the main thread, and not while entities are added or removed.
+     */
+    public Iterable<Entity> getSpawnCountedEntities() {
+        return this.spawnCountedEntities::unsafeIterator;
+    }
+
     public void moveEntity(final Entity entity) {
         final BlockPos newPos = entity.blockPosition();
         final int newSectionX = newPos.getX() >> 4;
@@ -153,6 +171,53 @@ public final class EntitySliceManager {
         }
     }
 
+    /**
+     * Same as {@link #getEntities(Entity, AABB, List, Predicate)}, but stops once the list holds at least
+     * {@code limit} entities. The entities found are the first entities of the unlimited query, in the same order.
+     */
+    public void getEntities(final Entity except, final AABB box, final List<Entity> into, final Predicate<? super Entity> predicate,
+                            final int limit) {
+        final int minChunkX = (Mth.floor(box.minX) - 2) >> 4;
+        final int minChunkZ = (Mth.floor(box.minZ) - 2) >> 4;
+        final int maxChunkX = (Mth.floor(box.maxX) + 2) >> 4;
+        final int maxChunkZ = (Mth.floor(box.maxZ) + 2) >> 4;
+
+        final int minRegionX = minChunkX >> REGION_SHIFT;
+        final int minRegionZ = minChunkZ >> REGION_SHIFT;
+        final int maxRegionX = maxChunkX >> REGION_SHIFT;
+        final int maxRegionZ = maxChunkZ >> REGION_SHIFT;
+
+        for (int currRegionZ = minRegionZ; currRegionZ <= maxRegionZ; ++currRegionZ) {
+            final int minZ = currRegionZ == minRegionZ ? minChunkZ & REGION_MASK : 0;
+            final int maxZ = currRegionZ == maxRegionZ ? maxChunkZ & REGION_MASK : REGION_MASK;
+
+            for (int currRegionX = minRegionX; currRegionX <= maxRegionX; ++currRegionX) {
+                final ChunkSlicesRegion region = this.getRegion(currRegionX, currRegionZ);
+
+                if (region == null) {
+                    continue;
+                }
+
+                final int minX = currRegionX == minRegionX ? minChunkX & REGION_MASK : 0;
+                final int maxX = currRegionX == maxRegionX ? maxChunkX & REGION_MASK : REGION_MASK;
+
+                for (int currZ = minZ; currZ <= maxZ; ++currZ) {
+                    for (int currX = minX; currX <= maxX; ++currX) {
+                        final ChunkEntitySlices chunk = region.get(currX | (currZ << REGION_SHIFT));
+                        if (chunk == null || !chunk.status.isOrAfter(ChunkHolder.FullChunkStatus.BORDER)) {
+                            continue;
+                        }
+
+                        chunk.getEntities(except, box, into, predicate, limit);
+                        if (into.size() >= limit) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     public void getHardCollidingEntities(final Entity except, final AABB box, final List<Entity> into, final Predicate<? super Entity> predicate) {
         final int minChunkX = (Mth.floor(box.minX) - 2) >> 4;
         final int minChunkZ = (Mth.floor(box.minZ) - 2) >> 4;
@@ -192,6 +257,28 @@ public final class EntitySliceManager {
         }
     }
 
+    /**
+     * Returns whether any chunk which {@link #getHardCollidingEntities} would search for the given bounds holds a
+     * hard colliding entity. Does not check the bounds of the entities.
+     */
+    public boolean mayHaveHardCollidingEntities(final double minX, final double minZ, final double maxX, final double maxZ) {
+        final int minChunkX = (Mth.floor(minX) - 2) >> 4;
+        final int minChunkZ = (Mth.floor(minZ) - 2) >> 4;
+        final int maxChunkX = (Mth.floor(maxX) + 2) >> 4;
+        final int maxChunkZ = (Mth.floor(maxZ) + 2) >> 4;
+
+        for (int currZ = minChunkZ; currZ <= maxChunkZ; ++currZ) {
+            for (int currX = minChunkX; currX <= maxChunkX; ++currX) {
+                final ChunkEntitySlices chunk = this.getChunk(currX, currZ);
+                if (chunk != null && chunk.status.isOrAfter(ChunkHolder.FullChunkStatus.BORDER) && chunk.hasHardCollidingEntities()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     public <T extends Entity> void getEntities(final EntityType<?> type, final AABB box, final List<? super T> into,
                                                final Predicate<? super T> predicate) {
         final int minChunkX = (Mth.floor(box.minX) - 2) >> 4;
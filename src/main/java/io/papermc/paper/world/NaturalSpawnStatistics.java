@@ -0,0 +1,87 @@
+package io.papermc.paper.world;
+
+import java.util.Arrays;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.entity.MobCategory;
+
+/**
+ * Counts natural spawn attempts and their outcome per mob category, for all worlds.
+ * <p>
+ * Only accessed from the main thread.
+ * </p>
+ */
+public final class NaturalSpawnStatistics {
+
+    private static final int CATEGORY_COUNT = MobCategory.values().length;
+
+    // attempts to spawn a pack for a chunk
+    private static final long[] ATTEMPTS = new long[CATEGORY_COUNT];
+    // attempts rejected at the start position (out of bounds, unloaded or inside a solid block)
+    private static final long[] REJECTED_START = new long[CATEGORY_COUNT];
+    // pack positions which were checked for a specific entity type
+    private static final long[] POSITIONS_CHECKED = new long[CATEGORY_COUNT];
+    // pack positions rejected by the block checks, before looking up structures or spawn rules
+    private static final long[] POSITIONS_REJECTED_EARLY = new long[CATEGORY_COUNT];
+    private static final long[] SPAWNED = new long[CATEGORY_COUNT];
+    private static int startTick = MinecraftServer.currentTick;
+
+    private NaturalSpawnStatistics() {
+        throw new RuntimeException();
+    }
+
+    public static void recordAttempt(final MobCategory category) {
+        ++ATTEMPTS[category.ordinal()];
+    }
+
+    public static void recordRejectedStart(final MobCategory category) {
+        ++REJECTED_START[category.ordinal()];
+    }
+
+    public static void recordPositionChecked(final MobCategory category) {
+        ++POSITIONS_CHECKED[category.ordinal()];
+    }
+
+    public static void recordPositionRejectedEarly(final MobCategory category) {
+        ++POSITIONS_REJECTED_EARLY[category.ordinal()];
+    }
+
+    public static void recordSpawned(final MobCategory category, final int count) {
+        SPAWNED[category.ordinal()] += count;
+    }
+
+    public static long getAttempts(final MobCategory category) {
+        return ATTEMPTS[category.ordinal()];
+    }
+
+    public static long getRejectedStart(final MobCategory category) {
+        return REJECTED_START[category.ordinal()];
+    }
+
+    public static long getPositionsChecked(final MobCategory category) {
+        return POSITIONS_CHECKED[category.ordinal()];
+    }
+
+    public static long getPositionsRejectedEarly(final MobCategory category) {
+        return POSITIONS_REJECTED_EARLY[category.ordinal()];
+    }
+
+    public static long getSpawned(final MobCategory category) {
+        return SPAWNED[category.ordinal()];
+    }
+
+    /**
+     * Returns the number of ticks the statistics were collected for.
+     */
+    public static int getTicks() {
+        return Math.max(1, MinecraftServer.currentTick - startTick);
+    }
+
+    public static void resetStatistics() {
+        Arrays.fill(ATTEMPTS, 0L);
+        Arrays.fill(REJECTED_START, 0L);
+        Arrays.fill(POSITIONS_CHECKED, 0L);
+        Arrays.fill(POSITIONS_REJECTED_EARLY, 0L);
+        Arrays.fill(SPAWNED, 0L);
+        startTick = MinecraftServer.currentTick;
+    }
+}
@@ -0,0 +1,514 @@
+package io.papermc.paper.world;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.Registry;
+import net.minecraft.nbt.ByteArrayTag;
+import net.minecraft.nbt.ByteTag;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.DoubleTag;
+import net.minecraft.nbt.EndTag;
+import net.minecraft.nbt.FloatTag;
+import net.minecraft.nbt.IntArrayTag;
+import net.minecraft.nbt.IntTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.LongArrayTag;
+import net.minecraft.nbt.LongTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.ShortTag;
+import net.minecraft.nbt.StreamTagVisitor;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.nbt.TagType;
+import net.minecraft.nbt.TagVisitor;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.Property;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads chunk data from a stream while decoding the block state and biome palettes of every section directly,
+ * instead of building a tag tree for them which is only thrown away by {@link net.minecraft.world.level.chunk.storage.ChunkSerializer}.
+ * The rest of the chunk is read into regular tags.
+ * <p>
+ * The decoded palettes are only kept for chunks saved with the current data version, since older chunks need their
+ * full tag tree for the data converter. For those, the palettes are written back into the section tags.
+ * </p>
+ */
+public final class StreamingChunkReader implements StreamTagVisitor {
+
+    private static final int CURRENT_DATA_VERSION = SharedConstants.getCurrentVersion().getWorldVersion();
+
+    private static final int MODE_TAGS        = 0;
+    private static final int MODE_BLOCKSTATES = 1;
+    private static final int MODE_BIOMES      = 2;
+
+    public static boolean isEnabled() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config != null && config.misc.streamingChunkReads;
+    }
+
+    public static CompoundTag read(final DataInput input) throws IOException {
+        final StreamingChunkReader reader = new StreamingChunkReader();
+        NbtIo.parse(input, reader);
+        return reader.getResult();
+    }
+
+    private final ArrayList<Tag> containers = new ArrayList<>();
+    private Tag root;
+    private String pendingKey = "";
+
+    private ListTag sectionsList;
+    private final ArrayList<DecodedSection> sections = new ArrayList<>();
+
+    // palette decoding state
+    private int mode = MODE_TAGS;
+    private int paletteDepth; // 0 = in block_states/biomes, 1 = in palette, 2 = in palette entry, 3 = in entry properties
+    private boolean readingData;
+    private boolean readingName;
+    private String entryName;
+    private String propertyKey;
+    private final ObjectArrayList<String> properties = new ObjectArrayList<>(); // key, value pairs
+
+    private StreamingChunkReader() {}
+
+    private CompoundTag getResult() throws IOException {
+        if (!(this.root instanceof CompoundTag rootTag)) {
+            throw new IOException("Root tag must be a named compound tag");
+        }
+
+        final DecodedSection[] decoded = this.sections.toArray(new DecodedSection[0]);
+        if (decoded.length == 0) {
+            return rootTag;
+        }
+
+        if (rootTag.contains("DataVersion", Tag.TAG_ANY_NUMERIC) && rootTag.getInt("DataVersion") == CURRENT_DATA_VERSION) {
+            return new StreamedChunkTag(rootTag.tags, decoded);
+        }
+
+        // needs conversion, which operates on tags
+        materialize(rootTag, decoded);
+        return rootTag;
+    }
+
+    private static void materialize(final CompoundTag root, final DecodedSection[] decoded) {
+        final ListTag sections = root.getList("sections", Tag.TAG_COMPOUND);
+        for (int i = 0, len = Math.min(sections.size(), decoded.length); i < len; ++i) {
+            decoded[i].writeTo(sections.getCompound(i));
+        }
+    }
+
+    private Tag currentContainer() {
+        return this.containers.isEmpty() ? null : this.containers.get(this.containers.size() - 1);
+    }
+
+    private boolean isInSection() {
+        return this.containers.size() == 3 && this.containers.get(1) == this.sectionsList;
+    }
+
+    private DecodedSection currentSection() {
+        return this.sections.get(this.sections.size() - 1);
+    }
+
+    private void append(final Tag tag) {
+        final Tag container = this.currentContainer();
+        if (container == null) {
+            this.root = tag;
+        } else if (container instanceof CompoundTag compound) {
+            compound.put(this.pendingKey, tag);
+        } else {
+            ((ListTag)container).add(tag);
+        }
+    }
+
+    private void enterIfContainer(final TagType<?> type) {
+        final Tag container;
+        if (type == CompoundTag.TYPE) {
+            container = new CompoundTag();
+        } else if (type == ListTag.TYPE) {
+            container = new ListTag();
+        } else {
+            return;
+        }
+        this.append(container);
+        this.containers.add(container);
+    }
+
+    private BlockState resolveEntry() {
+        final ResourceLocation id = this.entryName == null ? null : ResourceLocation.tryParse(this.entryName);
+        if (id == null) {
+            return Blocks.AIR.defaultBlockState();
+        }
+        final Block block = Registry.BLOCK.get(id);
+        BlockState state = block.defaultBlockState();
+        for (int i = 0, len = this.properties.size(); i < len; i += 2) {
+            final Property<?> property = block.getStateDefinition().getProperty(this.properties.get(i));
+            if (property != null) {
+                state = setValue(state, property, this.properties.get(i + 1));
+            }
+        }
+        return state;
+    }
+
+    private static <T extends Comparable<T>> BlockState setValue(final BlockState state, final Property<T> property, final String value) {
+        final Optional<T> parsed = property.getValue(value);
+        return parsed.isPresent() ? state.setValue(property, parsed.get()) : state;
+    }
+
+    @Override
+    public ValueResult visitEnd() {
+        if (this.mode == MODE_TAGS) {
+            this.append(EndTag.INSTANCE);
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final String value) {
+        switch (this.mode) {
+            case MODE_BLOCKSTATES -> {
+                if (this.paletteDepth == 2 && this.readingName) {
+                    this.entryName = value;
+                    this.readingName = false;
+                } else if (this.paletteDepth == 3) {
+                    this.properties.add(this.propertyKey);
+                    this.properties.add(value);
+                }
+            }
+            case MODE_BIOMES -> {
+                if (this.paletteDepth == 1) {
+                    this.currentSection().biomes.add(value);
+                }
+            }
+            default -> this.append(StringTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final byte value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(ByteTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final short value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(ShortTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final int value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(IntTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final long value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(LongTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final float value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(FloatTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final double value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(DoubleTag.valueOf(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final byte[] value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(new ByteArrayTag(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final int[] value) {
+        if (this.mode == MODE_TAGS) {
+            this.append(new IntArrayTag(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visit(final long[] value) {
+        switch (this.mode) {
+            case MODE_BLOCKSTATES -> {
+                if (this.readingData) {
+                    this.currentSection().blockStateData = value;
+                    this.readingData = false;
+                }
+            }
+            case MODE_BIOMES -> {
+                if (this.readingData) {
+                    this.currentSection().biomeData = value;
+                    this.readingData = false;
+                }
+            }
+            default -> this.append(new LongArrayTag(value));
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visitList(final TagType<?> entryType, final int length) {
+        if (this.mode == MODE_TAGS && this.currentContainer() == this.sectionsList) {
+            this.sections.ensureCapacity(length);
+        }
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public EntryResult visitEntry(final TagType<?> type) {
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public EntryResult visitEntry(final TagType<?> type, final String key) {
+        if (this.mode != MODE_TAGS) {
+            switch (this.paletteDepth) {
+                case 0 -> {
+                    if (key.equals("palette") && type == ListTag.TYPE) {
+                        this.paletteDepth = 1;
+                        return EntryResult.ENTER;
+                    }
+                    if (key.equals("data") && type == LongArrayTag.TYPE) {
+                        this.readingData = true;
+                        return EntryResult.ENTER;
+                    }
+                    return EntryResult.SKIP;
+                }
+                case 2 -> {
+                    if (key.equals("Name") && type == StringTag.TYPE) {
+                        this.readingName = true;
+                        return EntryResult.ENTER;
+                    }
+                    if (key.equals("Properties") && type == CompoundTag.TYPE) {
+                        this.paletteDepth = 3;
+                        return EntryResult.ENTER;
+                    }
+                    return EntryResult.SKIP;
+                }
+                case 3 -> {
+                    if (type == StringTag.TYPE) {
+                        this.propertyKey = key;
+                        return EntryResult.ENTER;
+                    }
+                    return EntryResult.SKIP;
+                }
+                default -> {
+                    return EntryResult.SKIP;
+                }
+            }
+        }
+
+        if (type == CompoundTag.TYPE && this.isInSection()) {
+            if (key.equals("block_states")) {
+                this.mode = MODE_BLOCKSTATES;
+                this.paletteDepth = 0;
+                this.currentSection().blockStates = new ArrayList<>();
+                return EntryResult.ENTER;
+            }
+            if (key.equals("biomes")) {
+                this.mode = MODE_BIOMES;
+                this.paletteDepth = 0;
+                this.currentSection().biomes = new ArrayList<>();
+                return EntryResult.ENTER;
+            }
+        }
+
+        this.pendingKey = key;
+        this.enterIfContainer(type);
+        if (type == ListTag.TYPE && this.containers.size() == 2 && key.equals("sections")) {
+            this.sectionsList = (ListTag)this.currentContainer();
+        }
+        return EntryResult.ENTER;
+    }
+
+    @Override
+    public EntryResult visitElement(final TagType<?> type, final int index) {
+        switch (this.mode) {
+            case MODE_BLOCKSTATES -> {
+                if (this.paletteDepth == 1 && type == CompoundTag.TYPE) {
+                    this.paletteDepth = 2;
+                    this.entryName = null;
+                    this.properties.clear();
+                    return EntryResult.ENTER;
+                }
+                return EntryResult.SKIP;
+            }
+            case MODE_BIOMES -> {
+                return this.paletteDepth == 1 && type == StringTag.TYPE ? EntryResult.ENTER : EntryResult.SKIP;
+            }
+            default -> {
+                if (type == CompoundTag.TYPE && this.currentContainer() == this.sectionsList) {
+                    this.sections.add(new DecodedSection());
+                }
+                this.enterIfContainer(type);
+                return EntryResult.ENTER;
+            }
+        }
+    }
+
+    @Override
+    public ValueResult visitContainerEnd() {
+        if (this.mode != MODE_TAGS) {
+            switch (this.paletteDepth) {
+                case 0 -> this.mode = MODE_TAGS; // end of block_states/biomes
+                case 2 -> this.currentSection().blockStates.add(this.resolveEntry());
+                default -> {}
+            }
+            if (this.mode != MODE_TAGS) {
+                --this.paletteDepth;
+            }
+            return ValueResult.CONTINUE;
+        }
+
+        this.containers.remove(this.containers.size() - 1);
+        return ValueResult.CONTINUE;
+    }
+
+    @Override
+    public ValueResult visitRootEntry(final TagType<?> rootType) {
+        this.enterIfContainer(rootType);
+        return ValueResult.CONTINUE;
+    }
+
+    /**
+     * Palettes and storage of a section read by {@link StreamingChunkReader}. A {@code null} palette means the
+     * section tag had no block_states or biomes.
+     */
+    public static final class DecodedSection {
+
+        public List<BlockState> blockStates;
+        public long[] blockStateData;
+        public List<String> biomes;
+        public long[] biomeData;
+
+        DecodedSection copy() {
+            final DecodedSection ret = new DecodedSection();
+            ret.blockStates = this.blockStates == null ? null : new ArrayList<>(this.blockStates);
+            ret.blockStateData = this.blockStateData == null ? null : this.blockStateData.clone();
+            ret.biomes = this.biomes == null ? null : new ArrayList<>(this.biomes);
+            ret.biomeData = this.biomeData == null ? null : this.biomeData.clone();
+            return ret;
+        }
+
+        void writeTo(final CompoundTag section) {
+            if (this.blockStates != null) {
+                final CompoundTag blockStates = new CompoundTag();
+                final ListTag palette = new ListTag();
+                for (final BlockState state : this.blockStates) {
+                    palette.add(NbtUtils.writeBlockState(state));
+                }
+                blockStates.put("palette", palette);
+                if (this.blockStateData != null) {
+                    blockStates.putLongArray("data", this.blockStateData);
+                }
+                section.put("block_states", blockStates);
+            }
+            if (this.biomes != null) {
+                section.put("biomes", this.writeBiomes());
+            }
+        }
+
+        /**
+         * Returns the biomes of this section as the tag the biome codec reads.
+         */
+        public CompoundTag writeBiomes() {
+            final CompoundTag biomes = new CompoundTag();
+            final ListTag palette = new ListTag();
+            for (final String biome : this.biomes) {
+                palette.add(StringTag.valueOf(biome));
+            }
+            biomes.put("palette", palette);
+            if (this.biomeData != null) {
+                biomes.putLongArray("data", this.biomeData.clone());
+            }
+            return biomes;
+        }
+    }
+
+    /**
+     * Chunk tag whose section tags are missing their block_states and biomes, which are held decoded instead.
+     * Copies keep copies of the decoded sections, anything writing or visiting the tag sees the full data.
+     */
+    public static final class StreamedChunkTag extends CompoundTag {
+
+        private final DecodedSection[] sections;
+
+        StreamedChunkTag(final Map<String, Tag> tags, final DecodedSection[] sections) {
+            super(tags);
+            this.sections = sections;
+        }
+
+        /**
+         * Returns the decoded sections, in the same order as the entries of the sections list. The storage arrays
+         * are handed to the containers of the chunk being read, so this tag must not be used once the chunk was
+         * read from it.
+         */
+        public DecodedSection[] getDecodedSections() {
+            return this.sections;
+        }
+
+        public CompoundTag materialize() {
+            final CompoundTag ret = super.copy();
+            StreamingChunkReader.materialize(ret, this.sections);
+            return ret;
+        }
+
+        @Override
+        public CompoundTag copy() {
+            final DecodedSection[] sections = new DecodedSection[this.sections.length];
+            for (int i = 0; i < sections.length; ++i) {
+                sections[i] = this.sections[i].copy();
+            }
+            return new StreamedChunkTag(super.copy().tags, sections);
+        }
+
+        @Override
+        public void write(final DataOutput output) throws IOException {
+            this.materialize().write(output);
+        }
+
+        @Override
+        public void accept(final TagVisitor visitor) {
+            this.materialize().accept(visitor);
+        }
+
+        @Override
+        public ValueResult accept(final StreamTagVisitor visitor) {
+            return this.materialize().accept(visitor);
+        }
+    }
+}
@@ -0,0 +1,459 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.concurrentutil.executor.standard.PrioritisedExecutor;
+import com.destroystokyo.paper.io.PaperFileIOThread;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.util.IntervalledCounter;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongRBTreeSet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.ChunkSystem;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkStatus;
+import org.slf4j.Logger;
+
+/**
+ * Generates every chunk within a square radius around a center chunk of a world, spiralling outwards from the
+ * center, without any players. Chunks are requested through the chunk system with a short lived load ticket and are
+ * saved by the regular chunk save pipeline once they unload again. At most a configured number of chunks are
+ * requested at a time.
+ * <p>
+ * Progress is checkpointed to {@value #CHECKPOINT_FILE} in the dimension folder of the world. Pregenerations
+ * interrupted by a shutdown are resumed when the server starts, pregenerations stopped by hand are paused until they
+ * are started again for the same area.
+ * </p>
+ * <p>
+ * Only accessed from the main thread.
+ * </p>
+ */
+public final class WorldPregenerator {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    public static final String CHECKPOINT_FILE = "paper-pregeneration.properties";
+    private static final long CHECKPOINT_INTERVAL = TimeUnit.SECONDS.toNanos(30L);
+    private static final long LOG_INTERVAL = TimeUnit.SECONDS.toNanos(10L);
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final Map<ServerLevel, WorldPregenerator> RUNNING = new LinkedHashMap<>();
+    private static boolean tickableAdded;
+    private static boolean stopServerWhenDone;
+    private static long memoryHighWater;
+
+    private final ServerLevel world;
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    private final long total;
+    private final int maxInFlight;
+    private final Spiral spiral;
+
+    // index in the spiral of the next chunk to request
+    private long nextIndex;
+    // spiral indices of the requested chunks which did not complete yet
+    private final LongRBTreeSet inFlight = new LongRBTreeSet();
+    // requested chunks whose load failed, requested again on the next tick while staying in flight
+    private final ArrayDeque<Retry> retries = new ArrayDeque<>();
+    private final Long2IntOpenHashMap failedAttempts = new Long2IntOpenHashMap();
+    // chunks loaded or generated
+    private long processed;
+    // chunks skipped after failing to load MAX_ATTEMPTS times
+    private long failed;
+    private final IntervalledCounter rate = new IntervalledCounter(TimeUnit.SECONDS.toNanos(10L));
+    private long lastCheckpoint = System.nanoTime();
+    private long lastLog = System.nanoTime();
+
+    private WorldPregenerator(final ServerLevel world, final int centerX, final int centerZ, final int radius, final long startIndex) {
+        this.world = world;
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.radius = radius;
+        this.total = (2L * radius + 1L) * (2L * radius + 1L);
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        this.maxInFlight = Math.max(1, config == null ? 256 : config.chunkGeneration.pregenerationMaxChunks);
+        this.spiral = new Spiral(centerX, centerZ, startIndex);
+        this.nextIndex = startIndex;
+    }
+
+    /**
+     * Starts pregenerating the given world, resuming from its checkpoint if it was pregenerating the same area.
+     *
+     * @return {@code null} if the world is already pregenerating
+     */
+    public static WorldPregenerator start(final ServerLevel world, final int centerX, final int centerZ, final int radius) {
+        if (RUNNING.containsKey(world)) {
+            return null;
+        }
+        long startIndex = 0L;
+        final Properties checkpoint = readCheckpoint(world);
+        if (checkpoint != null) {
+            if (Integer.parseInt(checkpoint.getProperty("center-x")) == centerX && Integer.parseInt(checkpoint.getProperty("center-z")) == centerZ
+                && Integer.parseInt(checkpoint.getProperty("radius")) == radius) {
+                startIndex = Long.parseLong(checkpoint.getProperty("index"));
+            } else {
+                LOGGER.warn("Replacing the unfinished pregeneration of " + checkpoint.getProperty("radius") + " chunks around chunk ("
+                    + checkpoint.getProperty("center-x") + ", " + checkpoint.getProperty("center-z") + ") in world " + world.getWorld().getName());
+            }
+        }
+        return start(world, centerX, centerZ, radius, startIndex);
+    }
+
+    private static WorldPregenerator start(final ServerLevel world, final int centerX, final int centerZ, final int radius, final long startIndex) {
+        final WorldPregenerator ret = new WorldPregenerator(world, centerX, centerZ, radius, startIndex);
+        RUNNING.put(world, ret);
+        if (!tickableAdded) {
+            tickableAdded = true;
+            MinecraftServer.getServer().addTickable(WorldPregenerator::tickAll);
+        }
+        LOGGER.info("Pregenerating " + radius + " chunks around chunk (" + centerX + ", " + centerZ + ") in world " + world.getWorld().getName()
+            + (startIndex > 0L ? ", resuming at " + String.format(Locale.ROOT, "%.1f%%", 100.0 * startIndex / ret.total) : ""));
+        ret.writeCheckpoint(false);
+        return ret;
+    }
+
+    /**
+     * Stops pregenerating the given world, keeping its checkpoint paused. It is not resumed on startup, only when
+     * started again for the same area.
+     *
+     * @return {@code false} if the world was not pregenerating
+     */
+    public static boolean stop(final ServerLevel world) {
+        return stop(world, true);
+    }
+
+    private static boolean stop(final ServerLevel world, final boolean pause) {
+        final WorldPregenerator pregenerator = RUNNING.remove(world);
+        if (pregenerator == null) {
+            return false;
+        }
+        pregenerator.writeCheckpoint(pause);
+        return true;
+    }
+
+    /**
+     * Stops all pregenerations for the server to stop, keeping their checkpoints to resume on the next start.
+     */
+    public static void stopAll() {
+        for (final WorldPregenerator pregenerator : new ArrayList<>(RUNNING.values())) {
+            stop(pregenerator.world, false);
+        }
+    }
+
+    /**
+     * Starts the pregenerations requested by the startup options, and resumes the interrupted pregenerations of the
+     * other worlds.
+     */
+    public static void startFromOptions(final MinecraftServer server) {
+        if (server.options != null && server.options.has("pregenerate")) {
+            final int radius = (Integer)server.options.valueOf("pregenerate");
+            for (final ServerLevel world : server.getAllLevels()) {
+                final BlockPos spawn = world.getSharedSpawnPos();
+                start(world, spawn.getX() >> 4, spawn.getZ() >> 4, radius);
+            }
+        }
+
+        for (final ServerLevel world : server.getAllLevels()) {
+            final Properties checkpoint = readCheckpoint(world);
+            if (checkpoint == null || RUNNING.containsKey(world)) {
+                continue;
+            }
+            if (Boolean.parseBoolean(checkpoint.getProperty("paused"))) {
+                LOGGER.info("Not resuming the paused pregeneration of world " + world.getWorld().getName() + ", use /paper pregen start to resume it");
+                continue;
+            }
+            start(world, Integer.parseInt(checkpoint.getProperty("center-x")), Integer.parseInt(checkpoint.getProperty("center-z")),
+                Integer.parseInt(checkpoint.getProperty("radius")), Long.parseLong(checkpoint.getProperty("index")));
+        }
+
+        if (server.options != null && server.options.has("pregenerate-exit")) {
+            stopServerWhenDone = true;
+            if (RUNNING.isEmpty()) {
+                LOGGER.info("Nothing to pregenerate, stopping the server");
+                server.halt(false);
+            }
+        }
+    }
+
+    public static Collection<WorldPregenerator> getRunning() {
+        return RUNNING.values();
+    }
+
+    public static WorldPregenerator getRunning(final ServerLevel world) {
+        return RUNNING.get(world);
+    }
+
+    /**
+     * Returns the largest heap usage in bytes seen while pregenerating.
+     */
+    public static long getMemoryHighWater() {
+        return memoryHighWater;
+    }
+
+    /**
+     * Returns the number of chunk IO tasks queued or running on the region file IO threads.
+     */
+    public static int getIOQueueDepth() {
+        final PaperFileIOThread ioThread = PaperFileIOThread.Holder.INSTANCE;
+        int ret = 0;
+        for (int i = 0; i < ioThread.getShardCount(); ++i) {
+            ret += ioThread.getShardStatistics(i).getQueued();
+        }
+        return ret;
+    }
+
+    private static void tickAll() {
+        if (RUNNING.isEmpty()) {
+            return;
+        }
+        final Runtime runtime = Runtime.getRuntime();
+        memoryHighWater = Math.max(memoryHighWater, runtime.totalMemory() - runtime.freeMemory());
+
+        for (final WorldPregenerator pregenerator : new ArrayList<>(RUNNING.values())) {
+            pregenerator.tick();
+        }
+
+        if (stopServerWhenDone && RUNNING.isEmpty()) {
+            LOGGER.info("Pregeneration finished, stopping the server");
+            MinecraftServer.getServer().halt(false);
+        }
+    }
+
+    private void tick() {
+        if (MinecraftServer.getServer().getLevel(this.world.dimension()) != this.world) {
+            // world was unloaded
+            stop(this.world, false);
+            return;
+        }
+
+        for (Retry retry; (retry = this.retries.poll()) != null;) {
+            this.request(retry.index, retry.pos);
+        }
+
+        while (this.inFlight.size() < this.maxInFlight && this.nextIndex < this.total) {
+            final long index = this.nextIndex++;
+            final long pos = this.spiral.next();
+            final int chunkX = ChunkPos.getX(pos);
+            final int chunkZ = ChunkPos.getZ(pos);
+            if (!this.world.getWorldBorder().isWithinBounds(new ChunkPos(chunkX, chunkZ))) {
+                continue;
+            }
+            this.inFlight.add(index);
+            this.request(index, pos);
+        }
+
+        final long time = System.nanoTime();
+        if (this.nextIndex >= this.total && this.inFlight.isEmpty()) {
+            RUNNING.remove(this.world);
+            try {
+                Files.deleteIfExists(getCheckpointPath(this.world));
+            } catch (final IOException ex) {
+                LOGGER.warn("Failed to delete pregeneration checkpoint of world " + this.world.getWorld().getName(), ex);
+            }
+            LOGGER.info("Finished pregenerating world " + this.world.getWorld().getName() + ", processed " + this.processed + " chunks"
+                + (this.failed > 0L ? ", " + this.failed + " chunks failed to load and were skipped" : ""));
+            return;
+        }
+        if (time - this.lastCheckpoint >= CHECKPOINT_INTERVAL) {
+            this.lastCheckpoint = time;
+            this.writeCheckpoint(false);
+        }
+        if (time - this.lastLog >= LOG_INTERVAL) {
+            this.lastLog = time;
+            LOGGER.info(this.getStatus());
+        }
+    }
+
+    private void request(final long index, final long pos) {
+        final int chunkX = ChunkPos.getX(pos);
+        final int chunkZ = ChunkPos.getZ(pos);
+        ChunkSystem.scheduleChunkLoad(this.world, chunkX, chunkZ, true, ChunkStatus.FULL, true, PrioritisedExecutor.Priority.NORMAL, (chunk) -> {
+            if (chunk != null) {
+                this.inFlight.remove(index);
+                this.failedAttempts.remove(index);
+                ++this.processed;
+                this.rate.updateAndAdd(1);
+                return;
+            }
+            final int attempts = this.failedAttempts.addTo(index, 1) + 1;
+            if (attempts < MAX_ATTEMPTS) {
+                this.retries.add(new Retry(index, pos));
+                return;
+            }
+            this.inFlight.remove(index);
+            this.failedAttempts.remove(index);
+            ++this.failed;
+            LOGGER.warn("Failed to load chunk (" + chunkX + ", " + chunkZ + ") in world " + this.world.getWorld().getName() + " "
+                + MAX_ATTEMPTS + " times, skipping it");
+        });
+    }
+
+    public String getStatus() {
+        this.rate.updateCurrentTime();
+        return String.format(Locale.ROOT, "Pregenerating %s: %.2f%% (%d/%d chunks), %.1f chunks/s, %d in flight, %d failed, IO queue %d, memory high-water %d MiB",
+            this.world.getWorld().getName(), 100.0 * this.getCompleted() / this.total, this.getCompleted(), this.total, this.rate.getRate(),
+            this.inFlight.size(), this.failed, getIOQueueDepth(), memoryHighWater >> 20);
+    }
+
+    /**
+     * Returns the number of chunks of the spiral before the first chunk that did not complete yet.
+     */
+    public long getCompleted() {
+        return this.inFlight.isEmpty() ? this.nextIndex : this.inFlight.firstLong();
+    }
+
+    public long getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Returns the number of chunks that were loaded or generated.
+     */
+    public long getProcessed() {
+        return this.processed;
+    }
+
+    public long getFailed() {
+        return this.failed;
+    }
+
+    public double getRate() {
+        this.rate.updateCurrentTime();
+        return this.rate.getRate();
+    }
+
+    public int getInFlight() {
+        return this.inFlight.size();
+    }
+
+    public ServerLevel getWorld() {
+        return this.world;
+    }
+
+    private static Path getCheckpointPath(final ServerLevel world) {
+        return world.convertable.getDimensionPath(world.dimension()).resolve(CHECKPOINT_FILE);
+    }
+
+    private static Properties readCheckpoint(final ServerLevel world) {
+        final Path path = getCheckpointPath(world);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        final Properties ret = new Properties();
+        try (final InputStream in = Files.newInputStream(path)) {
+            ret.load(in);
+            // validate
+            Integer.parseInt(ret.getProperty("center-x"));
+            Integer.parseInt(ret.getProperty("center-z"));
+            Integer.parseInt(ret.getProperty("radius"));
+            Long.parseLong(ret.getProperty("index"));
+            return ret;
+        } catch (final IOException | NumberFormatException ex) {
+            LOGGER.warn("Ignoring invalid pregeneration checkpoint " + path, ex);
+            return null;
+        }
+    }
+
+    private void writeCheckpoint(final boolean paused) {
+        final Properties checkpoint = new Properties();
+        checkpoint.setProperty("center-x", Integer.toString(this.centerX));
+        checkpoint.setProperty("center-z", Integer.toString(this.centerZ));
+        checkpoint.setProperty("radius", Integer.toString(this.radius));
+        // chunks after the first incomplete chunk are requested again on resume, which loads them if they were saved
+        checkpoint.setProperty("index", Long.toString(this.getCompleted()));
+        checkpoint.setProperty("paused", Boolean.toString(paused));
+
+        final Path path = getCheckpointPath(this.world);
+        final Path tmp = path.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try {
+            try (final OutputStream out = Files.newOutputStream(tmp)) {
+                checkpoint.store(out, "Paper world pregeneration progress");
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to write pregeneration checkpoint of world " + this.world.getWorld().getName(), ex);
+        }
+    }
+
+    private record Retry(long index, long pos) {}
+
+    /**
+     * Square spiral around a center chunk: the center, then the rings of increasing radius.
+     */
+    static final class Spiral {
+
+        private final int centerX;
+        private final int centerZ;
+        private int ring;
+        // position on the current ring, [0, 8 * ring)
+        private int offset;
+
+        Spiral(final int centerX, final int centerZ) {
+            this.centerX = centerX;
+            this.centerZ = centerZ;
+        }
+
+        /**
+         * Creates a spiral whose next chunk is the chunk at the given index.
+         */
+        Spiral(final int centerX, final int centerZ, final long index) {
+            this(centerX, centerZ);
+            if (index <= 0L) {
+                return;
+            }
+            // ring r > 0 covers the indices [(2r - 1)^2, (2r + 1)^2), so r = ceil((sqrt(index + 1) - 1) / 2)
+            long ring = (long) Math.ceil((Math.sqrt((double) (index + 1L)) - 1.0) / 2.0);
+            // correct rounding errors of the square root
+            while (ring > 1L && (2L * ring - 1L) * (2L * ring - 1L) > index) {
+                --ring;
+            }
+            while ((2L * ring + 1L) * (2L * ring + 1L) <= index) {
+                ++ring;
+            }
+            this.ring = (int) ring;
+            this.offset = (int) (index - (2L * ring - 1L) * (2L * ring - 1L));
+        }
+
+        /**
+         * Returns the key of the next chunk.
+         */
+        long next() {
+            final int ring = this.ring;
+            if (ring == 0) {
+                this.ring = 1;
+                return ChunkPos.asLong(this.centerX, this.centerZ);
+            }
+            final int side = 2 * ring;
+            final int along = this.offset % side;
+            final int x;
+            final int z;
+            switch (this.offset / side) {
+                case 0 -> { x = -ring + along; z = -ring; } // north edge, going east
+                case 1 -> { x = ring; z = -ring + along; } // east edge, going south
+                case 2 -> { x = ring - along; z = ring; } // south edge, going west
+                default -> { x = -ring; z = ring - along; } // west edge, going north
+            }
+            if (++this.offset >= 8 * ring) {
+                ++this.ring;
+                this.offset = 0;
+            }
+            return ChunkPos.asLong(this.centerX + x, this.centerZ + z);
+        }
+    }
+}
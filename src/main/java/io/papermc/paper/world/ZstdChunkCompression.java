@@ -0,0 +1,82 @@
+package io.papermc.paper.world;
+
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Holds the global state for the zstd region file compression formats: the compression
+ * level and the optional trained dictionary, which are shared by every world using zstd.
+ * <p>
+ * Chunks written with a dictionary are tagged with their own compression id, so a missing
+ * dictionary is reported as a read error instead of silently producing garbage data.
+ * Swapping the dictionary file makes previously written dictionary chunks unreadable.
+ * </p>
+ */
+public final class ZstdChunkCompression {
+
+    private static final Logger LOGGER = LogUtils.getLogger();
+
+    private static volatile int level = 3;
+    private static volatile byte[] dictionary;
+
+    private ZstdChunkCompression() {
+        throw new RuntimeException();
+    }
+
+    public static void processConfiguration(final GlobalConfiguration.ChunkCompression config) {
+        level = config.zstdLevel;
+        final String dictionaryPath = config.zstdDictionary;
+        if (dictionaryPath == null || dictionaryPath.isBlank()) {
+            dictionary = null;
+            return;
+        }
+
+        final Path path = Path.of(dictionaryPath);
+        try {
+            dictionary = Files.readAllBytes(path);
+            LOGGER.info("Loaded zstd chunk compression dictionary {} ({} bytes)", path, dictionary.length);
+        } catch (final IOException ex) {
+            dictionary = null;
+            LOGGER.error("Failed to read zstd chunk compression dictionary " + path + ", worlds using zstd will compress without a dictionary", ex);
+        }
+    }
+
+    public static boolean hasDictionary() {
+        return dictionary != null;
+    }
+
+    public static InputStream wrap(final InputStream in, final boolean useDictionary) throws IOException {
+        final ZstdInputStreamNoFinalizer ret = new ZstdInputStreamNoFinalizer(in);
+        if (useDictionary) {
+            final byte[] dictionary = ZstdChunkCompression.dictionary;
+            if (dictionary == null) {
+                ret.close();
+                throw new IOException("Chunk was compressed with a zstd dictionary, but no dictionary is configured");
+            }
+            ret.setDict(dictionary);
+        }
+        return ret;
+    }
+
+    public static OutputStream wrap(final OutputStream out, final boolean useDictionary) throws IOException {
+        final ZstdOutputStreamNoFinalizer ret = new ZstdOutputStreamNoFinalizer(out, level);
+        if (useDictionary) {
+            final byte[] dictionary = ZstdChunkCompression.dictionary;
+            if (dictionary == null) {
+                ret.close();
+                throw new IOException("No zstd dictionary is configured");
+            }
+            ret.setDict(dictionary);
+        }
+        return ret;
+    }
+}
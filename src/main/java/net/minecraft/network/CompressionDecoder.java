@@ -47,13 +47,28 @@ public class CompressionDecoder extends ByteToMessageDecoder {
 
                 // Paper start
                 if (this.inflater != null) {
-                byte[] bs = new byte[friendlyByteBuf.readableBytes()];
-                friendlyByteBuf.readBytes(bs);
-                this.inflater.setInput(bs);
-                byte[] cs = new byte[i];
-                this.inflater.inflate(cs);
-                list.add(Unpooled.wrappedBuffer(cs));
-                this.inflater.reset();
+                    // Paper start - inflate without intermediate arrays
+                    ByteBuf uncompressed = channelHandlerContext.alloc().buffer(i);
+                    try {
+                        this.inflater.setInput(byteBuf.nioBuffer());
+                        int written = 0;
+                        while (written < i && !this.inflater.finished()) {
+                            int j = this.inflater.inflate(uncompressed.internalNioBuffer(written, i - written));
+                            if (j == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                                throw new DecoderException("Badly compressed packet - truncated after " + written + " of " + i + " bytes");
+                            }
+                            written += j;
+                        }
+                        uncompressed.writerIndex(written);
+                        list.add(uncompressed);
+                        byteBuf.skipBytes(byteBuf.readableBytes());
+                    } catch (Exception e) {
+                        uncompressed.release();
+                        throw e;
+                    } finally {
+                        this.inflater.reset();
+                    }
+                    // Paper end - inflate without intermediate arrays
                     return;
                 }
 
@@ -10,6 +10,11 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
     private final Deflater deflater;
     private final com.velocitypowered.natives.compression.VelocityCompressor compressor; // Paper
     private int threshold;
+    // Paper start - skip incompressible packets
+    private static final int INCOMPRESSIBLE_SKIP_PACKETS = 32;
+    private static final double INCOMPRESSIBLE_RATIO = 0.95;
+    private final byte[] incompressibleSkips; // remaining packets to send uncompressed, by packet id
+    // Paper end - skip incompressible packets
 
     // Paper start
     public CompressionEncoder(int compressionThreshold) {
@@ -25,45 +30,82 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
             this.deflater = null;
         }
         this.compressor = compressor;
+        io.papermc.paper.configuration.GlobalConfiguration config = io.papermc.paper.configuration.GlobalConfiguration.get();
+        this.incompressibleSkips = config != null && config.misc.skipIncompressiblePackets ? new byte[128] : null; // Paper - skip incompressible packets
         // Paper end
     }
 
     protected void encode(ChannelHandlerContext channelHandlerContext, ByteBuf byteBuf, ByteBuf byteBuf2) throws Exception { // Paper
         int i = byteBuf.readableBytes();
         FriendlyByteBuf friendlyByteBuf = new FriendlyByteBuf(byteBuf2);
-        if (i < this.threshold) {
+        int packetId = this.incompressibleSkips == null ? -1 : getPacketId(byteBuf); // Paper - skip incompressible packets
+        if (i < this.threshold || this.skipCompression(packetId)) { // Paper - skip incompressible packets
             friendlyByteBuf.writeVarInt(0);
             friendlyByteBuf.writeBytes(byteBuf);
         } else {
             // Paper start
-            if (this.deflater != null) {
-            byte[] bs = new byte[i];
-            byteBuf.readBytes(bs);
-            friendlyByteBuf.writeVarInt(bs.length);
-            this.deflater.setInput(bs, 0, i);
-            this.deflater.finish();
-
-            while(!this.deflater.finished()) {
-                int j = this.deflater.deflate(this.encodeBuf);
-                friendlyByteBuf.writeBytes(this.encodeBuf, 0, j);
-            }
-
-            this.deflater.reset();
-                return;
-            }
-
             friendlyByteBuf.writeVarInt(i);
+            int start = byteBuf2.writerIndex(); // Paper - skip incompressible packets
+            if (this.deflater != null) {
+                this.deflate(byteBuf, byteBuf2); // Paper - deflate without intermediate arrays
+            } else {
             ByteBuf compatibleIn = com.velocitypowered.natives.util.MoreByteBufUtils.ensureCompatible(channelHandlerContext.alloc(), this.compressor, byteBuf);
             try {
                 this.compressor.deflate(compatibleIn, byteBuf2);
             } finally {
                 compatibleIn.release();
             }
+            }
+            this.recordCompression(packetId, i, byteBuf2.writerIndex() - start); // Paper - skip incompressible packets
             // Paper end
         }
 
     }
 
+    // Paper start - deflate without intermediate arrays
+    private void deflate(ByteBuf in, ByteBuf out) {
+        this.deflater.setInput(in.nioBuffer());
+        this.deflater.finish();
+
+        while (!this.deflater.finished()) {
+            out.ensureWritable(8192);
+            if (out.nioBufferCount() == 1) {
+                int j = this.deflater.deflate(out.internalNioBuffer(out.writerIndex(), out.writableBytes()));
+                out.writerIndex(out.writerIndex() + j);
+            } else {
+                int j = this.deflater.deflate(this.encodeBuf);
+                out.writeBytes(this.encodeBuf, 0, j);
+            }
+        }
+
+        this.deflater.reset();
+        in.skipBytes(in.readableBytes());
+    }
+    // Paper end - deflate without intermediate arrays
+
+    // Paper start - skip incompressible packets
+    private static int getPacketId(ByteBuf buf) {
+        // every packet id fits into a single byte var int
+        int id = buf.getByte(buf.readerIndex());
+        return id >= 0 ? id : -1;
+    }
+
+    private boolean skipCompression(int packetId) {
+        if (packetId < 0 || this.incompressibleSkips[packetId] <= 0) {
+            return false;
+        }
+        --this.incompressibleSkips[packetId];
+        return true;
+    }
+
+    private void recordCompression(int packetId, int uncompressedSize, int compressedSize) {
+        if (packetId >= 0 && compressedSize >= uncompressedSize * INCOMPRESSIBLE_RATIO) {
+            // try again after a few packets, the contents of most packets vary
+            this.incompressibleSkips[packetId] = INCOMPRESSIBLE_SKIP_PACKETS;
+        }
+    }
+    // Paper end - skip incompressible packets
+
     // Paper start
     @Override
     protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, ByteBuf msg, boolean preferDirect) throws Exception{
@@ -80,7 +122,35 @@ public class CompressionEncoder extends MessageToByteEncoder<ByteBuf> {
             return com.velocitypowered.natives.util.MoreByteBufUtils.preferredBuffer(ctx.alloc(), this.compressor, initialBufferSize);
         }
 
-        return super.allocateBuffer(ctx, msg, preferDirect);
+        // Paper start - deflate without intermediate arrays
+        // same reasoning as above, plus room for the length prefix
+        int initialBufferSize = msg.readableBytes() + 5;
+        return preferDirect ? ctx.alloc().ioBuffer(initialBufferSize) : ctx.alloc().heapBuffer(initialBufferSize);
+        // Paper end - deflate without intermediate arrays
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, io.netty.channel.ChannelPromise promise) throws Exception {
+        if (msg instanceof io.papermc.paper.network.SharedPacketEncoding.Pending pending) {
+            ByteBuf compressed = pending.encoding().getCompressed(this.threshold, encoded -> {
+                ByteBuf out = this.allocateBuffer(ctx, encoded, true);
+                try {
+                    this.encode(ctx, encoded, out);
+                } catch (Throwable thr) {
+                    out.release();
+                    throw thr;
+                }
+                return out;
+            });
+            if (compressed == null) {
+                super.write(ctx, pending.encoded(), promise);
+                return;
+            }
+            pending.encoded().release();
+            ctx.write(compressed, promise);
+            return;
+        }
+        super.write(ctx, msg, promise);
     }
 
     @Override
@@ -290,6 +290,12 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
                 }
             }
             // Paper end - packet limiter
+            // Paper start - pre-validate packets off the tick thread
+            if (io.papermc.paper.network.ServerboundPacketClassification.isPreValidated(packet)
+                && !io.papermc.paper.network.ServerboundPacketClassification.preValidate(packet, this.packetListener)) {
+                return;
+            }
+            // Paper end - pre-validate packets off the tick thread
             try {
                 Connection.genericsFtw(packet, this.packetListener);
             } catch (RunningOnDifferentThreadException cancelledpackethandleexception) {
@@ -372,21 +378,22 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
             return; // Do nothing
         }
         packet.onPacketDispatch(getPlayer());
+        io.papermc.paper.network.SharedPacketEncoding sharedEncoding = io.papermc.paper.network.SharedPacketEncoding.getBroadcastEncoding(packet); // Paper - shared broadcast encoding
         if (connected && (InnerUtil.canSendImmediate(this, packet) || (
             net.minecraft.server.MCUtil.isMainThread() && packet.isReady() && this.queue.isEmpty() &&
             (packet.getExtraPackets() == null || packet.getExtraPackets().isEmpty())
         ))) {
-            this.sendPacket(packet, callbacks, null); // Paper
+            this.sendPacket(packet, callbacks, null, sharedEncoding); // Paper // Paper - shared broadcast encoding
             return;
         }
         // write the packets to the queue, then flush - antixray hooks there already
         java.util.List<Packet> extraPackets = InnerUtil.buildExtraPackets(packet);
         boolean hasExtraPackets = extraPackets != null && !extraPackets.isEmpty();
         if (!hasExtraPackets) {
-            this.queue.add(new Connection.PacketHolder(packet, callbacks));
+            this.queue.add(new Connection.PacketHolder(packet, callbacks, sharedEncoding)); // Paper - shared broadcast encoding
         } else {
             java.util.List<Connection.PacketHolder> packets = new java.util.ArrayList<>(1 + extraPackets.size());
-            packets.add(new Connection.PacketHolder(packet, null)); // delay the future listener until the end of the extra packets
+            packets.add(new Connection.PacketHolder(packet, null, sharedEncoding)); // delay the future listener until the end of the extra packets // Paper - shared broadcast encoding
 
             for (int i = 0, len = extraPackets.size(); i < len;) {
                 Packet extra = extraPackets.get(i);
@@ -404,6 +411,11 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         this.sendPacket(packet, callbacks, Boolean.TRUE);
     }
     private void sendPacket(Packet<?> packet, @Nullable PacketSendListener callbacks, Boolean flushConditional) {
+        // Paper start - shared broadcast encoding
+        this.sendPacket(packet, callbacks, flushConditional, null);
+    }
+    private void sendPacket(Packet<?> packet, @Nullable PacketSendListener callbacks, Boolean flushConditional, @Nullable io.papermc.paper.network.SharedPacketEncoding sharedEncoding) {
+        // Paper end - shared broadcast encoding
         this.packetWrites.getAndIncrement(); // must be befeore using canFlush
         boolean effectiveFlush = flushConditional == null ? this.canFlush : flushConditional.booleanValue();
         final boolean flush = effectiveFlush || packet instanceof net.minecraft.network.protocol.game.ClientboundKeepAlivePacket || packet instanceof ClientboundDisconnectPacket; // no delay for certain packets
@@ -418,19 +430,19 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         }
 
         if (this.channel.eventLoop().inEventLoop()) {
-            this.doSendPacket(packet, callbacks, enumprotocol, enumprotocol1, flush); // Paper
+            this.doSendPacket(packet, callbacks, enumprotocol, enumprotocol1, flush, sharedEncoding); // Paper // Paper - shared broadcast encoding
         } else {
             // Paper start - optimise packets that are not flushed
             // note: since the type is not dynamic here, we need to actually copy the old executor code
             // into two branches. On conflict, just re-copy - no changes were made inside the executor code.
             if (!flush) {
                 AbstractEventExecutor.LazyRunnable run = () -> {
-                    this.doSendPacket(packet, callbacks, enumprotocol, enumprotocol1, flush); // Paper - add flush parameter
+                    this.doSendPacket(packet, callbacks, enumprotocol, enumprotocol1, flush, sharedEncoding); // Paper - add flush parameter // Paper - shared broadcast encoding
                 };
                 this.channel.eventLoop().execute(run);
             } else { // Paper end - optimise packets that are not flushed
             this.channel.eventLoop().execute(() -> {
-                this.doSendPacket(packet, callbacks, enumprotocol, enumprotocol1, flush); // Paper - add flush parameter // Paper - diff on change
+                this.doSendPacket(packet, callbacks, enumprotocol, enumprotocol1, flush, sharedEncoding); // Paper - add flush parameter // Paper - diff on change // Paper - shared broadcast encoding
             });
             } // Paper
         }
@@ -443,6 +455,11 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
     }
     private void doSendPacket(Packet<?> packet, @Nullable PacketSendListener callbacks, ConnectionProtocol packetState, ConnectionProtocol currentState, boolean flush) {
         // Paper end - add flush parameter
+        // Paper start - shared broadcast encoding
+        this.doSendPacket(packet, callbacks, packetState, currentState, flush, null);
+    }
+    private void doSendPacket(Packet<?> packet, @Nullable PacketSendListener callbacks, ConnectionProtocol packetState, ConnectionProtocol currentState, boolean flush, @Nullable io.papermc.paper.network.SharedPacketEncoding sharedEncoding) {
+        // Paper end - shared broadcast encoding
         if (packetState != currentState) {
             this.setProtocol(packetState);
         }
@@ -456,7 +473,15 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
 
         try {
             // Paper end
-        ChannelFuture channelfuture = flush ? this.channel.writeAndFlush(packet) : this.channel.write(packet); // Paper - add flush parameter
+        // Paper start - shared broadcast encoding
+        ChannelFuture channelfuture;
+        if (sharedEncoding != null) {
+            io.netty.channel.ChannelPromise promise = new io.papermc.paper.network.SharedPacketEncoding.Promise(this.channel, sharedEncoding, packet);
+            channelfuture = flush ? this.channel.writeAndFlush(packet, promise) : this.channel.write(packet, promise);
+        } else {
+        channelfuture = flush ? this.channel.writeAndFlush(packet) : this.channel.write(packet); // Paper - add flush parameter
+        }
+        // Paper end - shared broadcast encoding
 
         if (callbacks != null) {
             channelfuture.addListener((future) -> {
@@ -537,7 +562,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
                 return false;
             } else {
                 iterator.remove();
-                this.sendPacket(packet, queued.listener, (!iterator.hasNext() && (needsFlush || this.canFlush)) ? Boolean.TRUE : Boolean.FALSE); // Paper - make only one flush call per sendPacketQueue() call
+                this.sendPacket(packet, queued.listener, (!iterator.hasNext() && (needsFlush || this.canFlush)) ? Boolean.TRUE : Boolean.FALSE, queued.sharedEncoding); // Paper - make only one flush call per sendPacketQueue() call // Paper - shared broadcast encoding
                 hasWrotePacket = true; // Paper - make only one flush call per sendPacketQueue() call
             }
         }
@@ -744,6 +769,7 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
                 this.channel.pipeline().addBefore("encoder", "compress", new CompressionEncoder(compressor, compressionThreshold)); // Paper
             }
             this.channel.pipeline().fireUserEventTriggered(io.papermc.paper.network.ConnectionEvent.COMPRESSION_THRESHOLD_SET); // Paper
+            this.compressionHandlersChanged(); // Paper - shared packet encoding
         } else {
             if (this.channel.pipeline().get("decompress") instanceof CompressionDecoder) {
                 this.channel.pipeline().remove("decompress");
@@ -753,10 +779,21 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
                 this.channel.pipeline().remove("compress");
             }
             this.channel.pipeline().fireUserEventTriggered(io.papermc.paper.network.ConnectionEvent.COMPRESSION_DISABLED); // Paper
+            this.compressionHandlersChanged(); // Paper - shared packet encoding
         }
 
     }
 
+    // Paper start - shared packet encoding
+    private void compressionHandlersChanged() {
+        if (this.channel.pipeline().get("encoder") instanceof PacketEncoder encoder) {
+            encoder.pipelineChanged();
+            // handlers reacting to the compression event on the event loop may move themselves next to the compressor
+            this.channel.eventLoop().execute(encoder::pipelineChanged);
+        }
+    }
+    // Paper end - shared packet encoding
+
     public void handleDisconnection() {
         if (this.channel != null && !this.channel.isOpen()) {
             if (this.disconnectionHandled) {
@@ -807,8 +844,16 @@ public class Connection extends SimpleChannelInboundHandler<Packet<?>> {
         final Packet<?> packet;
         @Nullable
         final PacketSendListener listener;
+        @Nullable final io.papermc.paper.network.SharedPacketEncoding sharedEncoding; // Paper - shared broadcast encoding
 
         public PacketHolder(Packet<?> packet, @Nullable PacketSendListener callbacks) {
+            // Paper start - shared broadcast encoding
+            this(packet, callbacks, null);
+        }
+
+        public PacketHolder(Packet<?> packet, @Nullable PacketSendListener callbacks, @Nullable io.papermc.paper.network.SharedPacketEncoding sharedEncoding) {
+            this.sharedEncoding = sharedEncoding;
+            // Paper end - shared broadcast encoding
             this.packet = packet;
             this.listener = callbacks;
         }
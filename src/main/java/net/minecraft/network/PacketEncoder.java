@@ -65,6 +65,65 @@ public class PacketEncoder extends MessageToByteEncoder<Packet<?>> {
         }
     }
 
+    // Paper start - shared packet encoding
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, io.netty.channel.ChannelPromise promise) throws Exception {
+        if (msg instanceof Packet<?> packet) {
+            io.papermc.paper.network.SharedPacketEncoding shared = packet.getSharedEncoding();
+            if (shared == null && promise instanceof io.papermc.paper.network.SharedPacketEncoding.Promise sharedPromise) {
+                shared = sharedPromise.getEncoding(msg);
+            }
+            if (shared != null) {
+                ByteBuf encoded = shared.getEncoded(ctx.channel().attr(Connection.ATTRIBUTE_PROTOCOL).get(), ctx.channel().attr(PaperAdventure.LOCALE_ATTRIBUTE).get(), out -> this.encode(ctx, packet, out));
+                if (encoded != null) {
+                    if (this.isCompressorNext(ctx)) {
+                        // let the compressor reuse the shared compressed form as well
+                        ctx.write(new io.papermc.paper.network.SharedPacketEncoding.Pending(shared, encoded), promise);
+                    } else {
+                        ctx.write(encoded, promise);
+                    }
+                    return;
+                }
+            }
+        }
+        super.write(ctx, msg, promise);
+    }
+
+    // bumped by the connection whenever it changes the compression handlers, only then the pipeline is searched again
+    private volatile int pipelineGeneration;
+    private int compressorNextGeneration = -1; // only accessed from the event loop
+    private boolean compressorNext;
+
+    public void pipelineChanged() {
+        ++this.pipelineGeneration; // not atomic, calls never overlap, see Connection#compressionHandlersChanged
+    }
+
+    private boolean isCompressorNext(ChannelHandlerContext ctx) {
+        int generation = this.pipelineGeneration;
+        if (generation != this.compressorNextGeneration) {
+            this.compressorNext = findCompressorNext(ctx);
+            this.compressorNextGeneration = generation;
+        }
+        return this.compressorNext;
+    }
+
+    // Pending is only understood by the compressor, so it must be the next handler writes pass through. Handlers
+    // added between the encoder and the compressor by plugins must receive a plain buffer
+    private static boolean findCompressorNext(ChannelHandlerContext ctx) {
+        io.netty.channel.ChannelHandler nextOutbound = null;
+        // iterates from the head, writes pass the handlers towards the head
+        for (java.util.Map.Entry<String, io.netty.channel.ChannelHandler> entry : ctx.pipeline()) {
+            if (entry.getValue() == ctx.handler()) {
+                return nextOutbound instanceof CompressionEncoder;
+            }
+            if (entry.getValue() instanceof io.netty.channel.ChannelOutboundHandler) {
+                nextOutbound = entry.getValue();
+            }
+        }
+        return false;
+    }
+    // Paper end - shared packet encoding
+
     // Paper start
     private static int MAX_PACKET_SIZE = 2097152;
 
@@ -25,6 +25,10 @@ public interface Packet<T extends PacketListener> {
     default boolean packetTooLarge(net.minecraft.network.Connection manager) {
         return false;
     }
+    /**
+     * @return Encoding shared by every connection this packet instance is sent to, or null to encode per connection
+     */
+    default @javax.annotation.Nullable io.papermc.paper.network.SharedPacketEncoding getSharedEncoding() { return null; }
     // Paper end
 
     default boolean isSkippable() {
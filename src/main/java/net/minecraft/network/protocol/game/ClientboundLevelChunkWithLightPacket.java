@@ -75,6 +75,30 @@ public class ClientboundLevelChunkWithLightPacket implements Packet<ClientGamePa
         return this.lightData;
     }
 
+    // Paper start - shared chunk packets
+    private volatile io.papermc.paper.network.SharedPacketEncoding sharedEncoding;
+
+    @Override
+    public io.papermc.paper.network.SharedPacketEncoding getSharedEncoding() {
+        return this.sharedEncoding;
+    }
+
+    /**
+     * Makes every connection this packet is sent to share one encoded (and compressed) copy of it.
+     * The returned encoding must be released once the packet is no longer sent.
+     */
+    public io.papermc.paper.network.SharedPacketEncoding shareEncoding() {
+        if (this.sharedEncoding == null) {
+            // chunk data plus the light arrays, with room for the heightmaps and block entities
+            int sizeHint = 8 + 5 + this.chunkData.getReadBuffer().readableBytes();
+            sizeHint += (this.lightData.getSkyUpdates().size() + this.lightData.getBlockUpdates().size()) * (2048 + 3);
+            sizeHint += 4096;
+            this.sharedEncoding = new io.papermc.paper.network.SharedPacketEncoding(sizeHint, false);
+        }
+        return this.sharedEncoding;
+    }
+    // Paper end - shared chunk packets
+
     // Paper start - handle over-sized TE packets
     @Override
     public java.util.List<Packet> getExtraPackets() {
@@ -284,6 +284,7 @@ public class ChunkHolder {
 
     public void blockChanged(BlockPos pos) {
         if (!pos.isInsideBuildHeightAndWorldBoundsHorizontal(levelHeightAccessor)) return; // Paper - SPIGOT-6086 for all invalid locations; avoid acquiring locks
+        this.chunkMap.chunkPacketCache.invalidate(this.pos.x, this.pos.z); // Paper - shared chunk packets
         LevelChunk chunk = this.getSendingChunk(); // Paper - no-tick view distance
 
         if (chunk != null) {
@@ -307,6 +308,7 @@ public class ChunkHolder {
 
             if (ichunkaccess != null) {
                 ichunkaccess.setUnsaved(true);
+                this.chunkMap.chunkPacketCache.invalidate(this.pos.x, this.pos.z); // Paper - shared chunk packets
                 LevelChunk chunk = this.getSendingChunk();
                 // Paper end - no-tick view distance
 
@@ -143,6 +143,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     private boolean modified;
     private final ChunkTaskPriorityQueueSorter queueSorter;
     private final ProcessorHandle<ChunkTaskPriorityQueueSorter.Message<Runnable>> worldgenMailbox;
+    public final io.papermc.paper.chunk.WorldgenScheduler worldgenScheduler; // Paper - concurrent worldgen
     public final ProcessorHandle<ChunkTaskPriorityQueueSorter.Message<Runnable>> mainThreadMailbox;
     // Paper start
     final ProcessorHandle<ChunkTaskPriorityQueueSorter.Message<Runnable>> mailboxLight;
@@ -171,6 +172,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     public static final double GENERAL_AREA_MAP_ACCEPTABLE_SEARCH_RANGE_SQUARED = GENERAL_AREA_MAP_ACCEPTABLE_SEARCH_RANGE * GENERAL_AREA_MAP_ACCEPTABLE_SEARCH_RANGE;
     public final com.destroystokyo.paper.util.misc.PlayerAreaMap playerGeneralAreaMap;
     // Paper end - optimise checkDespawn
+    public final com.destroystokyo.paper.util.misc.PlayerAreaMap playerActivationRangeMap; // Paper - single pass activation range
 
     // CraftBukkit start - recursion-safe executor for Chunk loadCallback() and unloadCallback()
     public final CallbackExecutor callbackExecutor = new CallbackExecutor();
@@ -219,6 +221,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     public final com.destroystokyo.paper.util.misc.PlayerAreaMap playerChunkTickRangeMap;
     // Paper end - optimise ChunkMap#anyPlayerCloseEnoughForSpawning
     public final io.papermc.paper.chunk.PlayerChunkLoader playerChunkManager = new io.papermc.paper.chunk.PlayerChunkLoader(this, this.pooledLinkedPlayerHashSets); // Paper - replace chunk loader
+    public final io.papermc.paper.chunk.ChunkPacketCache chunkPacketCache = new io.papermc.paper.chunk.ChunkPacketCache(); // Paper - shared chunk packets
     // Paper start - use distance map to optimise tracker
     public static boolean isLegacyTrackingEntity(Entity entity) {
         return entity.isLegacyTrackingEntity;
@@ -252,6 +255,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         // Note: players need to be explicitly added to distance maps before they can be updated
         this.playerChunkTickRangeMap.add(player, chunkX, chunkZ, DistanceManager.MOB_SPAWN_RANGE); // Paper - optimise ChunkMap#anyPlayerCloseEnoughForSpawning
         this.playerGeneralAreaMap.add(player, chunkX, chunkZ, GENERAL_AREA_MAP_SQUARE_RADIUS); // Paper - optimise checkDespawn
+        this.playerActivationRangeMap.add(player, chunkX, chunkZ, org.spigotmc.ActivationRange.getActivationAreaRadius(this.level)); // Paper - single pass activation range
         // Paper start - per player mob spawning
         if (this.playerMobDistanceMap != null) {
             this.playerMobDistanceMap.add(player, chunkX, chunkZ, this.distanceManager.getSimulationDistance());
@@ -271,6 +275,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         this.playerChunkTickRangeMap.remove(player);
         // Paper end - optimise ChunkMap#anyPlayerCloseEnoughForSpawning
         this.playerGeneralAreaMap.remove(player); // Paper - optimise checkDespawns
+        this.playerActivationRangeMap.remove(player); // Paper - single pass activation range
         // Paper start - per player mob spawning
         if (this.playerMobDistanceMap != null) {
             this.playerMobDistanceMap.remove(player);
@@ -293,6 +298,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         // Paper end - use distance map to optimise entity tracker
         this.playerChunkTickRangeMap.update(player, chunkX, chunkZ, DistanceManager.MOB_SPAWN_RANGE); // Paper - optimise ChunkMap#anyPlayerCloseEnoughForSpawning
         this.playerGeneralAreaMap.update(player, chunkX, chunkZ, GENERAL_AREA_MAP_SQUARE_RADIUS); // Paper - optimise checkDespawn
+        this.playerActivationRangeMap.update(player, chunkX, chunkZ, org.spigotmc.ActivationRange.getActivationAreaRadius(this.level)); // Paper - single pass activation range
         // Paper start - per player mob spawning
         if (this.playerMobDistanceMap != null) {
             this.playerMobDistanceMap.update(player, chunkX, chunkZ, this.distanceManager.getSimulationDistance());
@@ -409,7 +415,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
     boolean unloadingPlayerChunk = false; // Paper - do not allow ticket level changes while unloading chunks
     public ChunkMap(ServerLevel world, LevelStorageSource.LevelStorageAccess session, DataFixer dataFixer, StructureTemplateManager structureTemplateManager, Executor executor, BlockableEventLoop<Runnable> mainThreadExecutor, LightChunkGetter chunkProvider, ChunkGenerator chunkGenerator, ChunkProgressListener worldGenerationProgressListener, ChunkStatusUpdateListener chunkStatusChangeListener, Supplier<DimensionDataStorage> persistentStateManagerFactory, int viewDistance, boolean dsync) {
-        super(session.getDimensionPath(world.dimension()).resolve("region"), dataFixer, dsync);
+        super(session.getDimensionPath(world.dimension()).resolve("region"), dataFixer, dsync, net.minecraft.world.level.chunk.storage.RegionFileVersion.fromFormat(world.paperConfig().chunks.compressionFormat)); // Paper - configurable chunk compression
         // Paper - don't copy
         this.pendingUnloads = new Long2ObjectLinkedOpenHashMap();
         this.entitiesInLevel = new LongOpenHashSet();
@@ -460,6 +466,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
         this.queueSorter = new ChunkTaskPriorityQueueSorter(ImmutableList.of(threadedmailbox, mailbox, threadedmailbox1), executor, Integer.MAX_VALUE);
         this.worldgenMailbox = this.queueSorter.getProcessor(threadedmailbox, false);
+        this.worldgenScheduler = new io.papermc.paper.chunk.WorldgenScheduler(world); // Paper - concurrent worldgen
         this.mainThreadMailbox = this.queueSorter.getProcessor(mailbox, false);
         this.mailboxLight = this.queueSorter.getProcessor(lightthreaded, false);// Paper
         this.lightEngine = new ThreadedLevelLightEngine(chunkProvider, this, this.level.dimensionType().hasSkyLight(), threadedmailbox1, this.queueSorter.getProcessor(threadedmailbox1, false));
@@ -560,6 +567,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 }
             });
         // Paper end - optimise checkDespawn
+        this.playerActivationRangeMap = new com.destroystokyo.paper.util.misc.PlayerAreaMap(this.pooledLinkedPlayerHashSets); // Paper - single pass activation range
     }
 
     protected ChunkGenerator generator() {
@@ -631,6 +639,25 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
     }
 
+    public void updatePlayerMobTypeMap(ChunkPos chunkPos, int[] counts) {
+        if (!this.level.paperConfig().entities.spawning.perPlayerMobSpawns) {
+            return;
+        }
+        final com.destroystokyo.paper.util.misc.PooledLinkedHashSets.PooledObjectLinkedOpenHashSet<ServerPlayer> inRange = this.playerMobDistanceMap.getObjectsInRange(chunkPos);
+        if (inRange == null) {
+            return;
+        }
+        final Object[] backingSet = inRange.getBackingSet();
+        for (int i = 0; i < backingSet.length; i++) {
+            if (!(backingSet[i] instanceof final ServerPlayer player)) {
+                continue;
+            }
+            for (int index = 0; index < counts.length; ++index) {
+                player.mobCounts[index] += counts[index];
+            }
+        }
+    }
+
     public int getMobCountNear(ServerPlayer entityPlayer, net.minecraft.world.entity.MobCategory mobCategory) {
         return entityPlayer.mobCounts[mobCategory.ordinal()];
     }
@@ -881,9 +908,11 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     @Override
     public void close() throws IOException {
         try {
+            this.worldgenScheduler.close(); // Paper - concurrent worldgen - finish the steps running on the workers before closing the world
             this.queueSorter.close();
             this.level.asyncChunkTaskManager.close(true); // Paper - Required since we're closing regionfiles in the next line
             this.poiManager.close();
+            this.chunkPacketCache.clear(); // Paper - shared chunk packets
         } finally {
             super.close();
         }
@@ -1012,6 +1041,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
 
         gameprofilerfiller.pop();
+        this.chunkPacketCache.tick(); // Paper - shared chunk packets
     }
 
     public boolean hasWork() {
@@ -1268,6 +1298,11 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 return;
             }
             // Paper end
+            // Paper start - concurrent worldgen
+            if (this.worldgenScheduler.schedule(requiredStatus, chunkcoordintpair, holder.getQueueLevel(), runnable)) {
+                return;
+            }
+            // Paper end - concurrent worldgen
             this.worldgenMailbox.tell(ChunkTaskPriorityQueueSorter.message(holder, runnable));
         };
 
@@ -1279,6 +1314,15 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                     }, list, false);
 
                     this.progressListener.onStatusChange(chunkcoordintpair, requiredStatus);
+                    // Paper start - concurrent worldgen
+                    if (requiredStatus == ChunkStatus.FEATURES) {
+                        completablefuture1.thenAccept((result) -> {
+                            if (result.left().isPresent()) {
+                                io.papermc.paper.chunk.WorldgenScheduler.recordGenerated();
+                            }
+                        });
+                    }
+                    // Paper end - concurrent worldgen
                     return completablefuture1;
                 } catch (Exception exception) {
                     exception.getStackTrace();
@@ -1508,6 +1552,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     // serializing the chunk is left to a worker thread.
     private void asyncSave(ChunkAccess chunk) {
         ChunkPos chunkPos = chunk.getPos();
+        this.level.asyncChunkTaskManager.awaitChunkSnapshotSave(chunkPos.x, chunkPos.z); // Paper - off-main autosave serialization - must be written before the chunk can be reloaded
         CompoundTag poiData;
         try (Timing ignored = this.level.timings.chunkUnloadPOISerialization.startTiming()) {
             poiData = this.poiManager.getData(chunk.getPos());
@@ -1567,6 +1612,19 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 }
 
                 this.level.getProfiler().incrementCounter("chunkSave");
+                // Paper start - off-main autosave serialization
+                if (chunk instanceof LevelChunk levelChunk && this.level.paperConfig().chunks.asyncSaveSerialization) {
+                    ChunkSerializer.AsyncSaveData snapshot;
+                    try (co.aikar.timings.Timing ignored1 = this.level.timings.chunkSaveSnapshot.startTiming()) {
+                        snapshot = ChunkSerializer.getAsyncSaveSnapshot(this.level, levelChunk);
+                    }
+                    this.level.asyncChunkTaskManager.scheduleChunkSnapshotSave(chunkcoordintpair.x, chunkcoordintpair.z,
+                        com.destroystokyo.paper.io.PrioritizedTaskQueue.NORMAL_PRIORITY, snapshot, chunk);
+                    this.markPosition(chunkcoordintpair, chunkstatus.getChunkType());
+                    return true;
+                }
+                this.level.asyncChunkTaskManager.awaitChunkSnapshotSave(chunkcoordintpair.x, chunkcoordintpair.z);
+                // Paper end - off-main autosave serialization
                 CompoundTag nbttagcompound;
                 try (co.aikar.timings.Timing ignored1 = this.level.timings.chunkSaveDataSerialization.startTiming()) { // Paper
                     nbttagcompound = ChunkSerializer.write(this.level, chunk);
@@ -1713,7 +1771,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     @Nullable
     @Override
     public CompoundTag readSync(ChunkPos chunkcoordintpair) throws IOException {
-        if (Thread.currentThread() != com.destroystokyo.paper.io.PaperFileIOThread.Holder.INSTANCE) {
+        if (!com.destroystokyo.paper.io.PaperFileIOThread.Holder.INSTANCE.isIOThread(Thread.currentThread())) { // Paper - sharded IO threads
             CompoundTag ret = com.destroystokyo.paper.io.PaperFileIOThread.Holder.INSTANCE
                 .loadChunkDataAsyncFuture(this.level, chunkcoordintpair.x, chunkcoordintpair.z, com.destroystokyo.paper.io.IOUtil.getPriorityForCurrentThread(),
                     false, true, true).join().chunkData;
@@ -1728,7 +1786,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
     @Override
     public void write(ChunkPos chunkcoordintpair, CompoundTag nbttagcompound) throws IOException {
-        if (Thread.currentThread() != com.destroystokyo.paper.io.PaperFileIOThread.Holder.INSTANCE) {
+        if (!com.destroystokyo.paper.io.PaperFileIOThread.Holder.INSTANCE.isIOThread(Thread.currentThread())) { // Paper - sharded IO threads
             com.destroystokyo.paper.io.PaperFileIOThread.Holder.INSTANCE.scheduleSave(
                 this.level, chunkcoordintpair.x, chunkcoordintpair.z, null, nbttagcompound,
                 com.destroystokyo.paper.io.IOUtil.getPriorityForCurrentThread());
@@ -2079,6 +2137,13 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
     // Paper start - optimised tracker
     private final void processTrackQueue() {
+        // Paper start - parallel tracker
+        final int parallelMinEntities = io.papermc.paper.configuration.GlobalConfiguration.get().tickWorkers.parallelTrackerMinEntities;
+        if (parallelMinEntities >= 0 && this.entityMap.size() >= parallelMinEntities) {
+            this.processTrackQueueParallel();
+            return;
+        }
+        // Paper end - parallel tracker
         this.level.timings.tracker1.startTiming();
         try {
             for (TrackedEntity tracker : this.entityMap.values()) {
@@ -2094,6 +2159,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         try {
             for (TrackedEntity tracker : this.entityMap.values()) {
                 tracker.serverEntity.sendChanges();
+                tracker.flushLod(); // Paper - entity tracking lod
             }
         } finally {
             this.level.timings.tracker2.stopTiming();
@@ -2101,6 +2167,44 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
     }
     // Paper end - optimised tracker
 
+    // Paper start - parallel tracker
+    private static final int PARALLEL_TRACKER_BATCH_SIZE = 64;
+    private TrackedEntity[] parallelTrackers = new TrackedEntity[0];
+
+    private void processTrackQueueParallel() {
+        // visibility and update packets are computed on the tick workers, everything which sends packets
+        // or mutates the seenBy sets is applied on the tick thread, in the same order as the serial tracker
+        final int size = this.entityMap.size();
+        final TrackedEntity[] trackers = this.entityMap.values().toArray(this.parallelTrackers);
+        this.parallelTrackers = trackers;
+
+        try {
+            this.level.timings.tracker1.startTiming();
+            try {
+                io.papermc.paper.util.TickWorkerPool.forEach(trackers, size, PARALLEL_TRACKER_BATCH_SIZE, TrackedEntity::computePlayerUpdates);
+                for (int i = 0; i < size; ++i) {
+                    trackers[i].applyPlayerUpdates();
+                }
+            } finally {
+                this.level.timings.tracker1.stopTiming();
+            }
+
+            this.level.timings.tracker2.startTiming();
+            try {
+                io.papermc.paper.util.TickWorkerPool.forEach(trackers, size, PARALLEL_TRACKER_BATCH_SIZE, TrackedEntity::bufferChanges);
+                for (int i = 0; i < size; ++i) {
+                    trackers[i].flushChanges();
+                    trackers[i].flushLod(); // Paper - entity tracking lod
+                }
+            } finally {
+                this.level.timings.tracker2.stopTiming();
+            }
+        } finally {
+            java.util.Arrays.fill(trackers, 0, size, null);
+        }
+    }
+    // Paper end - parallel tracker
+
     protected void tick() {
         // Paper start - optimized tracker
         if (true) {
@@ -2256,7 +2360,7 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                 }
             }
             // Paper end - Fix MC-162253
-            return new ClientboundLevelChunkWithLightPacket(chunk, this.lightEngine, (BitSet) null, (BitSet) null, true, (Boolean) s);
+            return this.chunkPacketCache.getOrCreate(chunk.getPos().x, chunk.getPos().z, (Boolean) s, () -> new ClientboundLevelChunkWithLightPacket(chunk, this.lightEngine, (BitSet) null, (BitSet) null, true, (Boolean) s)); // Paper - shared chunk packets
         }));
         // Paper end
         DebugPackets.sendPoiPacketsForChunk(this.level, chunk.getPos());
@@ -2398,6 +2502,119 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
         // Paper end - use distance map to optimise tracker
 
+        // Paper start - parallel tracker
+        private com.destroystokyo.paper.util.misc.PooledLinkedHashSets.PooledObjectLinkedOpenHashSet<ServerPlayer> pendingTrackerCandidates;
+        private List<ServerPlayer> pendingAdds;
+        private List<ServerPlayer> pendingRemoves;
+        private boolean bufferingChanges;
+        private boolean changesBuffered;
+        private List<Packet<?>> bufferedPackets;
+
+        // off the tick thread, must not modify seenBy
+        final void computePlayerUpdates() {
+            com.destroystokyo.paper.util.misc.PooledLinkedHashSets.PooledObjectLinkedOpenHashSet<ServerPlayer> newTrackerCandidates = this.entity.getPlayersInTrackRange();
+            this.pendingTrackerCandidates = newTrackerCandidates;
+
+            if (newTrackerCandidates != null) {
+                Object[] rawData = newTrackerCandidates.getBackingSet();
+                for (int i = 0, len = rawData.length; i < len; ++i) {
+                    Object raw = rawData[i];
+                    if (!(raw instanceof ServerPlayer)) {
+                        continue;
+                    }
+                    this.computePlayerUpdate((ServerPlayer)raw);
+                }
+            }
+
+            if (this.lastTrackerCandidates == newTrackerCandidates) {
+                return;
+            }
+
+            for (ServerPlayerConnection conn : this.seenBy) {
+                if (newTrackerCandidates == null || !newTrackerCandidates.contains(conn.getPlayer())) {
+                    this.computePlayerUpdate(conn.getPlayer());
+                }
+            }
+        }
+
+        private void computePlayerUpdate(ServerPlayer player) {
+            if (player == this.entity) {
+                return;
+            }
+            boolean track = this.shouldTrack(player);
+            if (track == this.seenBy.contains(player.connection)) {
+                return;
+            }
+            if (track) {
+                if (this.pendingAdds == null) {
+                    this.pendingAdds = new java.util.ArrayList<>();
+                }
+                this.pendingAdds.add(player);
+            } else {
+                if (this.pendingRemoves == null) {
+                    this.pendingRemoves = new java.util.ArrayList<>();
+                }
+                this.pendingRemoves.add(player);
+            }
+        }
+
+        final void applyPlayerUpdates() {
+            this.lastTrackerCandidates = this.pendingTrackerCandidates;
+            this.pendingTrackerCandidates = null;
+
+            List<ServerPlayer> removes = this.pendingRemoves;
+            if (removes != null) {
+                this.pendingRemoves = null;
+                for (int i = 0, len = removes.size(); i < len; ++i) {
+                    ServerPlayer player = removes.get(i);
+                    if (this.seenBy.remove(player.connection)) {
+                        this.serverEntity.removePairing(player);
+                    }
+                }
+            }
+            List<ServerPlayer> adds = this.pendingAdds;
+            if (adds != null) {
+                this.pendingAdds = null;
+                for (int i = 0, len = adds.size(); i < len; ++i) {
+                    ServerPlayer player = adds.get(i);
+                    if (this.seenBy.add(player.connection)) {
+                        this.serverEntity.addPairing(player);
+                    }
+                }
+            }
+        }
+
+        // off the tick thread, packets are collected and broadcast by flushChanges
+        final void bufferChanges() {
+            if (this.entity instanceof ServerPlayer || this.entity instanceof net.minecraft.world.entity.decoration.ItemFrame) {
+                // players fire events and send packets to themselves, item frames update shared map data
+                return;
+            }
+            this.bufferingChanges = true;
+            try {
+                this.serverEntity.sendChanges();
+            } finally {
+                this.bufferingChanges = false;
+            }
+            this.changesBuffered = true;
+        }
+
+        final void flushChanges() {
+            if (!this.changesBuffered) {
+                this.serverEntity.sendChanges();
+                return;
+            }
+            this.changesBuffered = false;
+            List<Packet<?>> packets = this.bufferedPackets;
+            if (packets != null) {
+                this.bufferedPackets = null;
+                for (int i = 0, len = packets.size(); i < len; ++i) {
+                    this.broadcast(packets.get(i));
+                }
+            }
+        }
+        // Paper end - parallel tracker
+
         public boolean equals(Object object) {
             return object instanceof ChunkMap.TrackedEntity ? ((ChunkMap.TrackedEntity) object).entity.getId() == this.entity.getId() : false;
         }
@@ -2407,6 +2624,24 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         }
 
         public void broadcast(Packet<?> packet) {
+            // Paper start - parallel tracker
+            if (this.bufferingChanges) {
+                if (this.bufferedPackets == null) {
+                    this.bufferedPackets = new java.util.ArrayList<>();
+                }
+                this.bufferedPackets.add(packet);
+                return;
+            }
+            // Paper end - parallel tracker
+            // Paper start - entity tracking lod
+            io.papermc.paper.configuration.WorldConfiguration.Entities.TrackingLod lod = ChunkMap.this.level.paperConfig().entities.trackingLod;
+            if (io.papermc.paper.entity.EntityTrackingLod.isEnabled(lod) && io.papermc.paper.entity.EntityTrackingLod.isLodPacket(packet)) {
+                this.broadcastLod(packet, lod);
+                return;
+            }
+            // Paper end - entity tracking lod
+            boolean shared = io.papermc.paper.network.SharedPacketEncoding.beginBroadcast(packet, this.seenBy.size()); // Paper - shared broadcast encoding
+            try { // Paper - shared broadcast encoding
             Iterator iterator = this.seenBy.iterator();
 
             while (iterator.hasNext()) {
@@ -2414,9 +2649,73 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
 
                 serverplayerconnection.send(packet);
             }
+            // Paper start - shared broadcast encoding
+            } finally {
+                if (shared) {
+                    io.papermc.paper.network.SharedPacketEncoding.endBroadcast();
+                }
+            }
+            // Paper end - shared broadcast encoding
+
+        }
+
+        // Paper start - entity tracking lod
+        // viewers which were not sent the last position or rotation updates of the entity
+        private Set<ServerPlayerConnection> lodStaleViewers;
+
+        private void broadcastLod(Packet<?> packet, io.papermc.paper.configuration.WorldConfiguration.Entities.TrackingLod lod) {
+            for (ServerPlayerConnection conn : this.seenBy) {
+                int band = this.getLodBand(conn, lod);
+                if (!io.papermc.paper.entity.EntityTrackingLod.isDue(lod, band, this.entity.getId())) {
+                    if (this.lodStaleViewers == null) {
+                        this.lodStaleViewers = new ReferenceOpenHashSet<>();
+                    }
+                    this.lodStaleViewers.add(conn);
+                    io.papermc.paper.entity.EntityTrackingLod.recordSuppressed(band);
+                    continue;
+                }
+                if (this.lodStaleViewers != null && this.lodStaleViewers.remove(conn)) {
+                    // relative moves are based on the last position the server sent, which this viewer missed
+                    this.sendLodState(conn);
+                    continue;
+                }
+                conn.send(packet);
+            }
+        }
+
+        private int getLodBand(ServerPlayerConnection conn, io.papermc.paper.configuration.WorldConfiguration.Entities.TrackingLod lod) {
+            ServerPlayer player = conn.getPlayer();
+            double dx = player.getX() - this.entity.getX();
+            double dz = player.getZ() - this.entity.getZ();
+            return io.papermc.paper.entity.EntityTrackingLod.getBand(lod, dx * dx + dz * dz);
+        }
 
+        private void sendLodState(ServerPlayerConnection conn) {
+            conn.send(new net.minecraft.network.protocol.game.ClientboundTeleportEntityPacket(this.entity));
+            conn.send(new net.minecraft.network.protocol.game.ClientboundRotateHeadPacket(this.entity, (byte) Mth.floor(this.entity.getYHeadRot() * 256.0F / 360.0F)));
+            io.papermc.paper.entity.EntityTrackingLod.recordResync();
         }
 
+        // sends the current state to stale viewers which are due, the entity may not move again for a while
+        final void flushLod() {
+            if (this.lodStaleViewers == null || this.lodStaleViewers.isEmpty()) {
+                return;
+            }
+            io.papermc.paper.configuration.WorldConfiguration.Entities.TrackingLod lod = ChunkMap.this.level.paperConfig().entities.trackingLod;
+            boolean enabled = io.papermc.paper.entity.EntityTrackingLod.isEnabled(lod);
+            for (Iterator<ServerPlayerConnection> iterator = this.lodStaleViewers.iterator(); iterator.hasNext();) {
+                ServerPlayerConnection conn = iterator.next();
+                if (!this.seenBy.contains(conn)) {
+                    // the entity is sent again in full once the player tracks it again
+                    iterator.remove();
+                } else if (!enabled || io.papermc.paper.entity.EntityTrackingLod.isDue(lod, this.getLodBand(conn, lod), this.entity.getId())) {
+                    iterator.remove();
+                    this.sendLodState(conn);
+                }
+            }
+        }
+        // Paper end - entity tracking lod
+
         public void broadcastAndSend(Packet<?> packet) {
             this.broadcast(packet);
             if (this.entity instanceof ServerPlayer) {
@@ -2447,6 +2746,20 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
         public void updatePlayer(ServerPlayer player) {
             org.spigotmc.AsyncCatcher.catchOp("player tracker update"); // Spigot
             if (player != this.entity) {
+                boolean flag = this.shouldTrack(player); // Paper - parallel tracker - moved into shouldTrack
+                if (flag) {
+                    if (this.seenBy.add(player.connection)) {
+                        this.serverEntity.addPairing(player);
+                    }
+                } else if (this.seenBy.remove(player.connection)) {
+                    this.serverEntity.removePairing(player);
+                }
+
+            }
+        }
+
+        // Paper start - parallel tracker
+        private boolean shouldTrack(ServerPlayer player) {
                 // Paper start - remove allocation of Vec3D here
                 // Vec3 vec3d = player.position().subtract(this.entity.position());
                 double vec3d_dx = player.getX() - this.entity.getX();
@@ -2462,16 +2775,9 @@ public class ChunkMap extends ChunkStorage implements ChunkHolder.PlayerProvider
                     flag = false;
                 }
                 // CraftBukkit end
-                if (flag) {
-                    if (this.seenBy.add(player.connection)) {
-                        this.serverEntity.addPairing(player);
-                    }
-                } else if (this.seenBy.remove(player.connection)) {
-                    this.serverEntity.removePairing(player);
-                }
-
-            }
+                return flag;
         }
+        // Paper end - parallel tracker
 
         private int scaledRange(int initialDistance) {
             return ChunkMap.this.level.getServer().getScaledTrackingDistance(initialDistance);
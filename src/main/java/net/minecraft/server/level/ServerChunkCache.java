@@ -798,9 +798,9 @@ public class ServerChunkCache extends ChunkSource {
                 for (ServerPlayer player : this.level.players) {
                     Arrays.fill(player.mobCounts, 0);
                 }
-                spawnercreature_d = NaturalSpawner.createState(l, this.level.getAllEntities(), this::getFullChunk, null, true);
+                spawnercreature_d = NaturalSpawner.createState(l, this.level.getSpawnCountedEntities(), this::getFullChunk, null, true); // Paper - only iterate entities counted for natural spawning
             } else {
-                spawnercreature_d = NaturalSpawner.createState(l, this.level.getAllEntities(), this::getFullChunk, this.chunkMap.playerMobDistanceMap == null ? new LocalMobCapCalculator(this.chunkMap) : null, false);
+                spawnercreature_d = NaturalSpawner.createState(l, this.level.getSpawnCountedEntities(), this::getFullChunk, this.chunkMap.playerMobDistanceMap == null ? new LocalMobCapCalculator(this.chunkMap) : null, false); // Paper - only iterate entities counted for natural spawning
             }
             // Paper end
             this.level.timings.countNaturalMobs.stopTiming(); // Paper - timings
@@ -190,7 +190,7 @@ public class ServerLevel extends Level implements WorldGenLevel {
     public final ServerChunkCache chunkSource;
     private final MinecraftServer server;
     public final PrimaryLevelData serverLevelData; // CraftBukkit - type
-    final EntityTickList entityTickList;
+    public final EntityTickList entityTickList; // Paper - single pass activation range - public
     public final PersistentEntitySectionManager<Entity> entityManager;
     public boolean noSave;
     private final SleepStatus sleepStatus;
@@ -2344,6 +2344,12 @@ public class ServerLevel extends Level implements WorldGenLevel {
         return this.getEntities().getAll();
     }
 
+    // Paper start - only iterate entities counted for natural spawning
+    public Iterable<Entity> getSpawnCountedEntities() {
+        return this.entitySliceManager.getSpawnCountedEntities();
+    }
+    // Paper end - only iterate entities counted for natural spawning
+
     public String toString() {
         return "ServerLevel[" + this.serverLevelData.getLevelName() + "]";
     }
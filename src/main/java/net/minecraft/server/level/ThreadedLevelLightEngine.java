@@ -236,6 +236,31 @@ public class ThreadedLevelLightEngine extends LevelLightEngine implements AutoCl
         return totalChunks;
     }
 
+    /**
+     * Relights the given sections after bulk block changes, instead of propagating the changed blocks one by one.
+     * The sky light of a section depends on every section above it, and light leaks into neighbouring chunks, so
+     * the whole chunk of every section is relit together with its neighbours.
+     *
+     * @return The number of chunks scheduled to be relit
+     */
+    public int relightSections(java.util.Collection<SectionPos> sections,
+                               java.util.function.Consumer<ChunkPos> chunkLightCallback,
+                               java.util.function.IntConsumer onComplete) {
+        java.util.Set<ChunkPos> chunks = new java.util.LinkedHashSet<>();
+        for (SectionPos section : sections) {
+            chunks.add(section.chunk());
+        }
+        // relight the chunks with changed sections first, the neighbours only need the light leaking out removed
+        for (ChunkPos chunk : new java.util.ArrayList<>(chunks)) {
+            for (int dz = -1; dz <= 1; ++dz) {
+                for (int dx = -1; dx <= 1; ++dx) {
+                    chunks.add(new ChunkPos(chunk.x + dx, chunk.z + dz));
+                }
+            }
+        }
+        return this.relight(chunks, chunkLightCallback, onComplete);
+    }
+
     private final Long2IntOpenHashMap chunksBeingWorkedOn = new Long2IntOpenHashMap();
 
     private void queueTaskForSection(final int chunkX, final int chunkY, final int chunkZ, final Supplier<CompletableFuture<Void>> runnable) {
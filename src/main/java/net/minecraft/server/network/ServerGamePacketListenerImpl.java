@@ -326,7 +326,7 @@ public class ServerGamePacketListenerImpl implements ServerPlayerConnection, Tic
     }
 
     private final org.bukkit.craftbukkit.CraftServer cserver;
-    public boolean processedDisconnect;
+    public volatile boolean processedDisconnect; // Paper - pre-validate movement off the tick thread - read from network threads
     private int lastTick = MinecraftServer.currentTick;
     private int allowedPlayerTicks = 1;
     private int lastDropTick = MinecraftServer.currentTick;
@@ -569,6 +569,35 @@ public class ServerGamePacketListenerImpl implements ServerPlayerConnection, Tic
         return Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(z) || !Floats.isFinite(pitch) || !Floats.isFinite(yaw);
     }
 
+    // Paper start - pre-validate movement off the tick thread
+    private volatile boolean rejectedMovement;
+
+    public boolean preValidateMovePlayer(ServerboundMovePlayerPacket packet) {
+        if (this.processedDisconnect || this.rejectedMovement) {
+            return false;
+        }
+        if (ServerGamePacketListenerImpl.containsInvalidValues(packet.getX(0.0D), packet.getY(0.0D), packet.getZ(0.0D), packet.getYRot(0.0F), packet.getXRot(0.0F))) {
+            // drop everything after the first invalid packet, the kick is already scheduled
+            this.rejectedMovement = true;
+            this.server.scheduleOnMain(() -> this.disconnect(Component.translatable("multiplayer.disconnect.invalid_player_movement"), org.bukkit.event.player.PlayerKickEvent.Cause.INVALID_PLAYER_MOVEMENT));
+            return false;
+        }
+        return true;
+    }
+
+    public boolean preValidateMoveVehicle(ServerboundMoveVehiclePacket packet) {
+        if (this.processedDisconnect || this.rejectedMovement) {
+            return false;
+        }
+        if (ServerGamePacketListenerImpl.containsInvalidValues(packet.getX(), packet.getY(), packet.getZ(), packet.getYRot(), packet.getXRot())) {
+            this.rejectedMovement = true;
+            this.server.scheduleOnMain(() -> this.disconnect(Component.translatable("multiplayer.disconnect.invalid_vehicle_movement"), org.bukkit.event.player.PlayerKickEvent.Cause.INVALID_VEHICLE_MOVEMENT));
+            return false;
+        }
+        return true;
+    }
+    // Paper end - pre-validate movement off the tick thread
+
     private static double clampHorizontal(double d) {
         return Mth.clamp(d, -3.0E7D, 3.0E7D);
     }
@@ -1045,6 +1045,8 @@ public abstract class PlayerList {
     }
 
     public void broadcastAll(Packet<?> packet) {
+        boolean shared = io.papermc.paper.network.SharedPacketEncoding.beginBroadcast(packet, this.players.size()); // Paper - shared broadcast encoding
+        try { // Paper - shared broadcast encoding
         Iterator iterator = this.players.iterator();
 
         while (iterator.hasNext()) {
@@ -1052,11 +1054,20 @@ public abstract class PlayerList {
 
             entityplayer.connection.send(packet);
         }
+        // Paper start - shared broadcast encoding
+        } finally {
+            if (shared) {
+                io.papermc.paper.network.SharedPacketEncoding.endBroadcast();
+            }
+        }
+        // Paper end - shared broadcast encoding
 
     }
 
     // CraftBukkit start - add a world/entity limited version
     public void broadcastAll(Packet packet, net.minecraft.world.entity.player.Player entityhuman) {
+        boolean shared = io.papermc.paper.network.SharedPacketEncoding.beginBroadcast(packet, this.players.size()); // Paper - shared broadcast encoding
+        try { // Paper - shared broadcast encoding
         for (int i = 0; i < this.players.size(); ++i) {
             ServerPlayer entityplayer =  this.players.get(i);
             if (entityhuman != null && !entityplayer.getBukkitEntity().canSee(entityhuman.getBukkitEntity())) {
@@ -1064,17 +1075,35 @@ public abstract class PlayerList {
             }
             ((ServerPlayer) this.players.get(i)).connection.send(packet);
         }
+        // Paper start - shared broadcast encoding
+        } finally {
+            if (shared) {
+                io.papermc.paper.network.SharedPacketEncoding.endBroadcast();
+            }
+        }
+        // Paper end - shared broadcast encoding
     }
 
     public void broadcastAll(Packet packet, Level world) {
+        boolean shared = io.papermc.paper.network.SharedPacketEncoding.beginBroadcast(packet, world.players().size()); // Paper - shared broadcast encoding
+        try { // Paper - shared broadcast encoding
         for (int i = 0; i < world.players().size(); ++i) {
             ((ServerPlayer) world.players().get(i)).connection.send(packet);
         }
+        // Paper start - shared broadcast encoding
+        } finally {
+            if (shared) {
+                io.papermc.paper.network.SharedPacketEncoding.endBroadcast();
+            }
+        }
+        // Paper end - shared broadcast encoding
 
     }
     // CraftBukkit end
 
     public void broadcastAll(Packet<?> packet, ResourceKey<Level> dimension) {
+        boolean shared = io.papermc.paper.network.SharedPacketEncoding.beginBroadcast(packet, this.players.size()); // Paper - shared broadcast encoding
+        try { // Paper - shared broadcast encoding
         Iterator iterator = this.players.iterator();
 
         while (iterator.hasNext()) {
@@ -1084,6 +1113,13 @@ public abstract class PlayerList {
                 entityplayer.connection.send(packet);
             }
         }
+        // Paper start - shared broadcast encoding
+        } finally {
+            if (shared) {
+                io.papermc.paper.network.SharedPacketEncoding.endBroadcast();
+            }
+        }
+        // Paper end - shared broadcast encoding
 
     }
 
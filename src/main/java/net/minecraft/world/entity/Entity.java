@@ -390,6 +390,16 @@ public abstract class Entity implements Nameable, EntityAccess, CommandSource {
     // Paper start
     public long activatedImmunityTick = Integer.MIN_VALUE; // Paper
     public boolean isTemporarilyActive = false; // Paper
+    // Paper start - entity tick tiers
+    public int activationTier;
+    public int activationTierTick = Integer.MIN_VALUE;
+    public int activationTickInterval = 1; // ticks covered by the current tick, movement and AI timers are scaled by it
+    // Paper end - entity tick tiers
+    // Paper start - packed entity bounds
+    // section lists holding a copy of the bounding box of this entity, and the index of this entity in them
+    public io.papermc.paper.world.ChunkEntitySlices.BasicEntityList<?>[] packedBoundsLists;
+    public int[] packedBoundsIndices;
+    // Paper end - packed entity bounds
     public boolean fromNetherPortal; // Paper
     protected int numCollisions = 0; // Paper
     public boolean spawnedViaMobSpawner; // Paper - Yes this name is similar to above, upstream took the better one
@@ -1356,63 +1366,93 @@ public abstract class Entity implements Nameable, EntityAccess, CommandSource {
             return movement;
         }
 
-        final List<AABB> potentialCollisions = io.papermc.paper.util.CachedLists.getTempCollisionList();
+        final io.papermc.paper.util.CollisionBuffer collisions = io.papermc.paper.util.CollisionBuffer.acquire(); // Paper - allocation free entity movement
         try {
             final double stepHeight = (double)this.maxUpStep;
-            final AABB collisionBox;
 
+            collisions.setBox(currBoundingBox);
             if (movement.x == 0.0 && movement.z == 0.0 && movement.y != 0.0) {
                 if (movement.y > 0.0) {
-                    collisionBox = io.papermc.paper.util.CollisionUtil.cutUpwards(currBoundingBox, movement.y);
+                    collisions.minY = currBoundingBox.maxY;
+                    collisions.maxY = currBoundingBox.maxY + movement.y;
                 } else {
-                    collisionBox = io.papermc.paper.util.CollisionUtil.cutDownwards(currBoundingBox, movement.y);
+                    collisions.minY = currBoundingBox.minY + movement.y;
+                    collisions.maxY = currBoundingBox.minY;
                 }
             } else {
                 if (stepHeight > 0.0 && (this.onGround || (movement.y < 0.0)) && (movement.x != 0.0 || movement.z != 0.0)) {
                     // don't bother getting the collisions if we don't need them.
                     if (movement.y <= 0.0) {
-                        collisionBox = io.papermc.paper.util.CollisionUtil.expandUpwards(currBoundingBox.expandTowards(movement.x, movement.y, movement.z), stepHeight);
+                        collisions.expandBoxTowards(movement.x, movement.y, movement.z);
+                        collisions.maxY += stepHeight;
                     } else {
-                        collisionBox = currBoundingBox.expandTowards(movement.x, Math.max(stepHeight, movement.y), movement.z);
+                        collisions.expandBoxTowards(movement.x, Math.max(stepHeight, movement.y), movement.z);
                     }
                 } else {
-                    collisionBox = currBoundingBox.expandTowards(movement.x, movement.y, movement.z);
+                    collisions.expandBoxTowards(movement.x, movement.y, movement.z);
                 }
             }
 
-            io.papermc.paper.util.CollisionUtil.getCollisions(world, this, collisionBox, potentialCollisions, false, this.level.paperConfig().chunks.preventMovingIntoUnloadedChunks,
-                false, false, null, null);
+            final double minX = collisions.minX;
+            final double minY = collisions.minY;
+            final double minZ = collisions.minZ;
+            final double maxX = collisions.maxX;
+            final double maxY = collisions.maxY;
+            final double maxZ = collisions.maxZ;
 
-            if (io.papermc.paper.util.CollisionUtil.isCollidingWithBorderEdge(world.getWorldBorder(), collisionBox)) {
-                io.papermc.paper.util.CollisionUtil.addBoxesToIfIntersects(world.getWorldBorder().getCollisionShape(), collisionBox, potentialCollisions);
+            io.papermc.paper.util.CollisionUtil.getCollisionsForBlocksOrWorldBorder(world, this, minX, minY, minZ, maxX, maxY, maxZ, collisions,
+                false, this.level.paperConfig().chunks.preventMovingIntoUnloadedChunks, false);
+            io.papermc.paper.util.CollisionUtil.getEntityHardCollisions(world, this, minX, minY, minZ, maxX, maxY, maxZ, collisions);
+
+            if (io.papermc.paper.util.CollisionUtil.isCollidingWithBorderEdge(world.getWorldBorder(), minX, maxX, minZ, maxZ)) {
+                io.papermc.paper.util.CollisionUtil.addBoxesToIfIntersects(world.getWorldBorder().getCollisionShape(), 0.0, 0.0, 0.0,
+                    minX, minY, minZ, maxX, maxY, maxZ, collisions);
             }
 
-            final Vec3 limitedMoveVector = io.papermc.paper.util.CollisionUtil.performCollisions(movement, currBoundingBox, potentialCollisions);
+            collisions.setBox(currBoundingBox);
+            collisions.performCollisions(movement.x, movement.y, movement.z);
+            final double limitedX = collisions.moveX;
+            final double limitedY = collisions.moveY;
+            final double limitedZ = collisions.moveZ;
 
             if (stepHeight > 0.0
-                && (this.onGround || (limitedMoveVector.y != movement.y && movement.y < 0.0))
-                && (limitedMoveVector.x != movement.x || limitedMoveVector.z != movement.z)) {
-                Vec3 vec3d2 = io.papermc.paper.util.CollisionUtil.performCollisions(new Vec3(movement.x, stepHeight, movement.z), currBoundingBox, potentialCollisions);
-                final Vec3 vec3d3 = io.papermc.paper.util.CollisionUtil.performCollisions(new Vec3(0.0, stepHeight, 0.0), currBoundingBox.expandTowards(movement.x, 0.0, movement.z), potentialCollisions);
-
-                if (vec3d3.y < stepHeight) {
-                    final Vec3 vec3d4 = io.papermc.paper.util.CollisionUtil.performCollisions(new Vec3(movement.x, 0.0D, movement.z), currBoundingBox.move(vec3d3), potentialCollisions).add(vec3d3);
-
-                    if (vec3d4.horizontalDistanceSqr() > vec3d2.horizontalDistanceSqr()) {
-                        vec3d2 = vec3d4;
+                && (this.onGround || (limitedY != movement.y && movement.y < 0.0))
+                && (limitedX != movement.x || limitedZ != movement.z)) {
+                collisions.performCollisions(movement.x, stepHeight, movement.z);
+                double stepX = collisions.moveX;
+                double stepY = collisions.moveY;
+                double stepZ = collisions.moveZ;
+
+                collisions.expandBoxTowards(movement.x, 0.0, movement.z);
+                collisions.performCollisions(0.0, stepHeight, 0.0);
+                final double stepUp = collisions.moveY;
+
+                if (stepUp < stepHeight) {
+                    collisions.setBox(currBoundingBox);
+                    collisions.moveBox(0.0, stepUp, 0.0);
+                    collisions.performCollisions(movement.x, 0.0, movement.z);
+
+                    if (collisions.moveX * collisions.moveX + collisions.moveZ * collisions.moveZ > stepX * stepX + stepZ * stepZ) {
+                        stepX = collisions.moveX;
+                        stepY = collisions.moveY + stepUp;
+                        stepZ = collisions.moveZ;
                     }
                 }
 
-                if (vec3d2.horizontalDistanceSqr() > limitedMoveVector.horizontalDistanceSqr()) {
-                    return vec3d2.add(io.papermc.paper.util.CollisionUtil.performCollisions(new Vec3(0.0D, -vec3d2.y + movement.y, 0.0D), currBoundingBox.move(vec3d2), potentialCollisions));
+                if (stepX * stepX + stepZ * stepZ > limitedX * limitedX + limitedZ * limitedZ) {
+                    collisions.setBox(currBoundingBox);
+                    collisions.moveBox(stepX, stepY, stepZ);
+                    collisions.performCollisions(0.0, -stepY + movement.y, 0.0);
+                    return new Vec3(stepX + collisions.moveX, stepY + collisions.moveY, stepZ + collisions.moveZ);
                 }
+            }
 
-                return limitedMoveVector;
-            } else {
-                return limitedMoveVector;
+            if (limitedX == movement.x && limitedY == movement.y && limitedZ == movement.z) {
+                return movement;
             }
+            return new Vec3(limitedX, limitedY, limitedZ);
         } finally {
-            io.papermc.paper.util.CachedLists.returnTempCollisionList(potentialCollisions);
+            collisions.release();
         }
         // Paper end - optimise collisions
     }
@@ -3742,6 +3782,17 @@ public abstract class Entity implements Nameable, EntityAccess, CommandSource {
         if (len > 64) maxZ = minZ + 64.0;
         this.bb = new AABB(minX, minY, minZ, maxX, maxY, maxZ);
         // CraftBukkit end
+        // Paper start - packed entity bounds
+        final io.papermc.paper.world.ChunkEntitySlices.BasicEntityList<?>[] packedLists = this.packedBoundsLists;
+        if (packedLists != null) {
+            for (int i = 0; i < packedLists.length; ++i) {
+                final io.papermc.paper.world.ChunkEntitySlices.BasicEntityList<?> list = packedLists[i];
+                if (list != null) {
+                    list.updateBounds(this.packedBoundsIndices[i], this);
+                }
+            }
+        }
+        // Paper end - packed entity bounds
     }
 
     protected float getEyeHeight(net.minecraft.world.entity.Pose pose, EntityDimensions dimensions) {
@@ -2729,7 +2729,7 @@ public abstract class LivingEntity extends Entity {
                 }
 
                 this.moveRelative(f1, movementInput);
-                this.move(MoverType.SELF, this.getDeltaMovement());
+                this.move(MoverType.SELF, this.activationTickInterval == 1 ? this.getDeltaMovement() : this.getDeltaMovement().scale(this.activationTickInterval)); // Paper - entity tick tiers
                 Vec3 vec3d1 = this.getDeltaMovement();
 
                 if (this.horizontalCollision && this.onClimbable()) {
@@ -2865,7 +2865,7 @@ public abstract class LivingEntity extends Entity {
     public Vec3 handleRelativeFrictionAndCalculateMovement(Vec3 movementInput, float slipperiness) {
         this.moveRelative(this.getFrictionInfluencedSpeed(slipperiness), movementInput);
         this.setDeltaMovement(this.handleOnClimbable(this.getDeltaMovement()));
-        this.move(MoverType.SELF, this.getDeltaMovement());
+        this.move(MoverType.SELF, this.activationTickInterval == 1 ? this.getDeltaMovement() : this.getDeltaMovement().scale(this.activationTickInterval)); // Paper - entity tick tiers
         Vec3 vec3d1 = this.getDeltaMovement();
 
         if ((this.horizontalCollision || this.jumping) && (this.onClimbable() || this.getFeetBlockState().is(Blocks.POWDER_SNOW) && PowderSnowBlock.canEntityWalkOnPowderSnow(this))) {
@@ -3443,11 +3443,20 @@ public abstract class LivingEntity extends Entity {
     protected void pushEntities() {
         // Paper start - don't run getEntities if we're not going to use its result
         int i = this.level.getGameRules().getInt(GameRules.RULE_MAX_ENTITY_CRAMMING);
-        if (i <= 0 && level.paperConfig().collisions.maxEntityCollisions <= 0) {
+        int maxCollisions = level.paperConfig().collisions.maxEntityCollisions; // Paper - bounded push queries
+        if (i <= 0 && maxCollisions <= 0) { // Paper - bounded push queries
             return;
         }
         // Paper end - don't run getEntities if we're not going to use its result
-        List<Entity> list = this.level.getEntities((Entity) this, this.getBoundingBox(), EntitySelector.pushable(this, level.paperConfig().collisions.fixClimbingBypassingCrammingRule)); // Paper - fix climbing bypassing cramming rule
+        // Paper start - bounded push queries
+        // Only the first entities of the vanilla query are used: up to maxCollisions entities are pushed, and cramming only
+        // needs to know whether there are at least i entities. Stop the query there instead of collecting the whole crowd.
+        int pushes = maxCollisions - Math.max(0, this.numCollisions - maxCollisions);
+        int limit = Math.max(1, Math.max(pushes, i)); // at least one to know whether the list is empty
+        Predicate<Entity> pushable = EntitySelector.pushable(this, level.paperConfig().collisions.fixClimbingBypassingCrammingRule); // Paper - fix climbing bypassing cramming rule
+        List<Entity> list = io.papermc.paper.util.CachedLists.getTempGetEntitiesList();
+        try {
+        this.level.getEntities((Entity) this, this.getBoundingBox(), pushable, list, limit);
 
         if (!list.isEmpty()) {
             // Paper - move up
@@ -3462,13 +3471,20 @@ public abstract class LivingEntity extends Entity {
                     }
                 }
 
+                if (j <= i - 1 && list.size() >= limit) {
+                    // the query was cut short and passengers were skipped, count the remaining entities
+                    List<Entity> notPassengers = new java.util.ArrayList<>(i);
+                    this.level.getEntities((Entity) this, this.getBoundingBox(), pushable.and(entity -> !entity.isPassenger()), notPassengers, i);
+                    j = notPassengers.size();
+                }
+
                 if (j > i - 1) {
                     this.hurt(DamageSource.CRAMMING, 6.0F);
                 }
             }
 
-            this.numCollisions = Math.max(0, this.numCollisions - this.level.paperConfig().collisions.maxEntityCollisions); // Paper
-            for (j = 0; j < list.size() && this.numCollisions < this.level.paperConfig().collisions.maxEntityCollisions; ++j) { // Paper
+            this.numCollisions = Math.max(0, this.numCollisions - maxCollisions); // Paper
+            for (j = 0; j < list.size() && this.numCollisions < maxCollisions; ++j) { // Paper
                 Entity entity = (Entity) list.get(j);
                 entity.numCollisions++; // Paper
                 this.numCollisions++; // Paper
@@ -3476,6 +3492,10 @@ public abstract class LivingEntity extends Entity {
                 this.doPush(entity);
             }
         }
+        } finally {
+            io.papermc.paper.util.CachedLists.returnTempGetEntitiesList(list);
+        }
+        // Paper end - bounded push queries
 
     }
 
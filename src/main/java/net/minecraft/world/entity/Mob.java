@@ -841,7 +841,7 @@ public abstract class Mob extends LivingEntity {
 
     @Override
     protected final void serverAiStep() {
-        ++this.noActionTime;
+        this.noActionTime += this.activationTickInterval; // Paper - entity tick tiers
         if (!this.aware) { // Paper start - Allow nerfed mobs to jump, float and take water damage
             if (goalFloat != null) {
                 if (goalFloat.canUse()) goalFloat.tick();
@@ -858,7 +858,7 @@ public abstract class Mob extends LivingEntity {
         this.level.getProfiler().pop();
         int i = this.level.getServer().getTickCount() + this.getId();
 
-        if (i % 2 != 0 && this.tickCount > 1) {
+        if (i % 2 != 0 && this.tickCount > 1 && this.activationTickInterval == 1) { // Paper - entity tick tiers - always re-evaluate goals on tiered ticks
             this.level.getProfiler().push("targetSelector");
             this.targetSelector.tickRunningGoals(false);
             this.level.getProfiler().pop();
@@ -163,6 +163,10 @@ public abstract class Level implements LevelAccessor, AutoCloseable {
     public int wakeupInactiveRemainingFlying;
     public int wakeupInactiveRemainingMonsters;
     public int wakeupInactiveRemainingVillagers;
+    // Paper start - entity tick tiers
+    public final int[] entityTickTierCounts = new int[org.spigotmc.ActivationRange.TIER_COUNT];
+    public final int[] lastEntityTickTierCounts = new int[org.spigotmc.ActivationRange.TIER_COUNT];
+    // Paper end - entity tick tiers
     // Paper end
     public boolean populating;
     public final org.spigotmc.SpigotWorldConfig spigotConfig; // Spigot
@@ -1440,6 +1444,18 @@ public abstract class Level implements LevelAccessor, AutoCloseable {
         this.entitySliceManager.getHardCollidingEntities(except, box, into, predicate);
     }
 
+    // Paper start - bounded push queries
+    public void getEntities(@Nullable Entity except, AABB box, Predicate<? super Entity> predicate, List<Entity> into, int limit) {
+        this.entitySliceManager.getEntities(except, box, into, predicate, limit);
+    }
+    // Paper end - bounded push queries
+
+    // Paper start - allocation free entity movement
+    public boolean mayHaveHardCollidingEntities(double minX, double minZ, double maxX, double maxZ) {
+        return this.entitySliceManager.mayHaveHardCollidingEntities(minX, minZ, maxX, maxZ);
+    }
+    // Paper end - allocation free entity movement
+
     @Override
     public <T> void getEntitiesByClass(Class<? extends T> clazz, Entity except, final AABB box, List<? super T> into,
                                        Predicate<? super T> predicate) {
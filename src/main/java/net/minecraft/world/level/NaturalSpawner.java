@@ -77,6 +77,7 @@ public final class NaturalSpawner {
         // Paper end
         PotentialCalculator spawnercreatureprobabilities = new PotentialCalculator();
         Object2IntOpenHashMap<MobCategory> object2intopenhashmap = new Object2IntOpenHashMap();
+        it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap<LevelChunk, int[]> countsByChunk = countMobs ? new it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap<>() : null; // Paper - count mobs per chunk
         Iterator iterator = entities.iterator();
 
         while (iterator.hasNext()) {
@@ -116,13 +117,23 @@ public final class NaturalSpawner {
                     object2intopenhashmap.addTo(enumcreaturetype, 1);
                     // Paper start
                     if (countMobs) {
-                        chunk.level.getChunkSource().chunkMap.updatePlayerMobTypeMap(entity);
+                        countsByChunk.computeIfAbsent(chunk, key -> new int[MobCategory.values().length])[enumcreaturetype.ordinal()]++; // Paper - count mobs per chunk
                     }
                     // Paper end
                 });
             }
         }
 
+        // Paper start - count mobs per chunk
+        if (countsByChunk != null) {
+            // add the counts to the players in range once per chunk instead of once per entity
+            for (it.unimi.dsi.fastutil.objects.Reference2ObjectMap.Entry<LevelChunk, int[]> entry : countsByChunk.reference2ObjectEntrySet()) {
+                LevelChunk chunk = entry.getKey();
+                chunk.level.getChunkSource().chunkMap.updatePlayerMobTypeMap(chunk.getPos(), entry.getValue());
+            }
+        }
+        // Paper end - count mobs per chunk
+
         return new NaturalSpawner.SpawnState(spawningChunkCount, object2intopenhashmap, spawnercreatureprobabilities, localmobcapcalculator);
     }
 
@@ -183,6 +194,7 @@ public final class NaturalSpawner {
                 int spawnCount = NaturalSpawner.spawnCategoryForChunk(enumcreaturetype, world, chunk, spawnercreature_c, info::afterSpawn,
                     difference, world.paperConfig().entities.spawning.perPlayerMobSpawns ? world.getChunkSource().chunkMap::updatePlayerMobTypeMap : null);
                 info.mobCategoryCounts.mergeInt(enumcreaturetype, spawnCount, Integer::sum);
+                io.papermc.paper.world.NaturalSpawnStatistics.recordSpawned(enumcreaturetype, spawnCount); // Paper - natural spawn statistics
                 // Paper end
             }
         }
@@ -208,10 +220,12 @@ public final class NaturalSpawner {
     public static int spawnCategoryForChunk(MobCategory group, ServerLevel world, LevelChunk chunk, NaturalSpawner.SpawnPredicate checker, NaturalSpawner.AfterSpawnCallback runner, int maxSpawns, Consumer<Entity> trackEntity) {
         // Paper end - add parameters and int ret type
         BlockPos blockposition = NaturalSpawner.getRandomPosWithin(world, chunk);
+        io.papermc.paper.world.NaturalSpawnStatistics.recordAttempt(group); // Paper - natural spawn statistics
 
         if (blockposition.getY() >= world.getMinBuildHeight() + 1) {
             return NaturalSpawner.spawnCategoryForPosition(group, world, chunk, blockposition, checker, runner, maxSpawns, trackEntity); // Paper
         }
+        io.papermc.paper.world.NaturalSpawnStatistics.recordRejectedStart(group); // Paper - natural spawn statistics
         return 0; // Paper
     }
 
@@ -327,6 +341,8 @@ public final class NaturalSpawner {
                 }
             }
 
+        } else {
+            io.papermc.paper.world.NaturalSpawnStatistics.recordRejectedStart(group); // Paper - natural spawn statistics
         }
         return j; // Paper
     }
@@ -354,14 +370,20 @@ public final class NaturalSpawner {
             }
         }
         // Paper end
+        io.papermc.paper.world.NaturalSpawnStatistics.recordPositionChecked(group); // Paper - natural spawn statistics
         if (entitytypes.getCategory() == MobCategory.MISC) {
             return false;
         } else if (!entitytypes.canSpawnFarFromPlayer() && squaredDistance > (double) (entitytypes.getCategory().getDespawnDistance() * entitytypes.getCategory().getDespawnDistance())) {
             return false;
-        } else if (entitytypes.canSummon() && NaturalSpawner.canSpawnMobAt(world, structureAccessor, chunkGenerator, group, spawnEntry, pos)) {
-            SpawnPlacements.Type entitypositiontypes_surface = SpawnPlacements.getPlacementType(entitytypes);
-
-            return !NaturalSpawner.isSpawnPositionOk(entitypositiontypes_surface, world, pos, entitytypes) ? false : (!SpawnPlacements.checkSpawnRules(entitytypes, world, MobSpawnType.NATURAL, pos, world.random) ? false : world.noCollision(entitytypes.getAABB((double) pos.getX() + 0.5D, (double) pos.getY(), (double) pos.getZ() + 0.5D)));
+        // Paper start - check the blocks before looking up structures, neither uses the random
+        } else if (!entitytypes.canSummon()) {
+            return false;
+        } else if (!NaturalSpawner.isSpawnPositionOk(SpawnPlacements.getPlacementType(entitytypes), world, pos, entitytypes)) {
+            io.papermc.paper.world.NaturalSpawnStatistics.recordPositionRejectedEarly(group); // Paper - natural spawn statistics
+            return false;
+        } else if (NaturalSpawner.canSpawnMobAt(world, structureAccessor, chunkGenerator, group, spawnEntry, pos)) {
+            return !SpawnPlacements.checkSpawnRules(entitytypes, world, MobSpawnType.NATURAL, pos, world.random) ? false : world.noCollision(entitytypes.getAABB((double) pos.getX() + 0.5D, (double) pos.getY(), (double) pos.getZ() + 0.5D));
+        // Paper end - check the blocks before looking up structures, neither uses the random
         } else {
             return false;
         }
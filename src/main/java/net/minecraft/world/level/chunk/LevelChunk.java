@@ -577,6 +577,7 @@ public class LevelChunk extends ChunkAccess {
             if (iblockdata1 == iblockdata) {
                 return null;
             } else {
+                this.invalidateChunkPacket(); // Paper - shared chunk packets
                 Block block = iblockdata.getBlock();
 
                 ((Heightmap) this.heightmaps.get(Heightmap.Types.MOTION_BLOCKING)).update(j, i, l, iblockdata);
@@ -729,6 +730,7 @@ public class LevelChunk extends ChunkAccess {
             if (tileentity1 != null && tileentity1 != blockEntity) {
                 tileentity1.setRemoved();
             }
+            this.invalidateChunkPacket(); // Paper - shared chunk packets
 
             // CraftBukkit start
         } else {
@@ -788,12 +790,19 @@ public class LevelChunk extends ChunkAccess {
                 }
 
                 tileentity.setRemoved();
+                this.invalidateChunkPacket(); // Paper - shared chunk packets
             }
         }
 
         this.removeBlockEntityTicker(pos);
     }
 
+    // Paper start - shared chunk packets
+    private void invalidateChunkPacket() {
+        this.level.chunkSource.chunkMap.chunkPacketCache.invalidate(this.chunkPos.x, this.chunkPos.z);
+    }
+    // Paper end - shared chunk packets
+
     private <T extends BlockEntity> void removeGameEventListener(T blockEntity, ServerLevel worldserver) {
         Block block = blockEntity.getBlockState().getBlock();
 
@@ -895,6 +904,7 @@ public class LevelChunk extends ChunkAccess {
         // note: saving can be prevented, but not forced if no saving is actually required
         this.mustNotSave = !unloadEvent.isSaveChunk();
         this.level.getChunkSource().removeLoadedChunk(this); // Paper
+        this.invalidateChunkPacket(); // Paper - shared chunk packets
         // Paper start - neighbour cache
         int chunkX = this.chunkPos.x;
         int chunkZ = this.chunkPos.z;
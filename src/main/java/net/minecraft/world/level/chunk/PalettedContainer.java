@@ -257,7 +257,13 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
     }
 
     private static <T> DataResult<PalettedContainer<T>> unpack(IdMap<T> idList, PalettedContainer.Strategy paletteProvider, PalettedContainerRO.PackedData<T> serialized, T defaultValue, T @org.jetbrains.annotations.Nullable [] presetValues) { // Paper - Anti-Xray - Add preset values
-        List<T> list = serialized.paletteEntries();
+        // Paper start - streaming chunk reads
+        return unpack(idList, paletteProvider, serialized.paletteEntries(), serialized.storage().map(LongStream::toArray).orElse(null), defaultValue, presetValues);
+    }
+
+    // the storage array is used directly when possible, it must not be modified afterwards
+    public static <T> DataResult<PalettedContainer<T>> unpack(IdMap<T> idList, PalettedContainer.Strategy paletteProvider, List<T> list, long @org.jetbrains.annotations.Nullable [] storage, T defaultValue, T @org.jetbrains.annotations.Nullable [] presetValues) {
+        // Paper end - streaming chunk reads
         int i = paletteProvider.size();
         int j = paletteProvider.calculateBitsForSerialization(idList, list.size());
         PalettedContainer.Configuration<T> configuration = paletteProvider.getConfiguration(idList, j);
@@ -265,12 +271,13 @@ public class PalettedContainer<T> implements PaletteResize<T>, PalettedContainer
         if (j == 0) {
             bitStorage = new ZeroBitStorage(i);
         } else {
-            Optional<LongStream> optional = serialized.storage();
-            if (optional.isEmpty()) {
+            // Paper start - streaming chunk reads
+            if (storage == null) {
                 return DataResult.error("Missing values for non-zero storage");
             }
 
-            long[] ls = optional.get().toArray();
+            long[] ls = storage;
+            // Paper end - streaming chunk reads
 
             try {
                 if (configuration.factory() == PalettedContainer.Strategy.GLOBAL_PALETTE_FACTORY) {
@@ -178,6 +178,7 @@ public class ChunkSerializer {
         Registry<Biome> iregistry = world.registryAccess().registryOrThrow(Registry.BIOME_REGISTRY);
         Codec<PalettedContainer<Holder<Biome>>> codec = ChunkSerializer.makeBiomeCodecRW(iregistry); // CraftBukkit - read/write
         boolean flag2 = false;
+        final io.papermc.paper.world.StreamingChunkReader.DecodedSection[] decodedSections = nbt instanceof io.papermc.paper.world.StreamingChunkReader.StreamedChunkTag streamedTag ? streamedTag.getDecodedSections() : null; // Paper - streaming chunk reads
 
         DataResult dataresult;
 
@@ -191,7 +192,16 @@ public class ChunkSerializer {
                 PalettedContainer datapaletteblock;
                 // Paper start - Anti-Xray - Add preset block states
                 BlockState[] presetBlockStates = world.chunkPacketBlockController.getPresetBlockStates(world, chunkPos, b0 << 4);
+                // Paper start - streaming chunk reads
+                final io.papermc.paper.world.StreamingChunkReader.DecodedSection decoded = decodedSections != null && j < decodedSections.length ? decodedSections[j] : null;
 
+                if (decoded != null && decoded.blockStates != null) {
+                    dataresult = PalettedContainer.unpack(Block.BLOCK_STATE_REGISTRY, PalettedContainer.Strategy.SECTION_STATES, decoded.blockStates, decoded.blockStateData, Blocks.AIR.defaultBlockState(), presetBlockStates).promotePartial((s) -> {
+                        ChunkSerializer.logErrors(chunkPos, b0, s);
+                    });
+                    datapaletteblock = ((DataResult<PalettedContainer<BlockState>>) dataresult).getOrThrow(false, ChunkSerializer.LOGGER::error);
+                } else
+                // Paper end - streaming chunk reads
                 if (nbttagcompound1.contains("block_states", 10)) {
                     Codec<PalettedContainer<BlockState>> blockStateCodec = presetBlockStates == null ? ChunkSerializer.BLOCK_STATE_CODEC : PalettedContainer.codecRW(Block.BLOCK_STATE_REGISTRY, BlockState.CODEC, PalettedContainer.Strategy.SECTION_STATES, Blocks.AIR.defaultBlockState(), presetBlockStates);
                     dataresult = blockStateCodec.parse(NbtOps.INSTANCE, nbttagcompound1.getCompound("block_states")).promotePartial((s) -> {
@@ -207,6 +217,21 @@ public class ChunkSerializer {
 
                 PalettedContainer object; // CraftBukkit - read/write
 
+                // Paper start - streaming chunk reads
+                final java.util.List<Holder<Biome>> decodedBiomes = decoded != null && decoded.biomes != null ? ChunkSerializer.resolveBiomes(iregistry, decoded.biomes) : null;
+                if (decodedBiomes != null) {
+                    dataresult = PalettedContainer.unpack(iregistry.asHolderIdMap(), PalettedContainer.Strategy.SECTION_BIOMES, decodedBiomes, decoded.biomeData, iregistry.getHolderOrThrow(Biomes.PLAINS), null).promotePartial((s) -> {
+                        ChunkSerializer.logErrors(chunkPos, b0, s);
+                    });
+                    object = ((DataResult<PalettedContainer<Holder<Biome>>>) dataresult).getOrThrow(false, ChunkSerializer.LOGGER::error);
+                } else if (decoded != null && decoded.biomes != null) {
+                    // unknown biomes, let the codec report and handle them
+                    dataresult = codec.parse(NbtOps.INSTANCE, decoded.writeBiomes()).promotePartial((s) -> {
+                        ChunkSerializer.logErrors(chunkPos, b0, s);
+                    });
+                    object = ((DataResult<PalettedContainer<Holder<Biome>>>) dataresult).getOrThrow(false, ChunkSerializer.LOGGER::error);
+                } else
+                // Paper end - streaming chunk reads
                 if (nbttagcompound1.contains("biomes", 10)) {
                     dataresult = codec.parse(NbtOps.INSTANCE, nbttagcompound1.getCompound("biomes")).promotePartial((s) -> {
                         ChunkSerializer.logErrors(chunkPos, b0, s);
@@ -457,8 +482,27 @@ public class ChunkSerializer {
         Tag blockTickList, // non-null if we had to go to the server's tick list
         Tag fluidTickList, // non-null if we had to go to the server's tick list
         ListTag blockEntities,
-        long worldTime
+        long worldTime,
+        @Nullable ChunkSnapshot snapshot // Paper - off-main autosave serialization - non-null if the chunk is still loaded
+    ) {}
+
+    // Paper start - off-main autosave serialization
+    // Copy of the mutable state of a loaded chunk, so that it can be serialized while the chunk keeps ticking.
+    // Only cheap copies are made here, the expensive palette encoding is left to saveChunk.
+    public record ChunkSnapshot(
+        PalettedContainer<BlockState>[] blockStates,
+        PalettedContainerRO<Holder<Biome>>[] biomes,
+        ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState[] blockNibbles,
+        ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState[] skyNibbles,
+        boolean lightCorrect,
+        long inhabitedTime,
+        @Nullable CompoundTag upgradeData,
+        ListTag postProcessing,
+        CompoundTag heightmaps,
+        CompoundTag structures,
+        @Nullable CompoundTag persistentData
     ) {}
+    // Paper end - off-main autosave serialization
 
     // must be called sync
     public static AsyncSaveData getAsyncSaveData(ServerLevel world, ChunkAccess chunk) {
@@ -503,11 +547,89 @@ public class ChunkSerializer {
             tickLists.get(BLOCK_TICKS_TAG),
             tickLists.get(FLUID_TICKS_TAG),
             blockEntitiesSerialized,
-            world.getGameTime()
+            world.getGameTime(),
+            null // Paper - off-main autosave serialization
         );
     }
     // Paper end
 
+    // Paper start - off-main autosave serialization
+    // must be called sync
+    @SuppressWarnings("unchecked")
+    public static AsyncSaveData getAsyncSaveSnapshot(ServerLevel world, LevelChunk chunk) {
+        final AsyncSaveData saveData = getAsyncSaveData(world, chunk);
+
+        final LevelChunkSection[] sections = chunk.getSections();
+        final PalettedContainer<BlockState>[] blockStates = new PalettedContainer[sections.length];
+        final PalettedContainerRO<Holder<Biome>>[] biomes = new PalettedContainerRO[sections.length];
+        for (int i = 0; i < sections.length; ++i) {
+            blockStates[i] = sections[i].getStates().copy();
+            biomes[i] = ((PalettedContainer<Holder<Biome>>) sections[i].getBiomes()).copy(); // CraftBukkit made the biomes read/write
+        }
+
+        final ca.spottedleaf.starlight.common.light.SWMRNibbleArray[] blockNibbles = chunk.getBlockNibbles();
+        final ca.spottedleaf.starlight.common.light.SWMRNibbleArray[] skyNibbles = chunk.getSkyNibbles();
+        final ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState[] blockSaveStates = new ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState[blockNibbles.length];
+        final ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState[] skySaveStates = new ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState[skyNibbles.length];
+        for (int i = 0; i < blockNibbles.length; ++i) {
+            blockSaveStates[i] = blockNibbles[i].getSaveState(); // copies the nibble data
+        }
+        for (int i = 0; i < skyNibbles.length; ++i) {
+            skySaveStates[i] = skyNibbles[i].getSaveState(); // copies the nibble data
+        }
+
+        final CompoundTag heightmaps = new CompoundTag();
+        for (final Entry<Heightmap.Types, Heightmap> entry : chunk.getHeightmaps()) {
+            if (chunk.getStatus().heightmapsAfter().contains(entry.getKey())) {
+                heightmaps.put(entry.getKey().getSerializationKey(), new LongArrayTag(entry.getValue().getRawData().clone()));
+            }
+        }
+
+        final UpgradeData upgradeData = chunk.getUpgradeData();
+
+        final ChunkSnapshot snapshot = new ChunkSnapshot(
+            blockStates,
+            biomes,
+            blockSaveStates,
+            skySaveStates,
+            chunk.isLightCorrect(),
+            chunk.getInhabitedTime(),
+            upgradeData.isEmpty() ? null : upgradeData.write(),
+            ChunkSerializer.packOffsets(chunk.getPostProcessing()),
+            heightmaps,
+            ChunkSerializer.packStructureData(StructurePieceSerializationContext.fromLevel(world), chunk.getPos(), chunk.getAllStarts(), chunk.getAllReferences()),
+            chunk.persistentDataContainer.isEmpty() ? null : chunk.persistentDataContainer.toTagCompound()
+        );
+
+        return new AsyncSaveData(
+            saveData.blockLight,
+            saveData.skyLight,
+            saveData.blockTickList,
+            saveData.fluidTickList,
+            saveData.blockEntities,
+            saveData.worldTime,
+            snapshot
+        );
+    }
+    // Paper end - off-main autosave serialization
+
+    // Paper start - streaming chunk reads
+    // returns null if any biome is unknown
+    @Nullable
+    private static java.util.List<Holder<Biome>> resolveBiomes(Registry<Biome> registry, java.util.List<String> names) {
+        final java.util.List<Holder<Biome>> ret = new java.util.ArrayList<>(names.size());
+        for (final String name : names) {
+            final ResourceLocation id = ResourceLocation.tryParse(name);
+            final Optional<Holder<Biome>> holder = id == null ? Optional.empty() : registry.getHolder(net.minecraft.resources.ResourceKey.create(Registry.BIOME_REGISTRY, id));
+            if (holder.isEmpty()) {
+                return null;
+            }
+            ret.add(holder.get());
+        }
+        return ret;
+    }
+    // Paper end - streaming chunk reads
+
     private static void logErrors(ChunkPos chunkPos, int y, String message) {
         ChunkSerializer.LOGGER.error("Recoverable errors when loading section [" + chunkPos.x + ", " + y + ", " + chunkPos.z + "]: " + message);
     }
@@ -528,6 +650,7 @@ public class ChunkSerializer {
     }
     public static CompoundTag saveChunk(ServerLevel world, ChunkAccess chunk, @org.checkerframework.checker.nullness.qual.Nullable AsyncSaveData asyncsavedata) {
         // Paper end
+        final ChunkSnapshot snapshot = asyncsavedata == null ? null : asyncsavedata.snapshot; // Paper - off-main autosave serialization
         // Paper start - rewrite light impl
         final int minSection = io.papermc.paper.util.WorldUtil.getMinLightSection(world);
         final int maxSection = io.papermc.paper.util.WorldUtil.getMaxLightSection(world);
@@ -542,7 +665,7 @@ public class ChunkSerializer {
         nbttagcompound.putInt("yPos", chunk.getMinSection());
         nbttagcompound.putInt("zPos", chunkcoordintpair.z);
         nbttagcompound.putLong("LastUpdate", asyncsavedata != null ? asyncsavedata.worldTime : world.getGameTime()); // Paper - async chunk unloading // Paper - diff on change
-        nbttagcompound.putLong("InhabitedTime", chunk.getInhabitedTime());
+        nbttagcompound.putLong("InhabitedTime", snapshot != null ? snapshot.inhabitedTime : chunk.getInhabitedTime()); // Paper - off-main autosave serialization
         nbttagcompound.putString("Status", chunk.getStatus().getName());
         BlendingData blendingdata = chunk.getBlendingData();
         DataResult<Tag> dataresult; // CraftBukkit - decompile error
@@ -568,39 +691,47 @@ public class ChunkSerializer {
             });
         }
 
+        // Paper start - off-main autosave serialization
+        if (snapshot != null) {
+            if (snapshot.upgradeData != null) {
+                nbttagcompound.put("UpgradeData", snapshot.upgradeData);
+            }
+        } else {
+        // Paper end - off-main autosave serialization
         UpgradeData chunkconverter = chunk.getUpgradeData();
 
         if (!chunkconverter.isEmpty()) {
             nbttagcompound.put("UpgradeData", chunkconverter.write());
         }
+        } // Paper - off-main autosave serialization
 
         LevelChunkSection[] achunksection = chunk.getSections();
         ListTag nbttaglist = new ListTag();
         ThreadedLevelLightEngine lightenginethreaded = world.getChunkSource().getLightEngine();
         Registry<Biome> iregistry = world.registryAccess().registryOrThrow(Registry.BIOME_REGISTRY);
         Codec<PalettedContainerRO<Holder<Biome>>> codec = ChunkSerializer.makeBiomeCodec(iregistry);
-        boolean flag = chunk.isLightCorrect();
+        boolean flag = snapshot != null ? snapshot.lightCorrect : chunk.isLightCorrect(); // Paper - off-main autosave serialization
 
         for (int i = lightenginethreaded.getMinLightSection(); i < lightenginethreaded.getMaxLightSection(); ++i) {
             int j = chunk.getSectionIndexFromSectionY(i);
-            boolean flag1 = j >= 0 && j < achunksection.length;
+            boolean flag1 = j >= 0 && j < (snapshot != null ? snapshot.blockStates.length : achunksection.length); // Paper - off-main autosave serialization
             // Paper - replace light engine
 
             // Paper start - replace light engine
-            ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState blockNibble = blockNibbles[i - minSection].getSaveState();
-            ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState skyNibble = skyNibbles[i - minSection].getSaveState();
+            ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState blockNibble = snapshot != null ? snapshot.blockNibbles[i - minSection] : blockNibbles[i - minSection].getSaveState(); // Paper - off-main autosave serialization
+            ca.spottedleaf.starlight.common.light.SWMRNibbleArray.SaveState skyNibble = snapshot != null ? snapshot.skyNibbles[i - minSection] : skyNibbles[i - minSection].getSaveState(); // Paper - off-main autosave serialization
             if (flag1 || blockNibble != null || skyNibble != null) {
                 // Paper end - replace light engine
                 CompoundTag nbttagcompound1 = new CompoundTag(); CompoundTag section = nbttagcompound1; // Paper
 
                 if (flag1) {
-                    LevelChunkSection chunksection = achunksection[j];
-                    DataResult<Tag> dataresult1 = ChunkSerializer.BLOCK_STATE_CODEC.encodeStart(NbtOps.INSTANCE, chunksection.getStates()); // CraftBukkit - decompile error
+                    LevelChunkSection chunksection = snapshot != null ? null : achunksection[j]; // Paper - off-main autosave serialization
+                    DataResult<Tag> dataresult1 = ChunkSerializer.BLOCK_STATE_CODEC.encodeStart(NbtOps.INSTANCE, snapshot != null ? snapshot.blockStates[j] : chunksection.getStates()); // CraftBukkit - decompile error // Paper - off-main autosave serialization
                     Logger logger1 = ChunkSerializer.LOGGER;
 
                     Objects.requireNonNull(logger1);
                     nbttagcompound1.put("block_states", (Tag) dataresult1.getOrThrow(false, logger1::error));
-                    dataresult1 = codec.encodeStart(NbtOps.INSTANCE, chunksection.getBiomes());
+                    dataresult1 = codec.encodeStart(NbtOps.INSTANCE, snapshot != null ? snapshot.biomes[j] : chunksection.getBiomes()); // Paper - off-main autosave serialization
                     logger1 = ChunkSerializer.LOGGER;
                     Objects.requireNonNull(logger1);
                     nbttagcompound1.put("biomes", (Tag) dataresult1.getOrThrow(false, logger1::error));
@@ -696,7 +827,17 @@ public class ChunkSerializer {
         ChunkSerializer.saveTicks(world, nbttagcompound, chunk.getTicksForSerialization());
         }
         // Paper end
-        nbttagcompound.put("PostProcessing", ChunkSerializer.packOffsets(chunk.getPostProcessing()));
+        nbttagcompound.put("PostProcessing", snapshot != null ? snapshot.postProcessing : ChunkSerializer.packOffsets(chunk.getPostProcessing())); // Paper - off-main autosave serialization
+        // Paper start - off-main autosave serialization
+        if (snapshot != null) {
+            nbttagcompound.put("Heightmaps", snapshot.heightmaps);
+            nbttagcompound.put("structures", snapshot.structures);
+            if (snapshot.persistentData != null) {
+                nbttagcompound.put("ChunkBukkitValues", snapshot.persistentData);
+            }
+            return nbttagcompound;
+        }
+        // Paper end - off-main autosave serialization
         CompoundTag nbttagcompound3 = new CompoundTag();
         Iterator iterator1 = chunk.getHeightmaps().iterator();
 
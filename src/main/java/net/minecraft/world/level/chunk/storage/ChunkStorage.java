@@ -38,10 +38,15 @@ public class ChunkStorage implements AutoCloseable {
     // Paper end - async chunk loading
 
     public ChunkStorage(Path directory, DataFixer dataFixer, boolean dsync) {
+        // Paper start - configurable chunk compression
+        this(directory, dataFixer, dsync, RegionFileVersion.VERSION_DEFLATE);
+    }
+    public ChunkStorage(Path directory, DataFixer dataFixer, boolean dsync, RegionFileVersion compression) {
+        // Paper end - configurable chunk compression
         this.fixerUpper = dataFixer;
         // Paper start - async chunk io
         // remove IO worker
-        this.regionFileCache = new RegionFileStorage(directory, dsync, true); // Paper - nuke IOWorker // Paper
+        this.regionFileCache = new RegionFileStorage(directory, dsync, true, compression); // Paper - nuke IOWorker // Paper // Paper - configurable chunk compression
         // Paper end - async chunk io
     }
 
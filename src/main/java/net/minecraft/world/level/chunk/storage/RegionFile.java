@@ -91,9 +91,9 @@ public class RegionFile implements AutoCloseable {
                 return null;
             }
 
-            InputStream input = compression.wrap(new ByteArrayInputStream(chunkData.array(), chunkData.position(), chunkDataLength - chunkData.position()));
-
-            return NbtIo.read(new DataInputStream(input));
+            try (DataInputStream input = new DataInputStream(compression.wrap(new ByteArrayInputStream(chunkData.array(), chunkData.position(), chunkDataLength - chunkData.position())))) { // Paper - close native decompression streams
+                return NbtIo.read(input);
+            }
         } catch (Exception ex) {
             return null;
         }
@@ -243,8 +243,7 @@ public class RegionFile implements AutoCloseable {
                     // We do not know the compression type, as it's stored in the regionfile. So we need to try all of them
                     RegionFileVersion compression = null;
                     for (RegionFileVersion compressionType : RegionFileVersion.VERSIONS.values()) {
-                        try {
-                            DataInputStream in = new DataInputStream(compressionType.wrap(new ByteArrayInputStream(chunkData))); // typical java
+                        try (DataInputStream in = new DataInputStream(compressionType.wrap(new ByteArrayInputStream(chunkData)))) { // typical java // Paper - close native decompression streams
                             compound = NbtIo.read((java.io.DataInput)in);
                             compression = compressionType;
                             break; // reaches here iff readNBT does not throw
@@ -403,7 +402,7 @@ public class RegionFile implements AutoCloseable {
     // Paper start - Cache chunk status
     private final net.minecraft.world.level.chunk.ChunkStatus[] statuses = new net.minecraft.world.level.chunk.ChunkStatus[32 * 32];
 
-    private boolean closed;
+    private volatile boolean closed; // Paper - memory mapped reads - read without any lock
 
     // invoked on write/read
     public void setStatus(int x, int z, net.minecraft.world.level.chunk.ChunkStatus status) {
@@ -453,7 +452,8 @@ public class RegionFile implements AutoCloseable {
             ((java.nio.Buffer) this.offsets).limit(1024); // CraftBukkit - decompile error
             ((java.nio.Buffer) this.header).position(4096); // CraftBukkit - decompile error
             this.timestamps = this.header.asIntBuffer();
-            if (dsync) {
+            this.syncWrites = dsync; // Paper - batched writes
+            if (dsync && !this.batchWrites) { // Paper - batched writes - batches are synced once as a whole
                 this.file = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DSYNC);
             } else {
                 this.file = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
@@ -582,8 +582,228 @@ public class RegionFile implements AutoCloseable {
     }
     // Paper end
 
+    // Paper start - memory mapped reads
+    private final boolean mappedReads = io.papermc.paper.configuration.GlobalConfiguration.get() != null && io.papermc.paper.configuration.GlobalConfiguration.get().misc.memoryMapRegionFileReads;
+    private final Object mappingLock = new Object();
+    private volatile java.nio.MappedByteBuffer mapping;
+    // open readers decompressing from the mapping, the sectors they read may not be reused until they are closed
+    private final Object readersLock = new Object();
+    private final it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet<MappedChunkInputStream> mappedReaders = new it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet<>();
+    // start, count pairs of sectors freed while a reader was reading them, guarded by the lock on this
+    private final it.unimi.dsi.fastutil.ints.IntArrayList deferredFrees = new it.unimi.dsi.fastutil.ints.IntArrayList();
+
+    @Nullable
+    public DataInputStream getChunkDataInputStream(ChunkPos pos) throws IOException {
+        final DataInputStream ret = this.getMappedChunkDataInputStream(pos);
+        if (ret != null) {
+            return ret;
+        }
+        return this.getChunkDataInputStreamSync(pos);
+    }
+
+    /**
+     * Returns a stream reading the chunk from the mapping of this file, without taking any lock for the duration of
+     * the read. Returns {@code null} if the chunk cannot be read from the mapping, the caller must then use the
+     * synchronized path. This includes missing chunks, external (.mcc) chunks and anything that looks corrupt, so
+     * header recalculation is only ever performed by the synchronized path. The returned stream must be closed, until
+     * then it blocks {@link #close()}, so the file cannot be reopened and its sectors reused while it is read.
+     */
     @Nullable
-    public synchronized DataInputStream getChunkDataInputStream(ChunkPos pos) throws IOException {
+    public DataInputStream getMappedChunkDataInputStream(final ChunkPos pos) throws IOException {
+        if (!this.mappedReads || this.stagedWriteCount != 0 || this.closed) { // Paper - batched writes - staged data is only visible to the synchronized path
+            return null;
+        }
+
+        final MappedChunkInputStream reader;
+        synchronized (this.readersLock) {
+            if (this.closed) {
+                // close is set while holding the lock, so a registered reader always blocks the close
+                return null;
+            }
+            // the offset is read while holding the lock, so a write freeing the sectors either sees this reader or
+            // was visible before the offset is read, see freeSectors
+            final int offset = this.getOffset(pos);
+            if (offset == 0) {
+                return null;
+            }
+            final int sector = RegionFile.getSectorNumber(offset);
+            final int sectors = RegionFile.getNumSectors(offset);
+            // the oversized flags are only read here to skip to the synchronized path early, which checks them again
+            if (sectors == 255 || sector < 2 || this.oversized[getChunkIndex(pos.x, pos.z)] == 1) {
+                // oversized (spigot) or invalid
+                return null;
+            }
+            reader = new MappedChunkInputStream(sector, sectors);
+            this.mappedReaders.add(reader);
+        }
+
+        boolean release = true;
+        try {
+            final ByteBuffer mapping = this.getMapping((long)(reader.sector + reader.sectors) * 4096L);
+            if (mapping == null) {
+                return null;
+            }
+
+            final int start = reader.sector * 4096;
+            final int length = mapping.getInt(start);
+            final byte version = mapping.get(start + 4);
+            if (length <= 0 || (length - 1) > (reader.sectors * 4096 - 5) || RegionFile.isExternalStreamChunk(version)) {
+                return null;
+            }
+            final RegionFileVersion compression = RegionFileVersion.fromId(version);
+            if (compression == null) {
+                return null;
+            }
+
+            reader.data = mapping.slice(start + 5, length - 1);
+            final DataInputStream ret = new DataInputStream(compression.wrap(reader));
+            release = false; // closing the stream releases the reader
+            return ret;
+        } finally {
+            if (release) {
+                reader.close();
+            }
+        }
+    }
+
+    @Nullable
+    private ByteBuffer getMapping(final long requiredSize) throws IOException {
+        java.nio.MappedByteBuffer mapping = this.mapping;
+        if (mapping != null && mapping.capacity() >= requiredSize) {
+            return mapping;
+        }
+        synchronized (this.mappingLock) {
+            mapping = this.mapping;
+            if (mapping != null && mapping.capacity() >= requiredSize) {
+                return mapping;
+            }
+            try {
+                // the file grew since the last mapping, remap it to its new size. readers of the old mapping keep it alive
+                final long size = this.file.size();
+                if (size < requiredSize || size > (long)Integer.MAX_VALUE) {
+                    return null;
+                }
+                return this.mapping = this.file.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+            } catch (final java.nio.channels.ClosedChannelException ex) {
+                // closed while reading without the file lock, the synchronized path reopens the file
+                return null;
+            }
+        }
+    }
+
+    // must hold the lock on readersLock
+    private boolean isBeingRead(final int start, final int count) {
+        for (final MappedChunkInputStream reader : this.mappedReaders) {
+            if (reader.sector < start + count && start < reader.sector + reader.sectors) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // must hold the lock on this
+    private void freeSectors(final int start, final int count) {
+        if (this.mappedReads) {
+            // The header was modified before taking the lock, so readers registering after this check read the new
+            // offsets. Sectors of readers registered before it are freed once those readers are closed
+            synchronized (this.readersLock) {
+                if (this.isBeingRead(start, count)) {
+                    this.deferredFrees.add(start);
+                    this.deferredFrees.add(count);
+                    return;
+                }
+            }
+        }
+        this.usedSectors.free(start, count);
+    }
+
+    // must hold the lock on this
+    private void processDeferredFrees() {
+        if (this.deferredFrees.isEmpty()) {
+            return;
+        }
+        synchronized (this.readersLock) {
+            int kept = 0;
+            for (int i = 0, len = this.deferredFrees.size(); i < len; i += 2) {
+                final int start = this.deferredFrees.getInt(i);
+                final int count = this.deferredFrees.getInt(i + 1);
+                if (this.isBeingRead(start, count)) {
+                    this.deferredFrees.set(kept++, start);
+                    this.deferredFrees.set(kept++, count);
+                } else {
+                    this.usedSectors.free(start, count);
+                }
+            }
+            this.deferredFrees.size(kept);
+        }
+    }
+
+    private final class MappedChunkInputStream extends InputStream {
+
+        private final int sector;
+        private final int sectors;
+        private ByteBuffer data;
+        private boolean closed;
+
+        private MappedChunkInputStream(final int sector, final int sectors) {
+            this.sector = sector;
+            this.sectors = sectors;
+        }
+
+        @Override
+        public int read() {
+            return this.data.hasRemaining() ? (this.data.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            final int remaining = this.data.remaining();
+            if (remaining == 0) {
+                return -1;
+            }
+            final int toRead = Math.min(len, remaining);
+            this.data.get(bytes, off, toRead);
+            return toRead;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final int toSkip = (int)Math.max(0L, Math.min(n, (long)this.data.remaining()));
+            this.data.position(this.data.position() + toSkip);
+            return toSkip;
+        }
+
+        @Override
+        public int available() {
+            return this.data.remaining();
+        }
+
+        @Override
+        public void close() {
+            if (!this.closed) {
+                this.closed = true;
+                synchronized (RegionFile.this.readersLock) {
+                    RegionFile.this.mappedReaders.remove(this);
+                    if (RegionFile.this.mappedReaders.isEmpty()) {
+                        RegionFile.this.readersLock.notifyAll(); // wake a close waiting for the readers
+                    }
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private synchronized DataInputStream getChunkDataInputStreamSync(ChunkPos pos) throws IOException {
+        // Paper end - memory mapped reads
+        // Paper start - batched writes
+        final StagedWrite staged = this.stagedWrites.get(RegionFile.getOffsetIndex(pos));
+        if (staged != null) {
+            return this.createChunkInputStream(pos, staged.data.get(4), new ByteArrayInputStream(staged.data.array(), 5, staged.data.limit() - 5));
+        }
+        // Paper end - batched writes
         int i = this.getOffset(pos);
 
         if (i == 0) {
@@ -730,6 +950,11 @@ public class RegionFile implements AutoCloseable {
     }
 
     public synchronized boolean doesChunkExist(ChunkPos pos) { // Paper - synchronized
+        // Paper start - batched writes
+        if (this.stagedWrites.containsKey(RegionFile.getOffsetIndex(pos))) {
+            return true;
+        }
+        // Paper end - batched writes
         int i = this.getOffset(pos);
 
         if (i == 0) {
@@ -786,11 +1011,17 @@ public class RegionFile implements AutoCloseable {
     }
 
     public void flush() throws IOException {
+        this.flushStagedWrites(); // Paper - batched writes
         this.file.force(true);
     }
 
-    public void clear(ChunkPos chunkcoordintpair) throws IOException {
+    public synchronized void clear(ChunkPos chunkcoordintpair) throws IOException { // Paper - synchronized
         int i = RegionFile.getOffsetIndex(chunkcoordintpair);
+        // Paper start - batched writes
+        if (this.stagedWrites.remove(i) != null) {
+            this.stagedWriteCount = this.stagedWrites.size();
+        }
+        // Paper end - batched writes
         int j = this.offsets.get(i);
 
         if (j != 0) {
@@ -798,11 +1029,18 @@ public class RegionFile implements AutoCloseable {
             this.timestamps.put(i, RegionFile.getTimestamp());
             this.writeHeader();
             Files.deleteIfExists(this.getExternalChunkPath(chunkcoordintpair));
-            this.usedSectors.free(RegionFile.getSectorNumber(j), RegionFile.getNumSectors(j));
+            this.freeSectors(RegionFile.getSectorNumber(j), RegionFile.getNumSectors(j)); // Paper - memory mapped reads
         }
     }
 
     protected synchronized void write(ChunkPos pos, ByteBuffer bytebuffer) throws IOException {
+        // Paper start - batched writes
+        if (this.batchWrites) {
+            this.stageWrite(pos, bytebuffer);
+            return;
+        }
+        // Paper end - batched writes
+        this.processDeferredFrees(); // Paper - memory mapped reads
         int i = RegionFile.getOffsetIndex(pos);
         int j = this.offsets.get(i);
         int k = RegionFile.getSectorNumber(j);
@@ -835,11 +1073,111 @@ public class RegionFile implements AutoCloseable {
         this.writeHeader();
         regionfile_b.run();
         if (k != 0) {
-            this.usedSectors.free(k, l);
+            this.freeSectors(k, l); // Paper - memory mapped reads
+        }
+
+    }
+
+    // Paper start - batched writes
+    private final boolean batchWrites = io.papermc.paper.configuration.GlobalConfiguration.get() != null && io.papermc.paper.configuration.GlobalConfiguration.get().asyncChunks.writeBatching.enabled;
+    private boolean syncWrites;
+    private final it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap<StagedWrite> stagedWrites = new it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap<>();
+    private volatile int stagedWriteCount;
+    private long firstStagedTime;
+
+    private record StagedWrite(ChunkPos pos, ByteBuffer data) {}
+
+    public boolean hasStagedWrites() {
+        return this.stagedWriteCount != 0;
+    }
+
+    // must hold the lock on this
+    private void stageWrite(final ChunkPos pos, final ByteBuffer data) throws IOException {
+        final io.papermc.paper.configuration.GlobalConfiguration.AsyncChunks.WriteBatching config = io.papermc.paper.configuration.GlobalConfiguration.get().asyncChunks.writeBatching;
+        if (this.stagedWrites.isEmpty()) {
+            this.firstStagedTime = System.nanoTime();
+            com.destroystokyo.paper.io.RegionFileBatchFlusher.scheduleFlush(this, config.maxDelay);
         }
+        this.stagedWrites.put(RegionFile.getOffsetIndex(pos), new StagedWrite(pos, data));
+        this.stagedWriteCount = this.stagedWrites.size();
 
+        if (this.stagedWrites.size() >= config.maxChunks || (System.nanoTime() - this.firstStagedTime) >= config.maxDelay * 1_000_000L) {
+            this.flushStagedWrites();
+        }
     }
 
+    /**
+     * Writes all staged chunks to disk. All chunks in the batch are allocated in a single pass, and the header is
+     * written once for the whole batch. If sync writes are enabled, the chunk data is synced before the header is
+     * written and the header is synced before the batch is committed. Sectors previously used by
+     * the chunks are only freed after the header is written, so a crash never leaves the header pointing at
+     * partially overwritten data.
+     */
+    public synchronized void flushStagedWrites() throws IOException {
+        if (this.stagedWrites.isEmpty()) {
+            return;
+        }
+        this.processDeferredFrees(); // Paper - memory mapped reads
+
+        final it.unimi.dsi.fastutil.ints.IntArrayList toFree = new it.unimi.dsi.fastutil.ints.IntArrayList();
+        final java.util.List<RegionFile.CommitOp> commitOps = new java.util.ArrayList<>();
+        try {
+            for (final java.util.Iterator<StagedWrite> iterator = this.stagedWrites.values().iterator(); iterator.hasNext();) {
+                final StagedWrite staged = iterator.next();
+                final int index = RegionFile.getOffsetIndex(staged.pos);
+                final int oldSectorData = this.offsets.get(index);
+                final ByteBuffer data = staged.data.duplicate(); // a failed write must not disturb the staged buffer
+                final int size = data.remaining();
+                final int sectors = RegionFile.sizeToSectors(size);
+                final int sector;
+
+                if (sectors >= 256) {
+                    final Path path = this.getExternalChunkPath(staged.pos);
+
+                    RegionFile.LOGGER.warn("Saving oversized chunk {} ({} bytes} to external file {}", new Object[]{staged.pos, size, path});
+                    sector = this.usedSectors.allocate(1);
+                    commitOps.add(this.writeToExternalFile(path, data));
+                    this.file.write(this.createExternalStub(), (long) (sector * 4096));
+                    this.offsets.put(index, this.packSectorOffset(sector, 1));
+                } else {
+                    sector = this.usedSectors.allocate(sectors);
+                    commitOps.add(() -> {
+                        Files.deleteIfExists(this.getExternalChunkPath(staged.pos));
+                    });
+                    this.file.write(data, (long) (sector * 4096));
+                    this.offsets.put(index, this.packSectorOffset(sector, sectors));
+                }
+
+                this.timestamps.put(index, RegionFile.getTimestamp());
+                iterator.remove();
+                if (oldSectorData != 0) {
+                    toFree.add(RegionFile.getSectorNumber(oldSectorData));
+                    toFree.add(RegionFile.getNumSectors(oldSectorData));
+                }
+            }
+        } finally {
+            // on failure, the remaining chunks stay staged and are retried by the next flush
+            this.stagedWriteCount = this.stagedWrites.size();
+            if (!commitOps.isEmpty()) {
+                if (this.syncWrites) {
+                    // the chunk data must be on disk before the header pointing at it is
+                    this.file.force(true);
+                }
+                this.writeHeader();
+                if (this.syncWrites) {
+                    this.file.force(true);
+                }
+                for (final RegionFile.CommitOp commitOp : commitOps) {
+                    commitOp.run();
+                }
+                for (int i = 0, len = toFree.size(); i < len; i += 2) {
+                    this.freeSectors(toFree.getInt(i), toFree.getInt(i + 1)); // Paper - memory mapped reads
+                }
+            }
+        }
+    }
+    // Paper end - batched writes
+
     private ByteBuffer createExternalStub() {
         // Paper start - add version param
         return this.createExternalStub(this.version);
@@ -893,6 +1231,15 @@ public class RegionFile implements AutoCloseable {
     }
 
     public boolean hasChunk(ChunkPos pos) {
+        // Paper start - batched writes
+        if (this.stagedWriteCount != 0) {
+            synchronized (this) {
+                if (this.stagedWrites.containsKey(RegionFile.getOffsetIndex(pos))) {
+                    return true;
+                }
+            }
+        }
+        // Paper end - batched writes
         return this.getOffset(pos) != 0;
     }
 
@@ -907,8 +1254,27 @@ public class RegionFile implements AutoCloseable {
         synchronized (this) {
         try {
         // Paper end
-        this.closed = true; // Paper
+        // Paper start - memory mapped reads
+        synchronized (this.readersLock) {
+            this.closed = true; // Paper
+            // readers run without any lock, wait for them so the file cannot be reopened and its sectors reused
+            // while they are still reading
+            boolean interrupted = false;
+            while (!this.mappedReaders.isEmpty()) {
+                try {
+                    this.readersLock.wait();
+                } catch (final InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.mapping = null; // in-flight readers keep the old mapping alive
+        // Paper end - memory mapped reads
         try {
+            this.flushStagedWrites(); // Paper - batched writes
             this.padToFullSector();
         } finally {
             try {
@@ -27,12 +27,19 @@ public class RegionFileStorage implements AutoCloseable {
     private final boolean sync;
 
     private final boolean isChunkData; // Paper
+    private final RegionFileVersion compression; // Paper - configurable chunk compression
 
     RegionFileStorage(Path directory, boolean dsync) {
         // Paper start - add isChunkData param
         this(directory, dsync, false);
     }
     RegionFileStorage(Path directory, boolean dsync, boolean isChunkData) {
+        // Paper start - configurable chunk compression
+        this(directory, dsync, isChunkData, RegionFileVersion.VERSION_DEFLATE);
+    }
+    RegionFileStorage(Path directory, boolean dsync, boolean isChunkData, RegionFileVersion compression) {
+        this.compression = compression;
+        // Paper end - configurable chunk compression
         this.isChunkData = isChunkData;
         // Paper end - add isChunkData param
         this.folder = directory;
@@ -66,51 +73,102 @@ public class RegionFileStorage implements AutoCloseable {
         return this.regionCache.getAndMoveToFirst(ChunkPos.asLong(chunkcoordintpair.getRegionX(), chunkcoordintpair.getRegionZ()));
     }
 
-    public synchronized boolean chunkExists(ChunkPos pos) throws IOException {
-        RegionFile regionfile = getRegionFile(pos, true);
+    public boolean chunkExists(ChunkPos pos) throws IOException { // Paper - lock the region file instead of the storage
+        RegionFile regionfile = getRegionFile(pos, true, true); // Paper
 
-        return regionfile != null ? regionfile.hasChunk(pos) : false;
+        // Paper start - lock the region file instead of the storage
+        if (regionfile == null) {
+            return false;
+        }
+        try {
+            return regionfile.hasChunk(pos);
+        } finally {
+            regionfile.fileLock.unlock();
+        }
+        // Paper end - lock the region file instead of the storage
     }
 
-    public synchronized RegionFile getRegionFile(ChunkPos chunkcoordintpair, boolean existingOnly) throws IOException { // CraftBukkit
+    public RegionFile getRegionFile(ChunkPos chunkcoordintpair, boolean existingOnly) throws IOException { // CraftBukkit // Paper - close evicted region files outside of the storage lock
         return this.getRegionFile(chunkcoordintpair, existingOnly, false);
     }
-    public synchronized RegionFile getRegionFile(ChunkPos chunkcoordintpair, boolean existingOnly, boolean lock) throws IOException {
-        // Paper end
+    // Paper start - close evicted region files outside of the storage lock
+    // region files that were evicted from the cache and are still being closed, they may not be reopened before the close is done
+    private final it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap<java.util.concurrent.CompletableFuture<Void>> closingRegionFiles = new it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap<>();
+
+    public RegionFile getRegionFile(ChunkPos chunkcoordintpair, boolean existingOnly, boolean lock) throws IOException {
         long i = ChunkPos.asLong(chunkcoordintpair.getRegionX(), chunkcoordintpair.getRegionZ());
-        RegionFile regionfile = (RegionFile) this.regionCache.getAndMoveToFirst(i);
 
-        if (regionfile != null) {
-            // Paper start
-            if (lock) {
-                // must be in this synchronized block
-                regionfile.fileLock.lock();
-            }
-            // Paper end
-            return regionfile;
-        } else {
-            if (this.regionCache.size() >= io.papermc.paper.configuration.GlobalConfiguration.get().misc.regionFileCacheSize) { // Paper - configurable
-                ((RegionFile) this.regionCache.removeLast()).close();
+        for (;;) {
+            java.util.concurrent.CompletableFuture<Void> closing;
+            long evictedKey = 0L;
+            RegionFile evicted = null;
+            try {
+                synchronized (this) {
+                    RegionFile regionfile = (RegionFile) this.regionCache.getAndMoveToFirst(i);
+
+                    if (regionfile != null) {
+                        if (lock) {
+                            // must be in this synchronized block
+                            regionfile.fileLock.lock();
+                        }
+                        return regionfile;
+                    }
+
+                    closing = this.closingRegionFiles.get(i);
+                    if (closing == null) {
+                        if (this.regionCache.size() >= io.papermc.paper.configuration.GlobalConfiguration.get().misc.regionFileCacheSize) { // Paper - configurable
+                            evictedKey = this.regionCache.lastLongKey();
+                            evicted = (RegionFile) this.regionCache.removeLast();
+                            this.closingRegionFiles.put(evictedKey, new java.util.concurrent.CompletableFuture<>());
+                        }
+                        return this.openRegionFile(chunkcoordintpair, i, existingOnly, lock);
+                    }
+                }
+            } finally {
+                if (evicted != null) {
+                    this.closeEvictedRegionFile(evictedKey, evicted);
+                }
             }
+            // wait for the previous instance to be flushed before reading the file again
+            closing.join();
+        }
+    }
 
-            Files.createDirectories(this.folder);
-            Path path = this.folder;
-            int j = chunkcoordintpair.getRegionX();
-            Path path1 = path.resolve("r." + j + "." + chunkcoordintpair.getRegionZ() + ".mca"); // Paper - diff on change
-            if (existingOnly && !Files.exists(path1)) return null; // CraftBukkit
-            RegionFile regionfile1 = new RegionFile(path1, this.folder, this.sync, this.isChunkData); // Paper - allow for chunk regionfiles to regen header
-
-            this.regionCache.putAndMoveToFirst(i, regionfile1);
-            // Paper start
-            if (lock) {
-                // must be in this synchronized block
-                regionfile1.fileLock.lock();
+    private void closeEvictedRegionFile(long key, RegionFile regionfile) {
+        try {
+            regionfile.close();
+        } catch (IOException ex) {
+            // the caller already got its region file, a failed close must not leak its lock
+            net.minecraft.server.MinecraftServer.LOGGER.error("Failed to close evicted regionfile " + regionfile.regionFile.toAbsolutePath(), ex);
+        } finally {
+            java.util.concurrent.CompletableFuture<Void> closing;
+            synchronized (this) {
+                closing = this.closingRegionFiles.remove(key);
             }
-            // Paper end
-            return regionfile1;
+            closing.complete(null);
         }
     }
 
+    // must hold the storage lock
+    private RegionFile openRegionFile(ChunkPos chunkcoordintpair, long i, boolean existingOnly, boolean lock) throws IOException {
+        // Paper end - close evicted region files outside of the storage lock
+        Files.createDirectories(this.folder);
+        Path path = this.folder;
+        int j = chunkcoordintpair.getRegionX();
+        Path path1 = path.resolve("r." + j + "." + chunkcoordintpair.getRegionZ() + ".mca"); // Paper - diff on change
+        if (existingOnly && !Files.exists(path1)) return null; // CraftBukkit
+        RegionFile regionfile1 = new RegionFile(path1, this.folder, this.compression, this.sync, this.isChunkData); // Paper - allow for chunk regionfiles to regen header // Paper - configurable chunk compression
+
+        this.regionCache.putAndMoveToFirst(i, regionfile1);
+        // Paper start
+        if (lock) {
+            // must be in this synchronized block
+            regionfile1.fileLock.lock();
+        }
+        // Paper end
+        return regionfile1;
+    }
+
     // Paper start
     private static void printOversizedLog(String msg, Path file, int x, int z) {
         org.apache.logging.log4j.LogManager.getLogger().fatal(msg + " (" + file.toString().replaceAll(".+[\\\\/]", "") + " - " + x + "," + z + ") Go clean it up to remove this message. /minecraft:tp " + (x<<4)+" 128 "+(z<<4) + " - DO NOT REPORT THIS TO PAPER - You may ask for help on Discord, but do not file an issue. These error messages can not be removed.");
@@ -178,6 +236,16 @@ public class RegionFileStorage implements AutoCloseable {
 
     @Nullable
     public CompoundTag read(ChunkPos pos) throws IOException {
+        // Paper start - memory mapped reads - mapped reads do not take the file lock
+        final RegionFile mappedRegionFile = this.getRegionFile(pos, true, false);
+        if (mappedRegionFile == null) {
+            return null;
+        }
+        final CompoundTag mapped = this.readMapped(pos, mappedRegionFile);
+        if (mapped != null) {
+            return mapped;
+        }
+        // Paper end - memory mapped reads
         // CraftBukkit start - SPIGOT-5680: There's no good reason to preemptively create files on read, save that for writing
         RegionFile regionfile = this.getRegionFile(pos, true, true); // Paper
         if (regionfile == null) {
@@ -186,6 +254,24 @@ public class RegionFileStorage implements AutoCloseable {
         // Paper start - Add regionfile parameter
         return this.read(pos, regionfile);
     }
+    // Paper start - memory mapped reads
+    // Returns null if the chunk must be read by the locked path, which also handles missing, oversized and corrupt chunks
+    @Nullable
+    private CompoundTag readMapped(ChunkPos pos, RegionFile regionfile) throws IOException {
+        try (DataInputStream datainputstream = regionfile.getMappedChunkDataInputStream(pos)) {
+            if (datainputstream == null) {
+                return null;
+            }
+            final CompoundTag nbttagcompound = this.isChunkData && io.papermc.paper.world.StreamingChunkReader.isEnabled() ? io.papermc.paper.world.StreamingChunkReader.read(datainputstream) : NbtIo.read((DataInput) datainputstream); // Paper - streaming chunk reads
+            if (this.isChunkData && !ChunkSerializer.getChunkCoordinate(nbttagcompound).equals(pos)) {
+                // let the locked path recalculate the header
+                return null;
+            }
+            return nbttagcompound;
+        }
+    }
+    // Paper end - memory mapped reads
+
     public CompoundTag read(ChunkPos pos, RegionFile regionfile) throws IOException {
         // We add the regionfile parameter to avoid the potential deadlock (on fileLock) if we went back to obtain a regionfile
         // if we decide to re-read
@@ -205,7 +291,7 @@ public class RegionFileStorage implements AutoCloseable {
         {
             try {
                 if (datainputstream != null) {
-                    nbttagcompound = NbtIo.read((DataInput) datainputstream);
+                    nbttagcompound = this.isChunkData && io.papermc.paper.world.StreamingChunkReader.isEnabled() ? io.papermc.paper.world.StreamingChunkReader.read(datainputstream) : NbtIo.read((DataInput) datainputstream); // Paper - streaming chunk reads
                     // Paper start - recover from corrupt regionfile header
                     if (this.isChunkData) {
                         ChunkPos chunkPos = ChunkSerializer.getChunkCoordinate(nbttagcompound);
@@ -30,6 +30,33 @@ public class RegionFileVersion {
     }, (outputStream) -> {
         return outputStream;
     }));
+    // Paper start - additional chunk compression formats
+    public static final RegionFileVersion VERSION_LZ4 = register(new RegionFileVersion(4, (inputStream) -> {
+        return new FastBufferedInputStream(new net.jpountz.lz4.LZ4BlockInputStream(inputStream));
+    }, (outputStream) -> {
+        return new BufferedOutputStream(new net.jpountz.lz4.LZ4BlockOutputStream(outputStream));
+    }));
+    public static final RegionFileVersion VERSION_ZSTD = register(new RegionFileVersion(5, (inputStream) -> {
+        return new FastBufferedInputStream(io.papermc.paper.world.ZstdChunkCompression.wrap(inputStream, false));
+    }, (outputStream) -> {
+        return new BufferedOutputStream(io.papermc.paper.world.ZstdChunkCompression.wrap(outputStream, false));
+    }));
+    public static final RegionFileVersion VERSION_ZSTD_DICTIONARY = register(new RegionFileVersion(6, (inputStream) -> {
+        return new FastBufferedInputStream(io.papermc.paper.world.ZstdChunkCompression.wrap(inputStream, true));
+    }, (outputStream) -> {
+        return new BufferedOutputStream(io.papermc.paper.world.ZstdChunkCompression.wrap(outputStream, true));
+    }));
+
+    public static RegionFileVersion fromFormat(io.papermc.paper.configuration.WorldConfiguration.Chunks.CompressionFormat format) {
+        return switch (format) {
+            case GZIP -> VERSION_GZIP;
+            case ZLIB -> VERSION_DEFLATE;
+            case NONE -> VERSION_NONE;
+            case LZ4 -> VERSION_LZ4;
+            case ZSTD -> io.papermc.paper.world.ZstdChunkCompression.hasDictionary() ? VERSION_ZSTD_DICTIONARY : VERSION_ZSTD;
+        };
+    }
+    // Paper end
     private final int id;
     private final RegionFileVersion.StreamWrapper<InputStream> inputWrapper;
     private final RegionFileVersion.StreamWrapper<OutputStream> outputWrapper;
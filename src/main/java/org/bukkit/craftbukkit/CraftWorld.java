@@ -494,6 +494,20 @@ public class CraftWorld extends CraftRegionAccessor implements World {
         // Paper end
     }
 
+    // Paper start - bulk relight
+    /**
+     * Relights the chunks of the given sections and their neighbours after large block changes, instead of
+     * propagating every changed block. Must be called on the main thread.
+     *
+     * @param sections Section coordinates of the changed sections
+     * @param onComplete Called with the number of chunks relit once the relight completed, off the main thread
+     * @return The number of chunks scheduled to be relit
+     */
+    public int relightSections(java.util.Collection<net.minecraft.core.SectionPos> sections, java.util.function.IntConsumer onComplete) {
+        return this.world.getChunkSource().getLightEngine().relightSections(sections, chunkPos -> {}, onComplete);
+    }
+    // Paper end - bulk relight
+
     @Override
     public boolean refreshChunk(int x, int z) {
         ChunkHolder playerChunk = this.world.getChunkSource().chunkMap.getVisibleChunkIfPresent(ChunkPos.asLong(x, z));
@@ -1031,6 +1045,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
             if (chunk != null) {
                 chunk.setBiome(x >> 2, y >> 2, z >> 2, bb);
+                this.world.getChunkSource().chunkMap.chunkPacketCache.invalidate(x >> 4, z >> 4); // Paper - shared chunk packets
 
                 chunk.setUnsaved(true); // SPIGOT-2890
             }
@@ -173,6 +173,14 @@ public class Main {
                         .defaultsTo("Unknown Server")
                         .describedAs("Name");
                 // Paper end
+
+                // Paper start - world pregeneration
+                acceptsAll(asList("pregenerate"), "Pregenerate the given radius of chunks around the spawn of every world")
+                        .withRequiredArg()
+                        .ofType(Integer.class)
+                        .describedAs("Chunk radius");
+                acceptsAll(asList("pregenerate-exit"), "Stop the server once all worlds finished pregenerating");
+                // Paper end - world pregeneration
             }
         };
 
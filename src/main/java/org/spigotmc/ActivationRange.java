@@ -51,8 +51,6 @@ public class ActivationRange
         ANIMAL,
         RAIDER,
         MISC;
-
-        AABB boundingBox = new AABB( 0, 0, 0, 0, 0, 0 );
     }
     // Paper start
 
@@ -92,7 +90,24 @@ public class ActivationRange
     }
     // Paper end
 
-    static AABB maxBB = new AABB( 0, 0, 0, 0, 0, 0 );
+    // Paper start - entity tick tiers
+    public static final int TIER_ACTIVE = 0;
+    public static final int TIER_EVERY_2_TICKS = 1;
+    public static final int TIER_EVERY_4_TICKS = 2;
+    public static final int TIER_INACTIVE = 3;
+    public static final int TIER_COUNT = 4;
+    private static final int[] TIER_INTERVALS = { 1, 2, 4, 20 };
+
+    private static int getTier(double distance, SpigotWorldConfig config)
+    {
+        return distance <= config.tickTierEvery2TicksRange ? TIER_EVERY_2_TICKS : distance <= config.tickTierEvery4TicksRange ? TIER_EVERY_4_TICKS : TIER_INACTIVE;
+    }
+
+    private static int getTier(Entity entity)
+    {
+        return entity.activationTierTick == MinecraftServer.currentTick ? entity.activationTier : TIER_INACTIVE;
+    }
+    // Paper end - entity tick tiers
 
     /**
      * Initializes an entities type on construction to specify what group this
@@ -180,68 +195,111 @@ public class ActivationRange
         world.wakeupInactiveRemainingFlying = Math.min(world.wakeupInactiveRemainingFlying + 1, world.spigotConfig.wakeUpInactiveFlying);
         final ServerChunkCache chunkProvider = (ServerChunkCache) world.getChunkSource();
         // Paper end
+        // Paper start - entity tick tiers
+        System.arraycopy( world.entityTickTierCounts, 0, world.lastEntityTickTierCounts, 0, TIER_COUNT );
+        java.util.Arrays.fill( world.entityTickTierCounts, 0 );
+        // Paper end - entity tick tiers
 
-        int maxRange = Math.max( monsterActivationRange, animalActivationRange );
-        maxRange = Math.max( maxRange, raiderActivationRange );
-        maxRange = Math.max( maxRange, miscActivationRange );
-        // Paper start
-        maxRange = Math.max( maxRange, flyingActivationRange );
-        maxRange = Math.max( maxRange, waterActivationRange );
-        maxRange = Math.max( maxRange, villagerActivationRange );
-        // Paper end
-        maxRange = Math.min( ( world.spigotConfig.simulationDistance << 4 ) - 8, maxRange );
+        // Paper start - single pass activation range
+        final int maxRange = getMaxRange( world.spigotConfig );
+        final int[] ranges = new int[ActivationType.values().length];
+        ranges[ActivationType.MISC.ordinal()] = Math.min( miscActivationRange, maxRange );
+        ranges[ActivationType.RAIDER.ordinal()] = Math.min( raiderActivationRange, maxRange );
+        ranges[ActivationType.ANIMAL.ordinal()] = Math.min( animalActivationRange, maxRange );
+        ranges[ActivationType.MONSTER.ordinal()] = Math.min( monsterActivationRange, maxRange );
+        ranges[ActivationType.WATER.ordinal()] = Math.min( waterActivationRange, maxRange );
+        ranges[ActivationType.FLYING_MONSTER.ordinal()] = Math.min( flyingActivationRange, maxRange );
+        ranges[ActivationType.VILLAGER.ordinal()] = Math.min( villagerActivationRange, maxRange );
 
         for ( Player player : world.players() )
         {
             player.activatedTick = MinecraftServer.currentTick;
-            if ( world.spigotConfig.ignoreSpectatorActivation && player.isSpectator() )
+        }
+
+        // every ticking entity is visited once and only checked against the players whose activation area
+        // covers its chunk, rather than searching the area around every player
+        final com.destroystokyo.paper.util.misc.PlayerAreaMap areaMap = chunkProvider.chunkMap.playerActivationRangeMap;
+        ( (net.minecraft.server.level.ServerLevel) world ).entityTickList.forEach( (entity) -> {
+            if ( MinecraftServer.currentTick > entity.activatedTick && !( entity instanceof net.minecraft.world.entity.Marker ) ) // Don't tick markers
             {
-                continue;
+                ActivationRange.activateEntity( entity, areaMap.getObjectsInRange( entity.chunkPosition() ), ranges );
             }
+        } );
+        // Paper end - single pass activation range
+        MinecraftTimings.entityActivationCheckTimer.stopTiming();
+    }
 
-            // Paper start
-            int worldHeight = world.getHeight();
-            ActivationRange.maxBB = player.getBoundingBox().inflate( maxRange, worldHeight, maxRange );
-            ActivationType.MISC.boundingBox = player.getBoundingBox().inflate( miscActivationRange, worldHeight, miscActivationRange );
-            ActivationType.RAIDER.boundingBox = player.getBoundingBox().inflate( raiderActivationRange, worldHeight, raiderActivationRange );
-            ActivationType.ANIMAL.boundingBox = player.getBoundingBox().inflate( animalActivationRange, worldHeight, animalActivationRange );
-            ActivationType.MONSTER.boundingBox = player.getBoundingBox().inflate( monsterActivationRange, worldHeight, monsterActivationRange );
-            ActivationType.WATER.boundingBox = player.getBoundingBox().inflate( waterActivationRange, worldHeight, waterActivationRange );
-            ActivationType.FLYING_MONSTER.boundingBox = player.getBoundingBox().inflate( flyingActivationRange, worldHeight, flyingActivationRange );
-            ActivationType.VILLAGER.boundingBox = player.getBoundingBox().inflate( villagerActivationRange, worldHeight, villagerActivationRange );
-            // Paper end
+    // Paper start - single pass activation range
+    private static int getMaxRange(SpigotWorldConfig config)
+    {
+        int maxRange = Math.max( config.monsterActivationRange, config.animalActivationRange );
+        maxRange = Math.max( maxRange, config.raiderActivationRange );
+        maxRange = Math.max( maxRange, config.miscActivationRange );
+        maxRange = Math.max( maxRange, config.flyingMonsterActivationRange );
+        maxRange = Math.max( maxRange, config.waterActivationRange );
+        maxRange = Math.max( maxRange, config.villagerActivationRange );
+        final int tierRange = config.tickTiers ? config.tickTierEvery4TicksRange : 0; // Paper - entity tick tiers
+        return Math.min( ( config.simulationDistance << 4 ) - 8, maxRange + tierRange );
+    }
 
-            // Paper start
-            java.util.List<Entity> entities = world.getEntities((Entity)null, maxBB, (e) -> !(e instanceof net.minecraft.world.entity.Marker)); // Don't tick markers
-            for (int i = 0; i < entities.size(); i++) {
-                Entity entity = entities.get(i);
-                ActivationRange.activateEntity(entity);
-            }
-            // Paper end
-        }
-        MinecraftTimings.entityActivationCheckTimer.stopTiming();
+    /**
+     * Returns the radius in chunks around a player in which entities may be within its activation range.
+     */
+    public static int getActivationAreaRadius(Level world)
+    {
+        // entity and player bounding boxes may reach into the neighbouring chunk
+        return ( Math.max( 0, getMaxRange( world.spigotConfig ) ) >> 4 ) + 2;
     }
 
     /**
-     * Checks for the activation state of all entities in this chunk.
-     *
-     * @param chunk
+     * Activates the entity if it is within the activation range of any of the given players, otherwise
+     * assigns the tick tier of the closest one.
      */
-    private static void activateEntity(Entity entity)
+    private static void activateEntity(Entity entity, com.destroystokyo.paper.util.misc.PooledLinkedHashSets.PooledObjectLinkedOpenHashSet<net.minecraft.server.level.ServerPlayer> players, int[] ranges)
     {
-        if ( MinecraftServer.currentTick > entity.activatedTick )
+        if ( players == null )
+        {
+            return;
+        }
+        if ( entity.defaultActivationState )
+        {
+            entity.activatedTick = MinecraftServer.currentTick;
+            return;
+        }
+        final SpigotWorldConfig config = entity.level.spigotConfig;
+        final int range = ranges[entity.activationType.ordinal()];
+        final AABB boundingBox = entity.getBoundingBox();
+        double closest = Double.MAX_VALUE;
+
+        final Object[] rawData = players.getBackingSet();
+        for ( int i = 0, len = rawData.length; i < len; ++i )
         {
-            if ( entity.defaultActivationState )
+            if ( !( rawData[i] instanceof net.minecraft.server.level.ServerPlayer player ) || ( config.ignoreSpectatorActivation && player.isSpectator() ) )
             {
-                entity.activatedTick = MinecraftServer.currentTick;
-                return;
+                continue;
             }
-            if ( entity.activationType.boundingBox.intersects( entity.getBoundingBox() ) )
+            // horizontal distance between the entity and the player's activation box, the box spans the world height
+            final AABB playerBox = player.getBoundingBox();
+            final double dx = Math.max( playerBox.minX - range - boundingBox.maxX, boundingBox.minX - ( playerBox.maxX + range ) );
+            final double dz = Math.max( playerBox.minZ - range - boundingBox.maxZ, boundingBox.minZ - ( playerBox.maxZ + range ) );
+            final double distance = Math.max( dx, dz );
+            if ( distance < 0.0 )
             {
                 entity.activatedTick = MinecraftServer.currentTick;
+                return;
             }
+            closest = Math.min( closest, distance );
+        }
+
+        // Paper start - entity tick tiers
+        if ( config.tickTiers && closest != Double.MAX_VALUE )
+        {
+            entity.activationTier = ActivationRange.getTier( closest, config );
+            entity.activationTierTick = MinecraftServer.currentTick;
         }
+        // Paper end - entity tick tiers
     }
+    // Paper end - single pass activation range
 
     /**
      * If an entity is not in range, do some more checks to see if we should
@@ -372,23 +430,29 @@ public class ActivationRange
      */
     public static boolean checkIfActive(Entity entity)
     {
+        entity.activationTickInterval = 1; // Paper - entity tick tiers
         // Never safe to skip fireworks or entities not yet added to chunk
         if ( entity instanceof FireworkRocketEntity ) {
+            ++entity.level.entityTickTierCounts[TIER_ACTIVE]; // Paper - entity tick tiers
             return true;
         }
         // Paper start - special case always immunities
         // immunize brand new entities, dead entities, and portal scenarios
         if (entity.defaultActivationState || entity.tickCount < 20*10 || !entity.isAlive() || entity.isInsidePortal || entity.portalCooldown > 0) {
+            ++entity.level.entityTickTierCounts[TIER_ACTIVE]; // Paper - entity tick tiers
             return true;
         }
         // immunize leashed entities
         if (entity instanceof Mob && ((Mob)entity).leashHolder instanceof Player) {
+            ++entity.level.entityTickTierCounts[TIER_ACTIVE]; // Paper - entity tick tiers
             return true;
         }
         // Paper end
 
         boolean isActive = entity.activatedTick >= MinecraftServer.currentTick;
         entity.isTemporarilyActive = false; // Paper
+        final int tier = isActive ? TIER_ACTIVE : ActivationRange.getTier( entity ); // Paper - entity tick tiers
+        ++entity.level.entityTickTierCounts[tier]; // Paper - entity tick tiers
 
         // Should this entity tick?
         if ( !isActive )
@@ -400,13 +464,21 @@ public class ActivationRange
                 int immunity = checkEntityImmunities(entity);
                 if (immunity >= 0) {
                     entity.activatedTick = MinecraftServer.currentTick + immunity;
-                } else {
+                } else if (tier == TIER_INACTIVE) { // Paper - entity tick tiers - tiered entities move normally
                     entity.isTemporarilyActive = true;
                 }
                 // Paper end
                 isActive = true;
 
             }
+            // Paper start - entity tick tiers
+            else if ( tier != TIER_INACTIVE && ( MinecraftServer.currentTick + entity.getId() ) % TIER_INTERVALS[tier] == 0 )
+            {
+                // a full tick standing in for the skipped ones
+                entity.activationTickInterval = TIER_INTERVALS[tier];
+                isActive = true;
+            }
+            // Paper end - entity tick tiers
             // Add a little performance juice to active entities. Skip 1/4 if not immune.
         } else if ( entity.tickCount + entity.getId() + 1 % 4 == 0 && ActivationRange.checkEntityImmunities( entity ) < 0 ) // Paper
         {
@@ -231,6 +231,11 @@ public class SpigotWorldConfig
     public int villagersWorkImmunityFor = 20;
     public boolean villagersActiveForPanic = true;
     // Paper end
+    // Paper start - entity tick tiers
+    public boolean tickTiers = false;
+    public int tickTierEvery2TicksRange = 16;
+    public int tickTierEvery4TicksRange = 32;
+    // Paper end - entity tick tiers
     public boolean tickInactiveVillagers = true;
     public boolean ignoreSpectatorActivation = false;
     private void activationRange()
@@ -265,6 +270,11 @@ public class SpigotWorldConfig
         this.villagersWorkImmunityFor = this.getInt( "entity-activation-range.villagers-work-immunity-for", this.villagersWorkImmunityFor );
         this.villagersActiveForPanic = this.getBoolean( "entity-activation-range.villagers-active-for-panic", this.villagersActiveForPanic );
         // Paper end
+        // Paper start - entity tick tiers
+        this.tickTiers = this.getBoolean( "entity-activation-range.tick-tiers.enabled", this.tickTiers );
+        this.tickTierEvery2TicksRange = this.getInt( "entity-activation-range.tick-tiers.every-2-ticks-range", this.tickTierEvery2TicksRange );
+        this.tickTierEvery4TicksRange = Math.max( this.tickTierEvery2TicksRange, this.getInt( "entity-activation-range.tick-tiers.every-4-ticks-range", this.tickTierEvery4TicksRange ) );
+        // Paper end - entity tick tiers
         this.tickInactiveVillagers = this.getBoolean( "entity-activation-range.tick-inactive-villagers", this.tickInactiveVillagers );
         this.ignoreSpectatorActivation = this.getBoolean( "entity-activation-range.ignore-spectators", this.ignoreSpectatorActivation );
         this.log( "Entity Activation Range: An " + this.animalActivationRange + " / Mo " + this.monsterActivationRange + " / Ra " + this.raiderActivationRange + " / Mi " + this.miscActivationRange + " / Tiv " + this.tickInactiveVillagers + " / Isa " + this.ignoreSpectatorActivation );
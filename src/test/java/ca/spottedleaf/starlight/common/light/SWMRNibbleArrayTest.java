@@ -0,0 +1,88 @@
+package ca.spottedleaf.starlight.common.light;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SWMRNibbleArrayTest {
+
+    private static byte[] filled(final int value) {
+        final byte[] bytes = new byte[SWMRNibbleArray.ARRAY_SIZE];
+        Arrays.fill(bytes, (byte)(value | (value << 4)));
+        return bytes;
+    }
+
+    @Test
+    public void testUniformDataIsShared() {
+        final SWMRNibbleArray first = new SWMRNibbleArray(filled(15));
+        final SWMRNibbleArray second = new SWMRNibbleArray(filled(15));
+
+        assertSame(first.getSaveState().data, second.getSaveState().data);
+        assertEquals(15, first.getVisible(3, 7, 11));
+        assertFalse(SWMRNibbleArray.isShared(filled(15)));
+    }
+
+    @Test
+    public void testNonUniformDataIsNotShared() {
+        final byte[] bytes = filled(15);
+        bytes[100] = 0x0F;
+
+        assertNull(SWMRNibbleArray.getShared(bytes));
+
+        // both nibbles of every byte differ
+        final byte[] mixed = new byte[SWMRNibbleArray.ARRAY_SIZE];
+        Arrays.fill(mixed, (byte)0x3F);
+        assertNull(SWMRNibbleArray.getShared(mixed));
+    }
+
+    @Test
+    public void testWriteInflatesWithoutChangingSharedData() {
+        final SWMRNibbleArray written = new SWMRNibbleArray(filled(15));
+        final SWMRNibbleArray other = new SWMRNibbleArray(filled(15));
+
+        written.set(1, 2, 3, 4);
+        assertEquals(15, written.getVisible(1, 2, 3));
+        assertEquals(4, written.getUpdating(1, 2, 3));
+
+        assertTrue(written.updateVisible());
+        assertEquals(4, written.getVisible(1, 2, 3));
+        assertEquals(15, written.getVisible(0, 0, 0));
+        assertNotSame(other.getSaveState().data, written.getSaveState().data);
+
+        assertEquals(15, other.getVisible(1, 2, 3));
+        assertArrayEquals(filled(15), other.getSaveState().data);
+    }
+
+    @Test
+    public void testUniformUpdateIsShared() {
+        final SWMRNibbleArray nibble = new SWMRNibbleArray();
+        nibble.setFull();
+        nibble.updateVisible();
+
+        assertSame(new SWMRNibbleArray(filled(15)).getSaveState().data, nibble.getSaveState().data);
+
+        // going back to a single differing value inflates again
+        nibble.set(0, 0, 0, 14);
+        nibble.updateVisible();
+        assertEquals(14, nibble.getVisible(0, 0, 0));
+        assertEquals(15, nibble.getVisible(15, 15, 15));
+        assertFalse(SWMRNibbleArray.isShared(nibble.getSaveState().data));
+    }
+
+    @Test
+    public void testZeroData() {
+        final SWMRNibbleArray nibble = new SWMRNibbleArray(filled(0));
+
+        assertTrue(nibble.isInitialisedVisible());
+        assertTrue(nibble.toVanillaNibble().isEmpty());
+        assertNull(nibble.getSaveState().data);
+        assertEquals(SWMRNibbleArray.INIT_STATE_UNINIT, nibble.getSaveState().state);
+    }
+}
@@ -0,0 +1,47 @@
+package io.papermc.paper.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.minecraft.network.CompressionDecoder;
+import net.minecraft.network.CompressionEncoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class PacketCompressionTest {
+
+    private static byte[] roundTrip(final EmbeddedChannel channel, final byte[] data) {
+        Assert.assertTrue(channel.writeOutbound(Unpooled.wrappedBuffer(data)));
+        final ByteBuf compressed = channel.readOutbound();
+        Assert.assertTrue(channel.writeInbound(compressed));
+        final ByteBuf decompressed = channel.readInbound();
+        try {
+            return ByteBufUtil.getBytes(decompressed);
+        } finally {
+            decompressed.release();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final EmbeddedChannel channel = new EmbeddedChannel(new CompressionDecoder(256, true), new CompressionEncoder(256));
+        final Random random = new Random(1L);
+        for (final int size : new int[] { 1, 100, 255, 256, 1000, 8192, 70000, 1 << 20 }) {
+            final byte[] compressible = new byte[size];
+            final byte[] incompressible = new byte[size];
+            for (int i = 0; i < size; ++i) {
+                compressible[i] = (byte)random.nextInt(4);
+            }
+            random.nextBytes(incompressible);
+            // packet id must be a valid single byte var int
+            compressible[0] = incompressible[0] = 0x21;
+
+            Assert.assertArrayEquals("Round trip mismatch for size " + size, compressible, roundTrip(channel, compressible));
+            Assert.assertArrayEquals("Round trip mismatch for size " + size, incompressible, roundTrip(channel, incompressible));
+        }
+        Assert.assertFalse(channel.finish());
+    }
+}
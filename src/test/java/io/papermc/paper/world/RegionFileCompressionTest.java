@@ -0,0 +1,44 @@
+package io.papermc.paper.world;
+
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+public class RegionFileCompressionTest {
+
+    private static byte[] roundTrip(RegionFileVersion version, byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = version.wrap(compressed)) {
+            out.write(data);
+        }
+        try (InputStream in = version.wrap(new ByteArrayInputStream(compressed.toByteArray()))) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        byte[] data = new byte[64 * 1024];
+        Random random = new Random(1L);
+        for (int i = 0; i < data.length; ++i) {
+            // compressible but not uniform, roughly like a palette index stream
+            data[i] = (byte) random.nextInt(8);
+        }
+
+        for (RegionFileVersion version : new RegionFileVersion[] { RegionFileVersion.VERSION_GZIP, RegionFileVersion.VERSION_DEFLATE, RegionFileVersion.VERSION_NONE, RegionFileVersion.VERSION_LZ4, RegionFileVersion.VERSION_ZSTD }) {
+            Assert.assertArrayEquals("Round trip mismatch for compression id " + version.getId(), data, roundTrip(version, data));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingDictionary() throws IOException {
+        RegionFileVersion.VERSION_ZSTD_DICTIONARY.wrap(new ByteArrayInputStream(new byte[0]));
+    }
+}
@@ -0,0 +1,93 @@
+package io.papermc.paper.world;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtUtils;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.world.level.block.Blocks;
+import org.bukkit.support.AbstractTestingBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class StreamingChunkReaderTest extends AbstractTestingBase {
+
+    private static CompoundTag createChunk(final int dataVersion) {
+        final CompoundTag chunk = new CompoundTag();
+        chunk.putInt("DataVersion", dataVersion);
+        chunk.putInt("xPos", 3);
+        chunk.putInt("zPos", -7);
+        chunk.putString("Status", "full");
+
+        final ListTag sections = new ListTag();
+        for (int y = -4; y < 2; ++y) {
+            final CompoundTag section = new CompoundTag();
+            section.putByte("Y", (byte)y);
+
+            final CompoundTag blockStates = new CompoundTag();
+            final ListTag blockPalette = new ListTag();
+            blockPalette.add(NbtUtils.writeBlockState(Blocks.STONE.defaultBlockState()));
+            blockPalette.add(NbtUtils.writeBlockState(Blocks.OAK_LOG.defaultBlockState()));
+            blockPalette.add(NbtUtils.writeBlockState(Blocks.WATER.defaultBlockState()));
+            blockStates.put("palette", blockPalette);
+            final long[] data = new long[256];
+            for (int i = 0; i < data.length; ++i) {
+                data[i] = i * 0x9E3779B97F4A7C15L;
+            }
+            blockStates.putLongArray("data", data);
+            section.put("block_states", blockStates);
+
+            final CompoundTag biomes = new CompoundTag();
+            final ListTag biomePalette = new ListTag();
+            biomePalette.add(StringTag.valueOf("minecraft:plains"));
+            biomes.put("palette", biomePalette);
+            section.put("biomes", biomes);
+
+            section.putByteArray("SkyLight", new byte[2048]);
+            sections.add(section);
+        }
+        chunk.put("sections", sections);
+        return chunk;
+    }
+
+    private static CompoundTag roundTrip(final CompoundTag chunk) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            NbtIo.write(chunk, out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return StreamingChunkReader.read(in);
+        }
+    }
+
+    @Test
+    public void testCurrentVersion() throws IOException {
+        final CompoundTag chunk = createChunk(SharedConstants.getCurrentVersion().getWorldVersion());
+        final CompoundTag read = roundTrip(chunk);
+
+        Assert.assertTrue("Chunk with the current data version should keep decoded sections", read instanceof StreamingChunkReader.StreamedChunkTag);
+        final StreamingChunkReader.StreamedChunkTag streamed = (StreamingChunkReader.StreamedChunkTag)read;
+        Assert.assertEquals(6, streamed.getDecodedSections().length);
+        Assert.assertEquals(Blocks.OAK_LOG.defaultBlockState(), streamed.getDecodedSections()[0].blockStates.get(1));
+        Assert.assertFalse(streamed.getList("sections", 10).getCompound(0).contains("block_states"));
+        Assert.assertEquals(chunk, streamed.materialize());
+        // writing the streamed tag must write the palettes back
+        Assert.assertEquals(chunk, ((StreamingChunkReader.StreamedChunkTag)roundTrip(streamed.copy())).materialize());
+    }
+
+    @Test
+    public void testOldVersion() throws IOException {
+        final CompoundTag chunk = createChunk(2975);
+        final CompoundTag read = roundTrip(chunk);
+
+        Assert.assertFalse(read instanceof StreamingChunkReader.StreamedChunkTag);
+        Assert.assertEquals(chunk, read);
+    }
+}
@@ -0,0 +1,26 @@
+package io.papermc.paper.world;
+
+import net.minecraft.world.level.ChunkPos;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WorldPregeneratorSpiralTest {
+
+    @Test
+    public void testSeekMatchesIteration() {
+        final WorldPregenerator.Spiral iterated = new WorldPregenerator.Spiral(7, -3);
+        for (long index = 0; index < 41L * 41L; ++index) {
+            final long expected = iterated.next();
+            Assert.assertEquals("Mismatch at index " + index, expected, new WorldPregenerator.Spiral(7, -3, index).next());
+        }
+    }
+
+    @Test
+    public void testSeekLargeIndex() {
+        // last chunk of a radius 20000 area, the north west corner is its first chunk and the chunk below it its last
+        final long lastIndex = 40001L * 40001L - 1L;
+        final WorldPregenerator.Spiral spiral = new WorldPregenerator.Spiral(0, 0, lastIndex);
+        Assert.assertEquals(ChunkPos.asLong(-20000, -19999), spiral.next());
+        Assert.assertEquals(ChunkPos.asLong(-20001, -20001), spiral.next());
+    }
+}